@@ -3,6 +3,7 @@ package com.smartbear.ready.plugin.jira;
 import com.eviware.soapui.SoapUI;
 import com.eviware.soapui.plugins.PluginAdapter;
 import com.eviware.soapui.plugins.PluginConfiguration;
+import com.smartbear.ready.plugin.jira.headless.HeadlessFilingConfig;
 
 @PluginConfiguration(groupId = "com.smartbear.ready.plugins",
         name = "JIRA Integration Plugin", version = "1.2",
@@ -11,6 +12,7 @@ import com.eviware.soapui.plugins.PluginConfiguration;
 public class PluginConfig extends PluginAdapter {
     @Override
     public boolean isActive() {
-        return !SoapUI.isCommandLine();
+        //in the command-line runner only the headless filing mode is available
+        return !SoapUI.isCommandLine() || HeadlessFilingConfig.isConfigured();
     }
 }
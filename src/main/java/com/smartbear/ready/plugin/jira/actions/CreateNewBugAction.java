@@ -1,9 +1,6 @@
 package com.smartbear.ready.plugin.jira.actions;
 
-import com.atlassian.jira.rest.client.api.NamedEntity;
 import com.atlassian.jira.rest.client.api.domain.CimFieldInfo;
-import com.atlassian.jira.rest.client.api.domain.CustomFieldOption;
-import com.atlassian.jira.rest.client.api.domain.Version;
 import com.eviware.soapui.impl.wsdl.WsdlProject;
 import com.eviware.soapui.model.ModelItem;
 import com.eviware.soapui.model.support.ModelSupport;
@@ -27,19 +24,42 @@ import com.eviware.x.form.XFormField;
 import com.eviware.x.form.XFormFieldListener;
 import com.eviware.x.form.XFormOptionsField;
 import com.google.inject.Inject;
+import com.smartbear.ready.plugin.jira.cache.MetadataPrefetcher;
+import com.smartbear.ready.plugin.jira.cache.RecentIssueTypesStore;
+import com.smartbear.ready.plugin.jira.cache.SpeculativeFieldLoader;
+import com.smartbear.ready.plugin.jira.dedup.SimilarIssue;
+import com.smartbear.ready.plugin.jira.dedup.SimilarIssueIndex;
 import com.smartbear.ready.plugin.jira.dialog.BugInfoDialogConsts;
+import com.smartbear.ready.plugin.jira.dialog.FieldValueValidator;
+import com.smartbear.ready.plugin.jira.dialog.IssueDetailsFormBuilder;
+import com.smartbear.ready.plugin.jira.dialog.IssueFormTemplate;
+import com.smartbear.ready.plugin.jira.dialog.ProjectPicker;
 import com.smartbear.ready.plugin.jira.impl.AttachmentAddingResult;
+import com.smartbear.ready.plugin.jira.impl.CommentAddingResult;
 import com.smartbear.ready.plugin.jira.impl.IssueCreationResult;
 import com.smartbear.ready.plugin.jira.impl.IssueInfoDialog;
 import com.smartbear.ready.plugin.jira.impl.JiraProvider;
 import com.smartbear.ready.plugin.jira.impl.SwingXScrollableFormDialogBuilder;
+import com.smartbear.ready.plugin.jira.impl.SwingXScrollableFormImpl;
 import com.smartbear.ready.plugin.jira.impl.XFormDialogEx;
-import org.jdesktop.swingx.autocomplete.AutoCompleteDecorator;
-
+import com.smartbear.ready.plugin.jira.metrics.FlightRecorderEvents;
+import com.smartbear.ready.plugin.jira.metrics.FlightRecorderEvents.Phase;
+import com.smartbear.ready.plugin.jira.search.ProjectIndex;
+import com.smartbear.ready.plugin.jira.search.RecentIssuesIndex;
+import com.smartbear.ready.plugin.jira.settings.ServerProfiles;
+import com.smartbear.ready.plugin.jira.sync.IssueStatusSyncService;
+import com.smartbear.ready.plugin.jira.sync.LinkedIssues;
+import com.smartbear.ready.plugin.jira.trace.FlowTracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.Action;
+import javax.swing.SwingWorker;
 import java.awt.GraphicsEnvironment;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,22 +76,32 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
     public static final String READING_JIRA_SETTINGS = "Reading information from JIRA";
     public static final String TOOLBAR_ACTION_DESCRIPTION = "Create a new JIRA item";
     public static final String PATH_TO_TOOLBAR_ICON = "com/smartbear/ready/plugin/jira/icons/Bug-tracker-icon_20-20-px.png";
-    public static final String EMPTY_VALUE_FOR_OPTIONS_FIELD = "";
+    public static final String EMPTY_VALUE_FOR_OPTIONS_FIELD = JiraProvider.EMPTY_OPTION_VALUE;
+    public static final String CHOOSE_REQUIRED_PROJECT_AND_ISSUE_TYPE = "Select a project and an item type.";
+    public static final String NO_ISSUE_TYPE_SELECTED = "Select an item type.";
+    public static final String ISSUE_SUMMARY = "Summary";
+    public static final String ISSUE_DESCRIPTION = "Description";
+    public static final String ATTACH_FILE = "Attach a file";
+    public static final String PLEASE_SPECIFY_ISSUE_OPTIONS = "Specify item's field values. Required fields are marked with red.";
+    public static final int SUMMARY_MAX_LENGTH = 255;
+    public static final String UNABLE_TO_READ_ISSUE_FIELDS = "Unable to read the item fields from JIRA.";
+    public static final String UNABLE_TO_CREATE_ITEM = "Unable to create a JIRA item.";
+    public static final String POSSIBLE_DUPLICATES = "Possible duplicates";
+    public static final String SIMILAR_ISSUES_FOUND = "Similar JIRA items already exist:\n%s\nAdd the details as a comment to %s instead of creating a new item?";
+    public static final String ADDING_COMMENT = "Adding a comment";
+    public static final String UNABLE_TO_ADD_COMMENT = "Unable to add a comment to %s.";
+    public static final String COMMENT_ADDED = "A comment has been added to %s.";
+    private static final String LOADING_ISSUE_FIELDS_LABEL = "###LoadingIssueFields";
+    private static final String RECENT_ISSUES_LABEL = "###RecentIssues";
+    private static final int RECENT_ISSUES_SHOWN = 5;
+    public static final String RECENT_ISSUES_FOUND = "Recent items with similar words:";
+    private static final Logger logger = LoggerFactory.getLogger(CreateNewBugAction.class);
     private static String NEW_ISSUE_DIALOG_CAPTION = "Create a new ";
     private static String READYAPI_PROJECT_NAME = "";
 
     protected String selectedProject, selectedIssueType;
 
-    public static final String DESCRIPTION_FIELD_NAME = "description";
-    private static final List<String> skippedFieldKeys = Arrays.asList("summary",
-            "project",
-            "issuetype",
-            DESCRIPTION_FIELD_NAME,
-            JiraProvider.VERSIONS_FIELD_NAME,
-            "attachment",
-            JiraProvider.PRIORITY_FIELD_NAME,
-            JiraProvider.FIX_VERSIONS_FIELD_NAME);
-    private static final List<String> multilineTextEditors = Arrays.asList("com.atlassian.jira.plugin.system.customfieldtypes:textarea");
+    public static final String DESCRIPTION_FIELD_NAME = IssueDetailsFormBuilder.DESCRIPTION_FIELD_NAME;
 
     @Inject
     public CreateNewBugAction() {
@@ -85,40 +115,65 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
             return;
         }
 
-        JiraProvider bugTrackerProvider = JiraProvider.getProvider();
-        if (!bugTrackerProvider.settingsComplete()) {
-            UISupport.showErrorMessage(JiraProvider.BUG_TRACKER_SETTINGS_ARE_NOT_COMPLETELY_SPECIFIED);
-            return;
-        }
         if (target instanceof Workspace) {
             UISupport.showErrorMessage(WORKSPACE_ITEM_SELECTED);
             return;
         }
+        JiraProvider bugTrackerProvider = JiraProvider.getProvider(target);
+        if (!bugTrackerProvider.settingsComplete()) {
+            UISupport.showErrorMessage(JiraProvider.BUG_TRACKER_SETTINGS_ARE_NOT_COMPLETELY_SPECIFIED);
+            return;
+        }
         bugTrackerProvider.setActiveItem(target);
         READYAPI_PROJECT_NAME = getReadyAPIProjectName(target);
-        List<String> projects = bugTrackerProvider.getListOfAllProjects();
-        if (projects == null || projects.size() == 0) {
+        FlightRecorderEvents.Span initialLoadSpan = FlightRecorderEvents.beginPhase(Phase.INITIAL_LOAD,
+                selectedProject, selectedIssueType);
+        InitialDataWorker initialData = loadInitialDialogData(bugTrackerProvider);
+        if (initialData.allProjectsList == null || initialData.allProjectsList.size() == 0) {
+            initialLoadSpan.end(false);
             UISupport.showErrorMessage(NO_AVAILABLE_JIRA_PROJECTS);
             return;
         }
-        XFormDialog dialogOne = createInitialSetupDialog(bugTrackerProvider);
+        initialLoadSpan.setProjectKey(selectedProject).setIssueType(selectedIssueType).end(true);
+        XFormDialog dialogOne = createInitialSetupDialog(bugTrackerProvider, initialData);
         if (dialogOne.show()) {
-            XFormDialog dialogTwo = createIssueDetailsDialog(bugTrackerProvider, selectedProject, selectedIssueType);
-            XFormDialogEx dialogTwoEx = (XFormDialogEx) dialogTwo;
-            if (dialogTwoEx != null) {
-                int screenHeight = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getHeight();
-                dialogTwoEx.setHeight(7 * screenHeight / 10);
+            if (StringUtils.isNullOrEmpty(selectedIssueType)) {
+                UISupport.showErrorMessage(NO_ISSUE_TYPE_SELECTED);
+                return;
             }
-
-            if (dialogTwo.show()) {
+            IssueDetailsDialog dialogTwo = createIssueDetailsDialog(bugTrackerProvider, selectedProject,
+                    selectedIssueType, null);
+            if (dialogTwo.dialog.show()) {
                 handleOkAction(bugTrackerProvider, dialogTwo);
             }
         } else {
+            SpeculativeFieldLoader.getInstance().cancel();
             selectedProject = null;
             selectedIssueType = null;
         }
     }
 
+    /*
+     * The item details dialog and the template its metadata fields have been built from. The template is set on
+     * the event dispatch thread once the metadata is loaded, the OK button is disabled until then.
+     */
+    private static class IssueDetailsDialog {
+        final XFormDialog dialog;
+        final String projectKey;
+        final String issueType;
+        IssueFormTemplate template;
+
+        IssueDetailsDialog(XFormDialog dialog, String projectKey, String issueType) {
+            this.dialog = dialog;
+            this.projectKey = projectKey;
+            this.issueType = issueType;
+        }
+
+        boolean isOutdated(JiraProvider bugTrackerProvider) {
+            return template.getMetadataVersion() != bugTrackerProvider.getProjectFieldsVersion(projectKey);
+        }
+    }
+
     private class JiraIssueCreatorWorker implements Worker {
         final JiraProvider bugTrackerProvider;
         final String projectKey;
@@ -140,7 +195,12 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
 
         @Override
         public Object construct(XProgressMonitor xProgressMonitor) {
-            result = bugTrackerProvider.createIssue(projectKey, issueType, summary, description, extraValues);
+            long flowId = FlowTracer.getInstance().beginFlow("createItem");
+            try {
+                result = bugTrackerProvider.createIssue(projectKey, issueType, summary, description, extraValues);
+            } finally {
+                FlowTracer.getInstance().endFlow(flowId);
+            }
             return result;
         }
 
@@ -158,28 +218,75 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
         }
     }
 
+    private class JiraCommentWorker implements Worker {
+        final JiraProvider bugTrackerProvider;
+        final String issueKey;
+        final String body;
+        CommentAddingResult result;
+
+        public JiraCommentWorker(JiraProvider bugTrackerProvider, String issueKey, String body) {
+            this.bugTrackerProvider = bugTrackerProvider;
+            this.issueKey = issueKey;
+            this.body = body;
+        }
+
+        @Override
+        public Object construct(XProgressMonitor xProgressMonitor) {
+            long flowId = FlowTracer.getInstance().beginFlow("addComment");
+            try {
+                result = bugTrackerProvider.addComment(issueKey, body);
+            } finally {
+                FlowTracer.getInstance().endFlow(flowId);
+            }
+            return result;
+        }
+
+        @Override
+        public void finished() {
+        }
+
+        @Override
+        public boolean onCancel() {
+            return false;
+        }
+
+        public CommentAddingResult getResult() {
+            return result;
+        }
+    }
+
     private class JiraIssueAttachmentWorker implements Worker {
         final JiraProvider bugTrackerProvider;
-        final IssueCreationResult creationResult;
+        final String issueKey;
         final XFormDialog issueDetails;
         StringBuilder resultError;
         boolean isAttachmentSuccess;
 
-        public JiraIssueAttachmentWorker(JiraProvider bugTrackerProvider, IssueCreationResult creationResult,
-                                         XFormDialog issueDetails) {
+        public JiraIssueAttachmentWorker(JiraProvider bugTrackerProvider, String issueKey, XFormDialog issueDetails) {
             this.bugTrackerProvider = bugTrackerProvider;
-            this.creationResult = creationResult;
+            this.issueKey = issueKey;
             this.issueDetails = issueDetails;
         }
 
         @Override
         public Object construct(XProgressMonitor xProgressMonitor) {
+            long flowId = FlowTracer.getInstance().beginFlow("attachFiles");
+            try {
+                return attachFiles();
+            } finally {
+                FlowTracer.getInstance().endFlow(flowId);
+            }
+        }
+
+        private StringBuilder attachFiles() {
             isAttachmentSuccess = true;
-            URI newIssueAttachURI = bugTrackerProvider.getIssue(creationResult.getIssue().getKey()).getAttachmentsUri();
+            URI newIssueAttachURI = bugTrackerProvider.getIssue(issueKey).getAttachmentsUri();
             resultError = new StringBuilder();
             if (issueDetails.getBooleanValue(BugInfoDialogConsts.ATTACH_READYAPI_LOG)) {
+                FlightRecorderEvents.Span span = beginAttachmentPhase();
                 AttachmentAddingResult attachResult = bugTrackerProvider.attachFile(newIssueAttachURI,
                         bugTrackerProvider.getActiveItemName() + ".log", bugTrackerProvider.getReadyApiLog());
+                endAttachmentPhase(span, attachResult);
                 if (!attachResult.getSuccess()) {
                     isAttachmentSuccess = false;
                     resultError.append(attachResult.getError());
@@ -188,8 +295,10 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
             }
 
             if (issueDetails.getBooleanValue(BugInfoDialogConsts.ATTACH_PROJECT)) {
+                FlightRecorderEvents.Span span = beginAttachmentPhase();
                 AttachmentAddingResult attachResult = bugTrackerProvider.attachFile(newIssueAttachURI,
                         bugTrackerProvider.getRootProjectName() + ".xml", bugTrackerProvider.getRootProject());
+                endAttachmentPhase(span, attachResult);
                 if (!attachResult.getSuccess()) {
                     isAttachmentSuccess = false;
                     resultError.append(attachResult.getError());
@@ -199,7 +308,9 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
 
             String attachAnyFileValue = issueDetails.getValue(BugInfoDialogConsts.ATTACH_ANY_FILE);
             if (!StringUtils.isNullOrEmpty(issueDetails.getValue(BugInfoDialogConsts.ATTACH_ANY_FILE))) {
+                FlightRecorderEvents.Span span = beginAttachmentPhase();
                 AttachmentAddingResult attachResult = bugTrackerProvider.attachFile(newIssueAttachURI, attachAnyFileValue);
+                endAttachmentPhase(span, attachResult);
                 if (!attachResult.getSuccess()) {
                     isAttachmentSuccess = false;
                     resultError.append(attachResult.getError());
@@ -223,22 +334,34 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
             return isAttachmentSuccess;
         }
 
+        private FlightRecorderEvents.Span beginAttachmentPhase() {
+            return FlightRecorderEvents.beginPhase(Phase.ATTACHMENT, selectedProject, null).setIssueKey(issueKey);
+        }
+
+        private void endAttachmentPhase(FlightRecorderEvents.Span span, AttachmentAddingResult attachResult) {
+            span.setBytes(attachResult.getUploadedBytes()).end(attachResult.getSuccess());
+        }
+
         public StringBuilder getResultError() {
             return resultError;
         }
     }
 
-    private void handleOkAction(JiraProvider bugTrackerProvider, XFormDialog issueDetails) {
+    private void handleOkAction(JiraProvider bugTrackerProvider, IssueDetailsDialog issueDetailsDialog) {
+        XFormDialog issueDetails = issueDetailsDialog.dialog;
         StringToStringMap values = issueDetails.getValues();
         String summary = values.get(BugInfoDialogConsts.ISSUE_SUMMARY, null);
-        String description = values.get(BugInfoDialogConsts.ISSUE_DESCRIPTION, null);
-        String projectKey = selectedProject;
-        String issueType = selectedIssueType;
+        String projectKey = issueDetailsDialog.projectKey;
+        String issueType = issueDetailsDialog.issueType;
+        //the fields the form has been built from, the cached metadata may have been reloaded meanwhile
+        Map<String, CimFieldInfo> fields = issueDetailsDialog.template.getFieldInfos();
+        //the description field is hidden when the item type has none
+        String description = fields.containsKey(DESCRIPTION_FIELD_NAME) ?
+                values.get(BugInfoDialogConsts.ISSUE_DESCRIPTION, null) : null;
         Map<String, String> extraValues = new HashMap<String, String>();
-        for (Map.Entry<String, CimFieldInfo> entry :
-                bugTrackerProvider.getProjectFields(projectKey).get(projectKey).get(issueType).entrySet()) {
+        for (Map.Entry<String, CimFieldInfo> entry : fields.entrySet()) {
             String key = entry.getKey();
-            if (skippedFieldKeys.contains(key) &&
+            if (IssueDetailsFormBuilder.SKIPPED_FIELD_KEYS.contains(key) &&
                     !key.equals(JiraProvider.VERSIONS_FIELD_NAME) &&
                     !key.equals(JiraProvider.FIX_VERSIONS_FIELD_NAME) &&
                     !key.equals(JiraProvider.PRIORITY_FIELD_NAME)) {
@@ -248,18 +371,46 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
                 extraValues.put(entry.getKey(), values.get(entry.getValue().getName()));
             }
         }
+        List<SimilarIssue> similarIssues = bugTrackerProvider.findSimilarIssues(projectKey, summary, description,
+                SimilarIssueIndex.DEFAULT_MIN_SIMILARITY);
+        if (!similarIssues.isEmpty()) {
+            StringBuilder similarIssuesList = new StringBuilder();
+            for (SimilarIssue similarIssue : similarIssues) {
+                similarIssuesList.append("  ").append(similarIssue).append('\n');
+            }
+            Boolean commentInstead = UISupport.confirmOrCancel(String.format(SIMILAR_ISSUES_FOUND,
+                    similarIssuesList, similarIssues.get(0).getIssueKey()), POSSIBLE_DUPLICATES);
+            if (commentInstead == null) {
+                showAgain(bugTrackerProvider, issueDetailsDialog);
+                return;
+            }
+            if (commentInstead) {
+                commentOnIssue(bugTrackerProvider, similarIssues.get(0).getIssueKey(), summary, description,
+                        issueDetailsDialog);
+                return;
+            }
+        }
         XProgressDialog issueCreationProgressDialog = UISupport.getDialogs().createProgressDialog(
                 NEW_ISSUE_DETAILS_FORM_NAME, 100, PLEASE_WAIT, false);
         JiraIssueCreatorWorker worker = new JiraIssueCreatorWorker(bugTrackerProvider, projectKey,
                 issueType, summary, description, extraValues);
+        FlightRecorderEvents.Span createSpan = FlightRecorderEvents.beginPhase(Phase.CREATE, projectKey, issueType);
         try {
             issueCreationProgressDialog.run(worker);
         } catch (Exception e) {
         }
         IssueCreationResult result = worker.getResult();
-        if (result.getSuccess()) {
+        //no result if the creation failed with an unexpected error
+        boolean created = result != null && result.getSuccess();
+        if (created) {
+            createSpan.setIssueKey(result.getIssue().getKey());
+        }
+        createSpan.end(created);
+        if (created) {
+            RecentIssueTypesStore.getInstance(bugTrackerProvider.getProfileName()).add(projectKey, issueType);
+            linkIssue(bugTrackerProvider, result.getIssue().getKey());
             JiraIssueAttachmentWorker attachmentWorker =
-                    new JiraIssueAttachmentWorker(bugTrackerProvider, result, issueDetails);
+                    new JiraIssueAttachmentWorker(bugTrackerProvider, result.getIssue().getKey(), issueDetails);
             XProgressDialog addingAttachmentProgressDialog =
                     UISupport.getDialogs().createProgressDialog(ADDING_ATTACHMENTS, 100, PLEASE_WAIT, false);
             try {
@@ -269,9 +420,7 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
 
             if (!attachmentWorker.getAttachmentSuccess()) {
                 UISupport.showErrorMessage(attachmentWorker.getResultError().toString());
-                if (issueDetails.show()) {
-                    handleOkAction(bugTrackerProvider, issueDetails);
-                }
+                showAgain(bugTrackerProvider, issueDetailsDialog);
             } else {
                 IssueInfoDialog.showDialog(issueType,
                         bugTrackerProvider.getBugTrackerSettings().getUrl().concat("/browse/").concat(result.getIssue().getKey()),
@@ -279,258 +428,280 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
             }
 
         } else {
-            UISupport.showErrorMessage(result.getError());
-            if (issueDetails.show()) {
-                handleOkAction(bugTrackerProvider, issueDetails);
-            }
+            UISupport.showErrorMessage(result == null ? UNABLE_TO_CREATE_ITEM : result.getError());
+            showAgain(bugTrackerProvider, issueDetailsDialog);
         }
     }
 
-    public static Object[] IterableObjectsToNameArray(JiraProvider bugTrackerProvider, Iterable<Object> input, boolean addEmptyValue) {
-        ArrayList<Object> objects = new ArrayList<>();
-        if (addEmptyValue) {
-            objects.add(EMPTY_VALUE_FOR_OPTIONS_FIELD);
-        }
-        for (Object obj : input) {
-            CustomFieldOption customFieldOption = bugTrackerProvider.transformToCustomFieldOption(obj);
-            if (customFieldOption != null) {
-                objects.add(customFieldOption.getValue());
-            } else {
-                if (obj instanceof NamedEntity) {
-                    NamedEntity namedEntity = (NamedEntity) obj;
-                    objects.add(namedEntity.getName());
-                }
-            }
+    /*
+     * Shows the details again after a failure. If the server has rejected the fields their metadata has been
+     * dropped, so a new form is built from the reloaded metadata with the values typed so far.
+     */
+    private void showAgain(JiraProvider bugTrackerProvider, IssueDetailsDialog issueDetailsDialog) {
+        if (issueDetailsDialog.isOutdated(bugTrackerProvider)) {
+            StringToStringMap values = issueDetailsDialog.dialog.getValues();
+            issueDetailsDialog = createIssueDetailsDialog(bugTrackerProvider, issueDetailsDialog.projectKey,
+                    issueDetailsDialog.issueType, values);
+        }
+        if (issueDetailsDialog.dialog.show()) {
+            handleOkAction(bugTrackerProvider, issueDetailsDialog);
         }
-        return objects.toArray();
     }
 
-    public static Object[] FixVersionsToNameArray(JiraProvider bugTrackerProvider, Iterable<Object> input,
-                                                  boolean skipReleasedVersions, boolean needEmptyValue) {
-        ArrayList<Object> objects = new ArrayList<>();
-        if (needEmptyValue) {
-            objects.add(EMPTY_VALUE_FOR_OPTIONS_FIELD);
-        }
-        for (Object obj : input) {
-            Version versionValue = bugTrackerProvider.transformToVersion(obj);
-            if (versionValue != null) {
-                if (!skipReleasedVersions || (skipReleasedVersions && !versionValue.isReleased())) {
-                    objects.add(versionValue.getName());
-                }
-            }
+    private void commentOnIssue(JiraProvider bugTrackerProvider, String issueKey, String summary, String description,
+                                IssueDetailsDialog issueDetailsDialog) {
+        XFormDialog issueDetails = issueDetailsDialog.dialog;
+        String body = StringUtils.isNullOrEmpty(description) ? summary : summary + "\n\n" + description;
+        JiraCommentWorker worker = new JiraCommentWorker(bugTrackerProvider, issueKey, body);
+        XProgressDialog commentProgressDialog = UISupport.getDialogs().createProgressDialog(
+                ADDING_COMMENT, 100, PLEASE_WAIT, false);
+        FlightRecorderEvents.Span commentSpan = FlightRecorderEvents.beginPhase(Phase.COMMENT, selectedProject,
+                selectedIssueType).setIssueKey(issueKey);
+        try {
+            commentProgressDialog.run(worker);
+        } catch (Exception e) {
+        }
+        CommentAddingResult result = worker.getResult();
+        commentSpan.end(result != null && result.getSuccess());
+        if (result == null || !result.getSuccess()) {
+            UISupport.showErrorMessage(result == null ? String.format(UNABLE_TO_ADD_COMMENT, issueKey) : result.getError());
+            showAgain(bugTrackerProvider, issueDetailsDialog);
+            return;
+        }
+        linkIssue(bugTrackerProvider, issueKey);
+        JiraIssueAttachmentWorker attachmentWorker = new JiraIssueAttachmentWorker(bugTrackerProvider, issueKey, issueDetails);
+        XProgressDialog addingAttachmentProgressDialog =
+                UISupport.getDialogs().createProgressDialog(ADDING_ATTACHMENTS, 100, PLEASE_WAIT, false);
+        try {
+            addingAttachmentProgressDialog.run(attachmentWorker);
+        } catch (Exception e) {
+        }
+        if (!attachmentWorker.getAttachmentSuccess()) {
+            UISupport.showErrorMessage(attachmentWorker.getResultError().toString());
+        } else {
+            UISupport.showInfoMessage(String.format(COMMENT_ADDED, issueKey));
         }
-        return objects.toArray();
     }
 
-    private CimFieldInfo getFieldInfo(JiraProvider bugTrackerProvider, String selectedProject, String selectedIssueType, String fieldInfoKey) {
-        Map<String, Map<String, Map<String, CimFieldInfo>>> allFields = bugTrackerProvider.getProjectFields(selectedProject);
-        for (Map.Entry<String, CimFieldInfo> field : allFields.get(selectedProject).get(selectedIssueType).entrySet()) {
-            String key = field.getKey();
-            if (key.equals(fieldInfoKey)) {
-                return field.getValue();
-            }
+    private void linkIssue(JiraProvider bugTrackerProvider, String issueKey) {
+        if (LinkedIssues.addIssueKey(bugTrackerProvider.getActiveItem(), issueKey)) {
+            IssueStatusSyncService.getInstance().register(bugTrackerProvider.getProfileName(),
+                    Collections.singletonList(issueKey));
         }
-        return null;
     }
 
-    private void addExtraFields(XForm baseDialog, JiraProvider bugTrackerProvider, String selectedProject, String selectedIssueType) {
-        Map<String, Map<String, Map<String, CimFieldInfo>>> allFields = bugTrackerProvider.getProjectFields(selectedProject);
-        for (Map.Entry<String, CimFieldInfo> field : allFields.get(selectedProject).get(selectedIssueType).entrySet()) {
-            String key = field.getKey();
-            if (skippedFieldKeys.contains(key)) {
-                continue;
-            }
-            CimFieldInfo fieldInfo = field.getValue();
-            XFormField newField;
-            if (fieldInfo.getAllowedValues() != null) {
-                Object[] values = IterableObjectsToNameArray(bugTrackerProvider, fieldInfo.getAllowedValues(), !fieldInfo.isRequired());
-                if (values.length > 0) {
-                    newField = baseDialog.addComboBox(fieldInfo.getName(), values, fieldInfo.getName());
-                    makeComboBoxFieldEditable(newField);
-                } else {
-                    newField = baseDialog.addTextField(fieldInfo.getName(), fieldInfo.getName(), XForm.FieldType.TEXT);
-                }
-            } else {
-                boolean isMultilineTextEditor = multilineTextEditors.contains(fieldInfo.getSchema().getCustom());
-                newField = baseDialog.addTextField(fieldInfo.getName(), fieldInfo.getName(),
-                        isMultilineTextEditor ? XForm.FieldType.TEXTAREA : XForm.FieldType.TEXT);
-            }
-            if (fieldInfo.isRequired()) {
-                newField.setRequired(true, fieldInfo.getName());
-            }
-        }
+    public static Object[] IterableObjectsToNameArray(JiraProvider bugTrackerProvider, Iterable<Object> input, boolean addEmptyValue) {
+        return bugTrackerProvider.getAllowedValueNames(input, addEmptyValue);
+    }
+
+    public static Object[] FixVersionsToNameArray(JiraProvider bugTrackerProvider, Iterable<Object> input,
+                                                  boolean skipReleasedVersions, boolean needEmptyValue) {
+        return bugTrackerProvider.getVersionNames(input, skipReleasedVersions, needEmptyValue);
     }
 
-    private void makeComboBoxFieldEditable(XFormField field) {
+    private ProjectPicker installProjectPicker(XFormField field, JiraProvider bugTrackerProvider, ProjectIndex projectIndex) {
         if (field instanceof com.eviware.x.impl.swing.JComboBoxFormField) {
             com.eviware.x.impl.swing.JComboBoxFormField comboBox = (com.eviware.x.impl.swing.JComboBoxFormField) field;
-            comboBox.getComponent().setEditable(true);
-            AutoCompleteDecorator.decorate(comboBox.getComponent());
+            return ProjectPicker.install(comboBox.getComponent(), bugTrackerProvider, projectIndex);
         }
+        return null;
     }
 
-    private class RequiredFieldsWorker implements Worker {
-        public static final String ISSUE_SUMMARY = "Summary";
-        public static final String ISSUE_DESCRIPTION = "Description";
-        public static final String ATTACH_FILE = "Attach a file";
-        public static final String PLEASE_SPECIFY_ISSUE_OPTIONS = "Specify item's field values. Required fields are marked with red.";
-        final JiraProvider bugTrackerProvider;
-        final String selectedProject;
-        final String selectedIssueType;
-        XFormDialog dialog;
-
-        public RequiredFieldsWorker(JiraProvider bugTrackerProvider, String selectedProject, String selectedIssueType) {
-            this.selectedProject = selectedProject;
-            this.selectedIssueType = selectedIssueType;
-            this.bugTrackerProvider = bugTrackerProvider;
-        }
-
-        @Override
-        public Object construct(XProgressMonitor xProgressMonitor) {
-            SwingXScrollableFormDialogBuilder builder = new SwingXScrollableFormDialogBuilder(NEW_ISSUE_DIALOG_CAPTION +
-                    selectedIssueType + " item in  [" + READYAPI_PROJECT_NAME + "] Project");
-            XForm form = builder.createForm("Basic");
-            XFormField summaryField = form.addTextField(BugInfoDialogConsts.ISSUE_SUMMARY, ISSUE_SUMMARY,
-                    XForm.FieldType.TEXT);
-            summaryField.setRequired(true, ISSUE_SUMMARY);
-            CimFieldInfo descriptionFieldInfo = getFieldInfo(bugTrackerProvider, selectedProject, selectedIssueType,
-                    DESCRIPTION_FIELD_NAME);
-            if (descriptionFieldInfo != null) {
-                XFormField descriptionField = form.addTextField(BugInfoDialogConsts.ISSUE_DESCRIPTION, ISSUE_DESCRIPTION,
-                        XForm.FieldType.TEXTAREA);
-                descriptionField.setRequired(getFieldInfo(bugTrackerProvider, selectedProject,
-                        selectedIssueType, DESCRIPTION_FIELD_NAME).isRequired(), ISSUE_DESCRIPTION);
-            }
-            CimFieldInfo priorityFieldInfo = getFieldInfo(bugTrackerProvider, selectedProject, selectedIssueType,
-                    JiraProvider.PRIORITY_FIELD_NAME);
-            if (priorityFieldInfo != null) {
-                XFormField priorityField = form.addComboBox(priorityFieldInfo.getName(),
-                        IterableObjectsToNameArray(bugTrackerProvider, priorityFieldInfo.getAllowedValues(), false),
-                        priorityFieldInfo.getName());
-                makeComboBoxFieldEditable(priorityField);
-                priorityField.setRequired(priorityFieldInfo.isRequired(), priorityFieldInfo.getName());
+    /*
+     * The dialog is created on the event dispatch thread and shown right away with the summary and description
+     * fields. The fields which depend on the project metadata are added to it once the metadata has been loaded
+     * in the background, until then the OK button is disabled. The values of a previous form, if any, are filled
+     * in again.
+     */
+    private IssueDetailsDialog createIssueDetailsDialog(final JiraProvider bugTrackerProvider, final String selectedProject,
+                                                        final String selectedIssueType, final StringToStringMap values) {
+        SwingXScrollableFormDialogBuilder builder = new SwingXScrollableFormDialogBuilder(NEW_ISSUE_DIALOG_CAPTION +
+                selectedIssueType + " item in  [" + READYAPI_PROJECT_NAME + "] Project");
+        SwingXScrollableFormImpl form = (SwingXScrollableFormImpl) builder.createForm("Basic");
+        XFormField summaryField = form.addTextField(BugInfoDialogConsts.ISSUE_SUMMARY, ISSUE_SUMMARY,
+                XForm.FieldType.TEXT);
+        summaryField.setRequired(true, ISSUE_SUMMARY);
+        summaryField.addFormFieldValidator(FieldValueValidator.maxLength(ISSUE_SUMMARY, SUMMARY_MAX_LENGTH));
+        installRecentIssuesLabel(form, summaryField, bugTrackerProvider, selectedProject);
+        final XFormField descriptionField = form.addTextField(BugInfoDialogConsts.ISSUE_DESCRIPTION, ISSUE_DESCRIPTION,
+                XForm.FieldType.TEXTAREA);
+        final SwingXScrollableFormImpl metadataForm = form.addNestedForm("Metadata");
+        form.addCheckBox(BugInfoDialogConsts.ATTACH_READYAPI_LOG, BugInfoDialogConsts.ATTACH_READYAPI_LOG);
+        form.addCheckBox(BugInfoDialogConsts.ATTACH_PROJECT, BugInfoDialogConsts.ATTACH_PROJECT);
+        form.addTextField(BugInfoDialogConsts.ATTACH_ANY_FILE, ATTACH_FILE, XForm.FieldType.FILE);
+        XFormDialog dialog = builder.buildDialog(builder.buildOkCancelActions(), PLEASE_SPECIFY_ISSUE_OPTIONS, null);
+        if (dialog instanceof XFormDialogEx) {
+            int screenHeight = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDisplayMode().getHeight();
+            ((XFormDialogEx) dialog).setHeight(7 * screenHeight / 10);
+        }
+        if (values != null) {
+            //only the fields which do not depend on the metadata exist yet
+            dialog.setValues(values);
+        }
+        final IssueDetailsDialog issueDetailsDialog = new IssueDetailsDialog(dialog, selectedProject, selectedIssueType);
+
+        final IssueDetailsFormBuilder formBuilder = new IssueDetailsFormBuilder(bugTrackerProvider,
+                bugTrackerProvider.getBugTrackerSettings().getSkipReleasedVersions());
+        IssueFormTemplate cachedTemplate = formBuilder.getCachedTemplate(selectedProject, selectedIssueType);
+        if (cachedTemplate != null) {
+            //the same item type has already been used with the current metadata
+            FlightRecorderEvents.Span formBuildSpan = FlightRecorderEvents.beginPhase(Phase.FORM_BUILD,
+                    selectedProject, selectedIssueType);
+            fillIssueDetailsForm(form, metadataForm, descriptionField, formBuilder, cachedTemplate, values);
+            issueDetailsDialog.template = cachedTemplate;
+            formBuildSpan.end(true);
+            return issueDetailsDialog;
+        }
+
+        metadataForm.addLabel(LOADING_ISSUE_FIELDS_LABEL, READING_JIRA_SETTINGS_FOR_SELECTED_PROJECT_AND_ISSUE_TYPE + "...");
+        final XFormField loadingLabel = metadataForm.getFormField(LOADING_ISSUE_FIELDS_LABEL);
+        final SwingXScrollableFormImpl baseForm = form;
+        final Action okAction = builder.getOkAction();
+        okAction.setEnabled(false);
+        new SwingWorker<IssueFormTemplate, Void>() {
+            //the form is built from the background thread until it is filled in on the event dispatch thread
+            private FlightRecorderEvents.Span formBuildSpan;
+
+            @Override
+            protected IssueFormTemplate doInBackground() throws Exception {
+                long flowId = FlowTracer.getInstance().beginFlow("loadFields");
+                try {
+                    FlightRecorderEvents.Span createmetaSpan = FlightRecorderEvents.beginPhase(Phase.CREATEMETA,
+                            selectedProject, selectedIssueType);
+                    createmetaSpan.end(bugTrackerProvider.getProjectFields(selectedProject) != null);
+                    formBuildSpan = FlightRecorderEvents.beginPhase(Phase.FORM_BUILD, selectedProject, selectedIssueType);
+                    return formBuilder.getTemplate(selectedProject, selectedIssueType);
+                } finally {
+                    FlowTracer.getInstance().endFlow(flowId);
+                }
             }
-            //adding Affect versions field
-            CimFieldInfo affectedVersionFieldInfo = getFieldInfo(bugTrackerProvider, selectedProject, selectedIssueType,
-                    JiraProvider.VERSIONS_FIELD_NAME);
-            if (affectedVersionFieldInfo != null) {
-                XFormField affectedVersionField = null;
-                if (affectedVersionFieldInfo.getAllowedValues() != null) {
-                    Object[] values = IterableObjectsToNameArray(bugTrackerProvider,
-                            affectedVersionFieldInfo.getAllowedValues(), !affectedVersionFieldInfo.isRequired());
-                    if (values.length > 0) {
-                        affectedVersionField = form.addComboBox(affectedVersionFieldInfo.getName(), values,
-                                affectedVersionFieldInfo.getName());
-                        makeComboBoxFieldEditable(affectedVersionField);
-                    }
+
+            @Override
+            protected void done() {
+                IssueFormTemplate template = null;
+                try {
+                    template = get();
+                } catch (Exception e) {
+                    logger.error(e.getMessage());
                 }
-                if (affectedVersionFieldInfo.isRequired() && affectedVersionField != null) {
-                    affectedVersionField.setRequired(true, affectedVersionFieldInfo.getName());
+                if (template == null) {
+                    //OK stays disabled, the dialog can only be cancelled
+                    loadingLabel.setValue(UNABLE_TO_READ_ISSUE_FIELDS);
+                    if (formBuildSpan != null) {
+                        formBuildSpan.end(false);
+                    }
+                    return;
                 }
+                metadataForm.setComponentVisibility(loadingLabel, false);
+                fillIssueDetailsForm(baseForm, metadataForm, descriptionField, formBuilder, template, values);
+                issueDetailsDialog.template = template;
+                okAction.setEnabled(true);
+                formBuildSpan.end(true);
             }
-            //end of adding Affect versions field
-
-            addExtraFields(form, bugTrackerProvider, selectedProject, selectedIssueType);
-
-            //adding Fix Version field (filtered)
-            CimFieldInfo fixedVersionFieldInfo = getFieldInfo(bugTrackerProvider, selectedProject, selectedIssueType,
-                    "fixVersions");
-            if (fixedVersionFieldInfo != null) {
-                XFormField fixVersionField = null;
-                if (fixedVersionFieldInfo.getAllowedValues() != null) {
-                    Object[] values = FixVersionsToNameArray(bugTrackerProvider,
-                            fixedVersionFieldInfo.getAllowedValues(),
-                            bugTrackerProvider.getBugTrackerSettings().getSkipReleasedVersions(),
-                            !fixedVersionFieldInfo.isRequired());
-                    if (values.length > 0) {
-                        fixVersionField = form.addComboBox(fixedVersionFieldInfo.getName(), values,
-                                fixedVersionFieldInfo.getName());
-                        makeComboBoxFieldEditable(fixVersionField);
-                    }
+        }.execute();
+        return issueDetailsDialog;
+    }
+
+    /*
+     * Lists the recent items of the project matching the summary under it while it is typed. The items are read
+     * in the background when the dialog is opened, the search itself is local.
+     */
+    private void installRecentIssuesLabel(SwingXScrollableFormImpl form, XFormField summaryField,
+                                          final JiraProvider bugTrackerProvider, final String selectedProject) {
+        form.addLabel(RECENT_ISSUES_LABEL, "");
+        final XFormField recentIssuesLabel = form.getFormField(RECENT_ISSUES_LABEL);
+        final SwingXScrollableFormImpl baseForm = form;
+        form.setComponentVisibility(recentIssuesLabel, false);
+        summaryField.addFormFieldListener(new XFormFieldListener() {
+            @Override
+            public void valueChanged(XFormField xFormField, String newValue, String oldValue) {
+                List<RecentIssuesIndex.Match> matches = bugTrackerProvider.getRecentIssuesIndex(selectedProject)
+                        .search(newValue, RECENT_ISSUES_SHOWN);
+                if (matches.isEmpty()) {
+                    baseForm.setComponentVisibility(recentIssuesLabel, false);
+                    return;
                 }
-                if (fixedVersionFieldInfo.isRequired() && fixVersionField != null) {
-                    fixVersionField.setRequired(true, fixedVersionFieldInfo.getName());
+                StringBuilder text = new StringBuilder("<html>").append(RECENT_ISSUES_FOUND);
+                for (RecentIssuesIndex.Match match : matches) {
+                    text.append("<br>").append(escapeHtml(match.toString()));
                 }
+                recentIssuesLabel.setValue(text.append("</html>").toString());
+                baseForm.setComponentVisibility(recentIssuesLabel, true);
             }
-            //end of adding Fix Version field (filtered)
-
-            form.addCheckBox(BugInfoDialogConsts.ATTACH_READYAPI_LOG, BugInfoDialogConsts.ATTACH_READYAPI_LOG);
-            form.addCheckBox(BugInfoDialogConsts.ATTACH_PROJECT, BugInfoDialogConsts.ATTACH_PROJECT);
-            form.addTextField(BugInfoDialogConsts.ATTACH_ANY_FILE, ATTACH_FILE, XForm.FieldType.FILE);
-            dialog = builder.buildDialog(builder.buildOkCancelActions(), PLEASE_SPECIFY_ISSUE_OPTIONS, null);
-            return dialog;
-        }
-
-        @Override
-        public void finished() {
+        });
+        //the duplicate checks use the recent items of the project, they are read while the form is filled in
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                bugTrackerProvider.syncRecentIssues(selectedProject);
+                return null;
+            }
+        }.execute();
+    }
 
-        }
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
 
-        @Override
-        public boolean onCancel() {
-            return false;
+    private void fillIssueDetailsForm(SwingXScrollableFormImpl form, SwingXScrollableFormImpl metadataForm,
+                                      XFormField descriptionField, IssueDetailsFormBuilder formBuilder,
+                                      IssueFormTemplate template, StringToStringMap values) {
+        if (template.hasDescription()) {
+            descriptionField.setRequired(template.isDescriptionRequired(), ISSUE_DESCRIPTION);
+        } else {
+            form.setComponentVisibility(descriptionField, false);
         }
-
-        public XFormDialog getDialog() {
-            return dialog;
+        formBuilder.addMetadataFields(metadataForm, template);
+        if (values == null) {
+            return;
         }
-    }
-
-    private XFormDialog createIssueDetailsDialog(final JiraProvider bugTrackerProvider, final String selectedProject,
-                                                 final String selectedIssueType) {
-        RequiredFieldsWorker worker = new RequiredFieldsWorker(bugTrackerProvider, selectedProject, selectedIssueType);
-        XProgressDialog readingProjectSettingsProgressDialog = UISupport.getDialogs().createProgressDialog(
-                READING_JIRA_SETTINGS_FOR_SELECTED_PROJECT_AND_ISSUE_TYPE, 100, PLEASE_WAIT, false);
-        try {
-            readingProjectSettingsProgressDialog.run(worker);
-        } catch (Exception e) {
+        for (IssueFormTemplate.FieldDescriptor descriptor : template.getFields()) {
+            //an empty value would needlessly create the fields of a collapsed section
+            String value = values.get(descriptor.getName());
+            if (!StringUtils.isNullOrEmpty(value)) {
+                metadataForm.setComponentValue(descriptor.getName(), value);
+            }
         }
-        return worker.getDialog();
     }
 
-    private class InitialDialogWorker implements Worker {
-        public static final String CHOOSE_REQUIRED_PROJECT_AND_ISSUE_TYPE = "Select a project and an item type.";
+    private class InitialDataWorker implements Worker {
         final JiraProvider bugTrackerProvider;
-        XFormDialog dialog;
+        List<String> allProjectsList;
+        ProjectIndex projectIndex;
+        Object[] currentProjectIssueTypes;
 
-        public InitialDialogWorker(JiraProvider bugTrackerProvider) {
+        public InitialDataWorker(JiraProvider bugTrackerProvider) {
             this.bugTrackerProvider = bugTrackerProvider;
         }
 
         @Override
         public Object construct(XProgressMonitor xProgressMonitor) {
-            XFormDialogBuilder builder = XFormFactory.createDialogBuilder(NEW_ISSUE_DIALOG_CAPTION + " item");
-            XForm form = builder.createForm("Basic");
-            List<String> allProjectsList = bugTrackerProvider.getListOfAllProjects();
-            XFormOptionsField projectsCombo = form.addComboBox(BugInfoDialogConsts.TARGET_ISSUE_PROJECT,
-                    allProjectsList.toArray(), BugInfoDialogConsts.TARGET_ISSUE_PROJECT);
-            if (StringUtils.isNullOrEmpty(selectedProject)) {
-                selectedProject = (String) (allProjectsList.toArray()[0]);
+            long flowId = FlowTracer.getInstance().beginFlow("initialLoad");
+            try {
+                return loadData();
+            } finally {
+                FlowTracer.getInstance().endFlow(flowId);
             }
-            projectsCombo.setValue(selectedProject);
-            Object[] currentProjectIssueTypes = bugTrackerProvider.getListOfProjectIssueTypes(selectedProject).toArray();
-            final XFormOptionsField issueTypesCombo = form.addComboBox(BugInfoDialogConsts.ISSUE_TYPE,
-                    currentProjectIssueTypes, BugInfoDialogConsts.ISSUE_TYPE);
-            projectsCombo.addFormFieldListener(new XFormFieldListener() {
-                @Override
-                public void valueChanged(XFormField xFormField, String newValue, String oldValue) {
-                    selectedProject = newValue;
-                    issueTypesCombo.setOptions(bugTrackerProvider.getListOfProjectIssueTypes(selectedProject).toArray());
-                }
-            });
-            if (StringUtils.isNullOrEmpty(selectedIssueType)) {
-                selectedIssueType = (String) currentProjectIssueTypes[0];
+        }
+
+        private List<String> loadData() {
+            allProjectsList = bugTrackerProvider.getListOfAllProjects();
+            if (allProjectsList.isEmpty()) {
+                return allProjectsList;
             }
-            issueTypesCombo.setOptions(currentProjectIssueTypes);
-            issueTypesCombo.setValue(selectedIssueType);
-            issueTypesCombo.addFormFieldListener(new XFormFieldListener() {
-                @Override
-                public void valueChanged(XFormField xFormField, String newValue, String oldValue) {
-                    selectedIssueType = newValue;
+            projectIndex = bugTrackerProvider.getProjectIndex();
+            //the project selected last time may belong to the server of another ReadyAPI project
+            if (StringUtils.isNullOrEmpty(selectedProject) || !allProjectsList.contains(selectedProject)) {
+                List<RecentIssueTypesStore.Entry> recentEntries = RecentIssueTypesStore.getInstance(bugTrackerProvider.getProfileName()).getEntries();
+                if (!recentEntries.isEmpty() && allProjectsList.contains(recentEntries.get(0).getProjectKey())) {
+                    selectedProject = recentEntries.get(0).getProjectKey();
+                    selectedIssueType = recentEntries.get(0).getIssueType();
+                } else {
+                    selectedProject = allProjectsList.get(0);
                 }
-            });
-            dialog = builder.buildDialog(builder.buildOkCancelActions(), CHOOSE_REQUIRED_PROJECT_AND_ISSUE_TYPE, null);
-            return dialog;
+            }
+            currentProjectIssueTypes = bugTrackerProvider.getListOfProjectIssueTypes(selectedProject).toArray();
+            return allProjectsList;
         }
 
         @Override
@@ -542,14 +713,10 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
         public boolean onCancel() {
             return false;
         }
-
-        public XFormDialog getDialog() {
-            return dialog;
-        }
     }
 
-    private XFormDialog createInitialSetupDialog(final JiraProvider bugTrackerProvider) {
-        InitialDialogWorker worker = new InitialDialogWorker(bugTrackerProvider);
+    private InitialDataWorker loadInitialDialogData(final JiraProvider bugTrackerProvider) {
+        InitialDataWorker worker = new InitialDataWorker(bugTrackerProvider);
         XProgressDialog readInitialInfoProgressDialog = UISupport.getDialogs().createProgressDialog(
                 READING_JIRA_SETTINGS, 100, PLEASE_WAIT, false);
         try {
@@ -557,13 +724,86 @@ public class CreateNewBugAction extends AbstractSoapUIAction<ModelItem> {
         } catch (Exception e) {
         }
 
-        return worker.getDialog();
+        return worker;
+    }
+
+    private XFormDialog createInitialSetupDialog(final JiraProvider bugTrackerProvider, InitialDataWorker initialData) {
+        XFormDialogBuilder builder = XFormFactory.createDialogBuilder(NEW_ISSUE_DIALOG_CAPTION + " item");
+        XForm form = builder.createForm("Basic");
+        //the picker shows only the projects matching the typed text, not the whole list
+        XFormOptionsField projectsCombo = form.addComboBox(BugInfoDialogConsts.TARGET_ISSUE_PROJECT,
+                new Object[0], BugInfoDialogConsts.TARGET_ISSUE_PROJECT);
+        final ProjectPicker projectPicker = installProjectPicker(projectsCombo, bugTrackerProvider, initialData.projectIndex);
+        projectsCombo.setValue(selectedProject);
+        Object[] currentProjectIssueTypes = initialData.currentProjectIssueTypes;
+        final XFormOptionsField issueTypesCombo = form.addComboBox(BugInfoDialogConsts.ISSUE_TYPE,
+                currentProjectIssueTypes, BugInfoDialogConsts.ISSUE_TYPE);
+        projectsCombo.addFormFieldListener(new XFormFieldListener() {
+            @Override
+            public void valueChanged(XFormField xFormField, String newValue, String oldValue) {
+                if (projectPicker != null && !projectPicker.isKnownProject(newValue)) {
+                    //a part of a project key or name is being typed
+                    return;
+                }
+                selectedProject = newValue;
+                loadIssueTypes(bugTrackerProvider, selectedProject, issueTypesCombo);
+                SpeculativeFieldLoader.getInstance().projectSelected(bugTrackerProvider, selectedProject);
+            }
+        });
+        SpeculativeFieldLoader.getInstance().projectSelected(bugTrackerProvider, selectedProject);
+        if (currentProjectIssueTypes.length > 0 && (StringUtils.isNullOrEmpty(selectedIssueType) ||
+                !Arrays.asList(currentProjectIssueTypes).contains(selectedIssueType))) {
+            selectedIssueType = (String) currentProjectIssueTypes[0];
+        }
+        issueTypesCombo.setOptions(currentProjectIssueTypes);
+        issueTypesCombo.setValue(selectedIssueType);
+        issueTypesCombo.addFormFieldListener(new XFormFieldListener() {
+            @Override
+            public void valueChanged(XFormField xFormField, String newValue, String oldValue) {
+                selectedIssueType = newValue;
+            }
+        });
+        return builder.buildDialog(builder.buildOkCancelActions(), CHOOSE_REQUIRED_PROJECT_AND_ISSUE_TYPE, null);
+    }
+
+    /*
+     * Issue types of projects found by the server search are not in the catalog yet, so they are read in the
+     * background and the combo box is disabled meanwhile.
+     */
+    private void loadIssueTypes(final JiraProvider bugTrackerProvider, final String projectKey,
+                                final XFormOptionsField issueTypesCombo) {
+        issueTypesCombo.setEnabled(false);
+        new SwingWorker<List<String>, Void>() {
+            @Override
+            protected List<String> doInBackground() throws Exception {
+                return bugTrackerProvider.getListOfProjectIssueTypes(projectKey);
+            }
+
+            @Override
+            protected void done() {
+                if (!projectKey.equals(selectedProject)) {
+                    //another project has been chosen in the meantime
+                    return;
+                }
+                List<String> issueTypes;
+                try {
+                    issueTypes = get();
+                } catch (Exception e) {
+                    logger.error(e.getMessage());
+                    issueTypes = new ArrayList<>();
+                }
+                issueTypesCombo.setOptions(issueTypes.toArray());
+                selectedIssueType = issueTypes.isEmpty() ? null : issueTypes.get(0);
+                issueTypesCombo.setEnabled(true);
+            }
+        }.execute();
     }
 
     @Override
     public boolean shouldBeEnabledFor(ModelItem modelItem) {
         if (modelItem instanceof WsdlProject || modelItem instanceof TestCase ||
                 modelItem instanceof TestSuite || modelItem instanceof TestStep) {
+            MetadataPrefetcher.getInstance().warmUp(ServerProfiles.getProfileName(modelItem));
             return true;
         }
 
@@ -0,0 +1,51 @@
+package com.smartbear.ready.plugin.jira.actions;
+
+import com.eviware.soapui.model.testsuite.TestCase;
+import com.eviware.soapui.model.testsuite.TestStep;
+import com.eviware.soapui.plugins.ActionConfiguration;
+import com.eviware.soapui.support.UISupport;
+import com.eviware.soapui.support.action.support.AbstractSoapUIAction;
+import com.google.inject.Inject;
+import com.smartbear.ready.plugin.jira.impl.LinkedIssuesDialog;
+import com.smartbear.ready.plugin.jira.settings.ServerProfiles;
+import com.smartbear.ready.plugin.jira.sync.IssueStatusSyncService;
+import com.smartbear.ready.plugin.jira.sync.LinkedIssues;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shows the JIRA items filed for the test case and its test steps with their last known status.
+ */
+@ActionConfiguration(actionGroup = "WsdlTestCaseActions", targetType = TestCase.class,
+        description = LinkedIssuesAction.ACTION_DESCRIPTION)
+public class LinkedIssuesAction extends AbstractSoapUIAction<TestCase> {
+    public static final String ACTION_NAME = "JIRA Items";
+    public static final String ACTION_DESCRIPTION = "Show the JIRA items filed for this test case";
+    public static final String NO_LINKED_ITEMS = "No JIRA items have been filed for this test case yet.";
+
+    @Inject
+    public LinkedIssuesAction() {
+        super(ACTION_NAME, ACTION_DESCRIPTION);
+    }
+
+    @Override
+    public void perform(TestCase testCase, Object o) {
+        Set<String> issueKeys = new LinkedHashSet<>(LinkedIssues.getIssueKeys(testCase));
+        for (TestStep testStep : testCase.getTestStepList()) {
+            issueKeys.addAll(LinkedIssues.getIssueKeys(testStep));
+        }
+        if (issueKeys.isEmpty()) {
+            UISupport.showInfoMessage(NO_LINKED_ITEMS);
+            return;
+        }
+        List<String> keys = new ArrayList<>(issueKeys);
+        //the status of the keys linked in this session might not have been read yet
+        String profileName = ServerProfiles.getProfileName(testCase);
+        IssueStatusSyncService.getInstance().register(profileName, keys);
+        LinkedIssuesDialog.showDialog(testCase.getName(), profileName, ServerProfiles.getSettings(profileName).getUrl(),
+                keys);
+    }
+}
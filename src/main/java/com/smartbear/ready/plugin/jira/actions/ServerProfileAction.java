@@ -0,0 +1,50 @@
+package com.smartbear.ready.plugin.jira.actions;
+
+import com.eviware.soapui.impl.wsdl.WsdlProject;
+import com.eviware.soapui.plugins.ActionConfiguration;
+import com.eviware.soapui.support.UISupport;
+import com.eviware.soapui.support.action.support.AbstractSoapUIAction;
+import com.google.inject.Inject;
+import com.smartbear.ready.plugin.jira.cache.MetadataPrefetcher;
+import com.smartbear.ready.plugin.jira.settings.ServerProfiles;
+import com.smartbear.ready.plugin.jira.sync.IssueStatusSyncService;
+import com.smartbear.ready.plugin.jira.sync.LinkedIssues;
+
+import java.util.List;
+
+/**
+ * Selects the JIRA server profile the items of the project are filed to. The provider of the profile is warmed
+ * up right away, so the first item created afterwards does not wait for the project list and the metadata.
+ */
+@ActionConfiguration(actionGroup = "WsdlProjectActions", targetType = WsdlProject.class,
+        description = ServerProfileAction.ACTION_DESCRIPTION)
+public class ServerProfileAction extends AbstractSoapUIAction<WsdlProject> {
+    public static final String ACTION_NAME = "JIRA Server";
+    public static final String ACTION_DESCRIPTION = "Select the JIRA server the items of this project are filed to";
+    public static final String SELECT_SERVER = "Select the JIRA server for the %s project";
+    public static final String NO_SERVER_PROFILES = "Only the default JIRA server is configured.\nAdd other servers in the JIRA preferences.";
+
+    @Inject
+    public ServerProfileAction() {
+        super(ACTION_NAME, ACTION_DESCRIPTION);
+    }
+
+    @Override
+    public void perform(WsdlProject project, Object o) {
+        List<String> profileNames = ServerProfiles.getProfileNames();
+        if (profileNames.size() == 1) {
+            UISupport.showInfoMessage(NO_SERVER_PROFILES);
+            return;
+        }
+        Object selected = UISupport.prompt(String.format(SELECT_SERVER, project.getName()), ACTION_NAME,
+                profileNames.toArray(), ServerProfiles.getProfileName(project));
+        if (selected == null) {
+            return;
+        }
+        String profileName = selected.toString();
+        ServerProfiles.setProfileName(project, profileName);
+        MetadataPrefetcher.getInstance().warmUp(profileName);
+        //the linked items are read from the new server from now on
+        IssueStatusSyncService.getInstance().register(profileName, LinkedIssues.collectIssueKeys(project));
+    }
+}
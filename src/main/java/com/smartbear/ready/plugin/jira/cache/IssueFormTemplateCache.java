@@ -0,0 +1,57 @@
+package com.smartbear.ready.plugin.jira.cache;
+
+import com.smartbear.ready.plugin.jira.dialog.IssueFormTemplate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the form templates of the most recently used (project, issue type) pairs. Templates of an outdated
+ * metadata version are detected by the caller and replaced.
+ */
+public class IssueFormTemplateCache {
+    public static final int DEFAULT_MAX_TEMPLATES = 20;
+    private static final String KEY_SEPARATOR = "\n";
+
+    private final Map<String, IssueFormTemplate> templates;
+
+    public IssueFormTemplateCache() {
+        this(DEFAULT_MAX_TEMPLATES);
+    }
+
+    public IssueFormTemplateCache(final int maxTemplates) {
+        templates = new LinkedHashMap<String, IssueFormTemplate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IssueFormTemplate> eldest) {
+                return size() > maxTemplates;
+            }
+        };
+    }
+
+    public synchronized IssueFormTemplate get(String projectKey, String issueType) {
+        return templates.get(getKey(projectKey, issueType));
+    }
+
+    public synchronized void put(String projectKey, String issueType, IssueFormTemplate template) {
+        templates.put(getKey(projectKey, issueType), template);
+    }
+
+    public synchronized void removeProject(String projectKey) {
+        String prefix = projectKey + KEY_SEPARATOR;
+        Iterator<String> keys = templates.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next().startsWith(prefix)) {
+                keys.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        templates.clear();
+    }
+
+    private static String getKey(String projectKey, String issueType) {
+        return projectKey + KEY_SEPARATOR + issueType;
+    }
+}
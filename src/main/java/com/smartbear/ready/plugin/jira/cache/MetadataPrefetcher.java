@@ -0,0 +1,123 @@
+package com.smartbear.ready.plugin.jira.cache;
+
+import com.eviware.soapui.support.StringUtils;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+import com.smartbear.ready.plugin.jira.settings.BugTrackerSettings;
+import com.smartbear.ready.plugin.jira.settings.ServerProfiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Warms the {@link JiraProvider} caches in the background (project list, priorities and the create metadata of
+ * the recently used projects), so the "create item" dialogs usually open without waiting for JIRA. Each server
+ * profile is warmed up once, the first time a project using it is seen.
+ */
+public class MetadataPrefetcher {
+    private static final Logger logger = LoggerFactory.getLogger(MetadataPrefetcher.class);
+
+    private static final MetadataPrefetcher instance = new MetadataPrefetcher();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "JIRA metadata prefetcher");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+    private final Set<String> warmedUpProfiles = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    public static MetadataPrefetcher getInstance() {
+        return instance;
+    }
+
+    private MetadataPrefetcher() {
+    }
+
+    /**
+     * Schedules a warm up unless one has already been tried for the current settings. Cheap enough to be called
+     * from {@code shouldBeEnabledFor}. A failed warm up is not tried again until the settings change: with wrong
+     * credentials every attempt would be a failed login, and JIRA locks the account behind a CAPTCHA after a few.
+     */
+    public void warmUp() {
+        warmUp(ServerProfiles.DEFAULT_PROFILE);
+    }
+
+    /**
+     * Same as {@link #warmUp()} for the provider of the given server profile.
+     */
+    public void warmUp(final String profileName) {
+        if (warmedUpProfiles.contains(profileName) || !isConfigured(profileName) || !warmedUpProfiles.add(profileName)) {
+            return;
+        }
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    warmUpCaches(profileName);
+                } catch (Exception e) {
+                    logger.warn("Unable to prefetch JIRA metadata: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Called when the provider of the profile is dropped (its settings have been changed), the next
+     * {@link #warmUp(String)} call will fill the caches of the new provider.
+     */
+    public void reset(String profileName) {
+        warmedUpProfiles.remove(profileName);
+    }
+
+    private void warmUpCaches(String profileName) {
+        JiraProvider provider = JiraProvider.getProvider(profileName);
+        if (provider.getListOfAllProjects().isEmpty()) {
+            //most probably the credentials are wrong, let the user see the error when the button is clicked
+            return;
+        }
+        provider.getProjectCatalog();
+        provider.getListOfPriorities();
+        //create metadata is requested per project and contains all of its issue types
+        List<String> recentProjects = RecentIssueTypesStore.getInstance(profileName).getProjectKeys();
+        for (String projectKey : recentProjects) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            provider.getProjectFields(projectKey);
+        }
+    }
+
+    /**
+     * The provider shows dialogs if the settings are missing, so background tasks must not touch it until this
+     * returns true.
+     */
+    public static boolean isConfigured() {
+        return isConfigured(ServerProfiles.DEFAULT_PROFILE);
+    }
+
+    public static boolean isConfigured(String profileName) {
+        BugTrackerSettings settings = ServerProfiles.getSettings(profileName);
+        if (settings == null || StringUtils.isNullOrEmpty(settings.getUrl()) || StringUtils.isNullOrEmpty(settings.getLogin()) ||
+                StringUtils.isNullOrEmpty(settings.getPassword())) {
+            return false;
+        }
+        try {
+            new URI(settings.getUrl());
+            return true;
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+}
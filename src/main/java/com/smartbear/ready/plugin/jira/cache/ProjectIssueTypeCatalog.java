@@ -0,0 +1,78 @@
+package com.smartbear.ready.plugin.jira.cache;
+
+import com.atlassian.jira.rest.client.api.domain.CimProject;
+import com.atlassian.jira.rest.client.api.domain.IssueType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps every project the user can create items in to its issue types. It is filled from a single create metadata
+ * request without field expansion, so switching projects in the dialog is a local lookup and the heavy
+ * {@link com.atlassian.jira.rest.client.api.domain.Project} objects (components, versions, roles) are never kept.
+ */
+public class ProjectIssueTypeCatalog {
+    private final Map<String/*project key*/, String/*project name*/> projectNames = new ConcurrentHashMap<>();
+    private final Map<String/*project key*/, List<IssueType>> projectIssueTypes = new ConcurrentHashMap<>();
+    private final boolean complete;
+
+    /**
+     * Creates an empty catalog which is filled project by project when the create metadata request fails.
+     */
+    public ProjectIssueTypeCatalog() {
+        complete = false;
+    }
+
+    public ProjectIssueTypeCatalog(Iterable<CimProject> cimProjects) {
+        for (CimProject cimProject : cimProjects) {
+            List<IssueType> issueTypes = new ArrayList<>();
+            for (IssueType issueType : cimProject.getIssueTypes()) {
+                issueTypes.add(new IssueType(issueType.getSelf(), issueType.getId(), issueType.getName(),
+                        issueType.isSubtask(), issueType.getDescription(), issueType.getIconUri()));
+            }
+            putProject(cimProject.getKey(), cimProject.getName(), issueTypes);
+        }
+        complete = true;
+    }
+
+    public void putProject(String projectKey, String projectName, List<IssueType> issueTypes) {
+        projectNames.put(projectKey, projectName == null ? projectKey : projectName);
+        projectIssueTypes.put(projectKey, Collections.unmodifiableList(new ArrayList<>(issueTypes)));
+    }
+
+    public boolean containsProject(String projectKey) {
+        return projectIssueTypes.containsKey(projectKey);
+    }
+
+    public String getProjectName(String projectKey) {
+        return projectNames.get(projectKey);
+    }
+
+    public List<IssueType> getIssueTypes(String projectKey) {
+        List<IssueType> issueTypes = projectIssueTypes.get(projectKey);
+        return issueTypes == null ? Collections.<IssueType>emptyList() : issueTypes;
+    }
+
+    public IssueType getIssueType(String projectKey, String issueTypeName) {
+        for (IssueType issueType : getIssueTypes(projectKey)) {
+            if (issueType.getName().equals(issueTypeName)) {
+                return issueType;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns false if the catalog does not necessarily contain all projects available to the user.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public int size() {
+        return projectIssueTypes.size();
+    }
+}
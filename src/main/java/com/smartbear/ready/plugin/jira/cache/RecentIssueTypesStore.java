@@ -0,0 +1,129 @@
+package com.smartbear.ready.plugin.jira.cache;
+
+import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.model.settings.Settings;
+import com.eviware.soapui.support.StringUtils;
+import com.smartbear.ready.plugin.jira.settings.BugTrackerPrefs;
+import com.smartbear.ready.plugin.jira.settings.ServerProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the (project, issue type) pairs the user has recently created items for, most recent first, one list per
+ * server profile. The lists are stored in the ReadyAPI settings so they survive restarts.
+ */
+public class RecentIssueTypesStore {
+    public static final int MAX_ENTRIES = 5;
+    private static final String ENTRY_SEPARATOR = "\n";
+    private static final String VALUE_SEPARATOR = "\t";
+
+    private static final Map<String, RecentIssueTypesStore> instances = new HashMap<>();
+
+    private final String settingsKey;
+    private LinkedList<Entry> entries;
+
+    public static synchronized RecentIssueTypesStore getInstance(String profileName) {
+        RecentIssueTypesStore store = instances.get(profileName);
+        if (store == null) {
+            //the list of the default profile keeps the key it had before the profiles were added
+            store = new RecentIssueTypesStore(ServerProfiles.DEFAULT_PROFILE.equals(profileName) ?
+                    BugTrackerPrefs.RECENT_ISSUE_TYPES : BugTrackerPrefs.RECENT_ISSUE_TYPES + "." + profileName);
+            instances.put(profileName, store);
+        }
+        return store;
+    }
+
+    private RecentIssueTypesStore(String settingsKey) {
+        this.settingsKey = settingsKey;
+    }
+
+    public synchronized void add(String projectKey, String issueType) {
+        if (StringUtils.isNullOrEmpty(projectKey) || StringUtils.isNullOrEmpty(issueType)) {
+            return;
+        }
+        List<Entry> current = getEntriesInternal();
+        Entry entry = new Entry(projectKey, issueType);
+        current.remove(entry);
+        current.add(0, entry);
+        while (current.size() > MAX_ENTRIES) {
+            current.remove(current.size() - 1);
+        }
+        save();
+    }
+
+    public synchronized List<Entry> getEntries() {
+        return new ArrayList<>(getEntriesInternal());
+    }
+
+    public synchronized List<String> getProjectKeys() {
+        List<String> projectKeys = new ArrayList<>();
+        for (Entry entry : getEntriesInternal()) {
+            if (!projectKeys.contains(entry.getProjectKey())) {
+                projectKeys.add(entry.getProjectKey());
+            }
+        }
+        return projectKeys;
+    }
+
+    private List<Entry> getEntriesInternal() {
+        if (entries == null) {
+            entries = new LinkedList<>();
+            Settings settings = SoapUI.getSettings();
+            String stored = settings.getString(settingsKey, "");
+            for (String line : stored.split(ENTRY_SEPARATOR)) {
+                String[] values = line.split(VALUE_SEPARATOR);
+                if (values.length == 2) {
+                    entries.add(new Entry(values[0], values[1]));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private void save() {
+        StringBuilder stored = new StringBuilder();
+        for (Entry entry : entries) {
+            if (stored.length() > 0) {
+                stored.append(ENTRY_SEPARATOR);
+            }
+            stored.append(entry.getProjectKey()).append(VALUE_SEPARATOR).append(entry.getIssueType());
+        }
+        SoapUI.getSettings().setString(settingsKey, stored.toString());
+    }
+
+    public static class Entry {
+        private final String projectKey;
+        private final String issueType;
+
+        public Entry(String projectKey, String issueType) {
+            this.projectKey = projectKey;
+            this.issueType = issueType;
+        }
+
+        public String getProjectKey() {
+            return projectKey;
+        }
+
+        public String getIssueType() {
+            return issueType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry other = (Entry) o;
+            return projectKey.equals(other.projectKey) && issueType.equals(other.issueType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * projectKey.hashCode() + issueType.hashCode();
+        }
+    }
+}
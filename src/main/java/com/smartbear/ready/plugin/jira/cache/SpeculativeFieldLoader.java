@@ -0,0 +1,66 @@
+package com.smartbear.ready.plugin.jira.cache;
+
+import com.eviware.soapui.support.StringUtils;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts loading the create metadata of the project selected in the initial dialog while the user is still
+ * choosing. A request is only sent once the selection has been stable for {@link #DEBOUNCE_DELAY_MS}, and a
+ * newer selection cancels the request for the previous one: the loading thread is interrupted and cancels the
+ * promise of the createmeta request it is waiting for.
+ */
+public class SpeculativeFieldLoader {
+    public static final long DEBOUNCE_DELAY_MS = 300;
+
+    private static final SpeculativeFieldLoader instance = new SpeculativeFieldLoader();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "JIRA speculative field loader");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private ScheduledFuture<?> pendingRequest;
+    private String pendingProjectKey;
+
+    public static SpeculativeFieldLoader getInstance() {
+        return instance;
+    }
+
+    private SpeculativeFieldLoader() {
+    }
+
+    public synchronized void projectSelected(final JiraProvider provider, final String projectKey) {
+        if (StringUtils.isNullOrEmpty(projectKey) || provider.hasProjectFields(projectKey)) {
+            cancel();
+            return;
+        }
+        if (projectKey.equals(pendingProjectKey) && pendingRequest != null && !pendingRequest.isDone()) {
+            return;
+        }
+        cancel();
+        pendingProjectKey = projectKey;
+        pendingRequest = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                provider.getProjectFields(projectKey);
+            }
+        }, DEBOUNCE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void cancel() {
+        if (pendingRequest != null) {
+            pendingRequest.cancel(true);
+            pendingRequest = null;
+        }
+        pendingProjectKey = null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.smartbear.ready.plugin.jira.clients;
+
+import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.jira.rest.client.internal.async.AbstractAsynchronousRestClient;
+import com.atlassian.util.concurrent.Promise;
+import com.smartbear.ready.plugin.jira.parsers.IssueSearchPageJsonParser;
+
+import javax.ws.rs.core.UriBuilder;
+import java.net.URI;
+
+/**
+ * JQL search returning {@link IssueDigest}s. Unlike the search of the standard client, only a few fields are
+ * requested, so a page of issues is small and quick to parse.
+ */
+public class AsynchronousIssueSearchRestClient extends AbstractAsynchronousRestClient {
+
+    private static final String SEARCH_PREFIX = "rest/api/2/search";
+    public static final String DIGEST_FIELDS = "project,summary,description,status,labels,updated";
+    public static final String STATUS_FIELDS = "status,resolution,assignee,updated";
+    public static final String WORKFLOW_FIELDS = "project,issuetype,status,resolution";
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final IssueSearchPageJsonParser issueSearchPageJsonParser = new IssueSearchPageJsonParser();
+    private final URI baseUri;
+
+    public AsynchronousIssueSearchRestClient(final URI baseUri, final HttpClient client) {
+        super(client);
+        this.baseUri = baseUri;
+    }
+
+    public Promise<IssueSearchPage> search(final String jql, final int startAt, final int maxResults) {
+        return search(jql, startAt, maxResults, DIGEST_FIELDS, true);
+    }
+
+    /**
+     * @param validateQuery false to get the issues which exist when the query refers to missing ones as well,
+     *                      for instance in {@code key in (...)}, instead of an error
+     */
+    public Promise<IssueSearchPage> search(final String jql, final int startAt, final int maxResults,
+                                           final String fields, final boolean validateQuery) {
+        final URI searchUri = UriBuilder.fromUri(baseUri).path(SEARCH_PREFIX)
+                .queryParam("jql", jql)
+                .queryParam("startAt", startAt)
+                .queryParam("maxResults", maxResults > 0 ? maxResults : DEFAULT_PAGE_SIZE)
+                .queryParam("fields", fields)
+                .queryParam("validateQuery", validateQuery).build();
+        return getAndParse(searchUri, issueSearchPageJsonParser);
+    }
+}
@@ -7,13 +7,25 @@ import java.net.URI;
 
 public class AsynchronousJiraRestClientEx extends AsynchronousJiraRestClient {
     private final AsynchronousUserSearchRestClient userSearchRestClient;
+    private final AsynchronousProjectSearchRestClient projectSearchRestClient;
+    private final AsynchronousIssueSearchRestClient issueSearchRestClient;
 
     public AsynchronousJiraRestClientEx(final URI serverUri, final DisposableHttpClient httpClient) {
         super(serverUri, httpClient);
         userSearchRestClient = new AsynchronousUserSearchRestClient(serverUri, httpClient);
+        projectSearchRestClient = new AsynchronousProjectSearchRestClient(serverUri, httpClient);
+        issueSearchRestClient = new AsynchronousIssueSearchRestClient(serverUri, httpClient);
     }
 
     public AsynchronousUserSearchRestClient getUserSearchRestClient() {
         return userSearchRestClient;
     }
+
+    public AsynchronousProjectSearchRestClient getProjectSearchRestClient() {
+        return projectSearchRestClient;
+    }
+
+    public AsynchronousIssueSearchRestClient getIssueSearchRestClient() {
+        return issueSearchRestClient;
+    }
 }
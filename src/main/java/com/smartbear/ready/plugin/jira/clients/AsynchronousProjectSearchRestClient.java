@@ -0,0 +1,35 @@
+package com.smartbear.ready.plugin.jira.clients;
+
+import com.atlassian.httpclient.api.HttpClient;
+import com.atlassian.jira.rest.client.internal.async.AbstractAsynchronousRestClient;
+import com.atlassian.util.concurrent.Promise;
+import com.smartbear.ready.plugin.jira.parsers.ProjectSearchPageJsonParser;
+
+import javax.ws.rs.core.UriBuilder;
+import java.net.URI;
+
+/**
+ * Server-side project search ({@code project/search}), available in JIRA Cloud and JIRA Server 8 and later.
+ */
+public class AsynchronousProjectSearchRestClient extends AbstractAsynchronousRestClient {
+
+    private static final String PROJECT_SEARCH_PREFIX = "rest/api/2/project/search";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private final ProjectSearchPageJsonParser projectSearchPageJsonParser = new ProjectSearchPageJsonParser();
+    private final URI baseUri;
+
+    public AsynchronousProjectSearchRestClient(final URI baseUri, final HttpClient client) {
+        super(client);
+        this.baseUri = baseUri;
+    }
+
+    public Promise<ProjectSearchPage> searchProjects(final String query, final int startAt, final int maxResults) {
+        final URI searchUri = UriBuilder.fromUri(baseUri).path(PROJECT_SEARCH_PREFIX)
+                .queryParam("query", query == null ? "" : query)
+                .queryParam("startAt", startAt)
+                .queryParam("maxResults", maxResults > 0 ? maxResults : DEFAULT_PAGE_SIZE)
+                .queryParam("orderBy", "key").build();
+        return getAndParse(searchUri, projectSearchPageJsonParser);
+    }
+}
@@ -5,6 +5,7 @@ import com.atlassian.jira.rest.client.api.domain.User;
 import com.atlassian.jira.rest.client.internal.async.AsynchronousUserRestClient;
 import com.atlassian.util.concurrent.Promise;
 import com.smartbear.ready.plugin.jira.parsers.SearchUserJsonParser;
+import com.smartbear.ready.plugin.jira.parsers.UserArrayJsonParser;
 
 import javax.ws.rs.core.UriBuilder;
 import java.net.URI;
@@ -12,7 +13,13 @@ import java.net.URI;
 public class AsynchronousUserSearchRestClient extends AsynchronousUserRestClient {
 
     private static final String USER_SEARCH_PREFIX = "rest/api/2/user/search";
+    private static final String ASSIGNABLE_USER_SEARCH_PREFIX = "rest/api/2/user/assignable/search";
+    //JIRA never returns more than 1000 users per request whatever maxResults is
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
     private final SearchUserJsonParser searchUserJsonParser = new SearchUserJsonParser();
+    private final UserArrayJsonParser userArrayJsonParser = new UserArrayJsonParser();
 
     private final URI baseUri;
 
@@ -32,4 +39,35 @@ public class AsynchronousUserSearchRestClient extends AsynchronousUserRestClient
     public Promise<User> getUser(final URI userUri) {
         return getAndParse(userUri, searchUserJsonParser);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns one page of users matching the query (username, display name or email).
+     */
+    public Promise<Iterable<User>> findUsers(final String query, final int startAt, final int maxResults) {
+        final URI searchUri = UriBuilder.fromUri(baseUri).path(USER_SEARCH_PREFIX)
+                .queryParam("username", query)
+                .queryParam("startAt", startAt)
+                .queryParam("maxResults", normalizePageSize(maxResults)).build();
+        return getAndParse(searchUri, userArrayJsonParser);
+    }
+
+    /**
+     * Returns one page of users matching the query who can be assigned to issues of the given project.
+     */
+    public Promise<Iterable<User>> findAssignableUsers(final String projectKey, final String query,
+                                                       final int startAt, final int maxResults) {
+        final URI searchUri = UriBuilder.fromUri(baseUri).path(ASSIGNABLE_USER_SEARCH_PREFIX)
+                .queryParam("project", projectKey)
+                .queryParam("username", query == null ? "" : query)
+                .queryParam("startAt", startAt)
+                .queryParam("maxResults", normalizePageSize(maxResults)).build();
+        return getAndParse(searchUri, userArrayJsonParser);
+    }
+
+    private static int normalizePageSize(int pageSize) {
+        if (pageSize <= 0) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+}
@@ -0,0 +1,88 @@
+package com.smartbear.ready.plugin.jira.clients;
+
+import java.util.List;
+
+/**
+ * The few fields of an issue needed to find duplicates locally, read by a search with a restricted field list.
+ */
+public class IssueDigest {
+    private final String key;
+    private final String projectKey;
+    private final String issueType;
+    private final String summary;
+    private final String description;
+    private final String status;
+    private final String resolution;
+    private final String assignee;
+    private final List<String> labels;
+    private final long updated;
+
+    public IssueDigest(String key, String projectKey, String issueType, String summary, String description,
+                       String status, String resolution, String assignee, List<String> labels, long updated) {
+        this.key = key;
+        this.projectKey = projectKey;
+        this.issueType = issueType;
+        this.summary = summary;
+        this.description = description;
+        this.status = status;
+        this.resolution = resolution;
+        this.assignee = assignee;
+        this.labels = labels;
+        this.updated = updated;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getProjectKey() {
+        return projectKey;
+    }
+
+    /**
+     * Null if the field has not been requested.
+     */
+    public String getIssueType() {
+        return issueType;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    /**
+     * Null if the issue has no description.
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Null if the issue is unresolved or the field has not been requested.
+     */
+    public String getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Display name of the assignee, null if the issue is unassigned or the field has not been requested.
+     */
+    public String getAssignee() {
+        return assignee;
+    }
+
+    public List<String> getLabels() {
+        return labels;
+    }
+
+    /**
+     * Time of the last update, 0 if unknown.
+     */
+    public long getUpdated() {
+        return updated;
+    }
+}
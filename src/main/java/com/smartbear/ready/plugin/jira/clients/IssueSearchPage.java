@@ -0,0 +1,31 @@
+package com.smartbear.ready.plugin.jira.clients;
+
+import java.util.List;
+
+public class IssueSearchPage {
+    private final List<IssueDigest> issues;
+    private final int startAt;
+    private final int total;
+
+    public IssueSearchPage(List<IssueDigest> issues, int startAt, int total) {
+        this.issues = issues;
+        this.startAt = startAt;
+        this.total = total;
+    }
+
+    public List<IssueDigest> getIssues() {
+        return issues;
+    }
+
+    public int getStartAt() {
+        return startAt;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public boolean isLast() {
+        return issues.isEmpty() || startAt + issues.size() >= total;
+    }
+}
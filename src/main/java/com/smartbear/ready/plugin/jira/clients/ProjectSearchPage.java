@@ -0,0 +1,35 @@
+package com.smartbear.ready.plugin.jira.clients;
+
+import com.atlassian.jira.rest.client.api.domain.BasicProject;
+
+import java.util.List;
+
+public class ProjectSearchPage {
+    private final List<BasicProject> projects;
+    private final int startAt;
+    private final int total;
+    private final boolean last;
+
+    public ProjectSearchPage(List<BasicProject> projects, int startAt, int total, boolean last) {
+        this.projects = projects;
+        this.startAt = startAt;
+        this.total = total;
+        this.last = last;
+    }
+
+    public List<BasicProject> getProjects() {
+        return projects;
+    }
+
+    public int getStartAt() {
+        return startAt;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+}
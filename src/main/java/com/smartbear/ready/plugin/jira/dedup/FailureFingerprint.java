@@ -0,0 +1,90 @@
+package com.smartbear.ready.plugin.jira.dedup;
+
+import com.smartbear.ready.plugin.jira.headless.FailureEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Identifies a failure independently of the run it happened in. The signature is made of the test case path,
+ * the failed assertions and the failure messages with the volatile parts (ids, timestamps, addresses, numbers)
+ * replaced by placeholders, so the same failure gets the same fingerprint on every run.
+ */
+public class FailureFingerprint {
+    private static final int FINGERPRINT_BYTES = 8;
+
+    //applied in this order, the more specific patterns first
+    private static final Pattern UUID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final Pattern TIMESTAMP = Pattern.compile("\\d{4}-\\d{2}-\\d{2}([t ]\\d{2}:\\d{2}(:\\d{2}([.,]\\d+)?)?(z|[+-]\\d{2}:?\\d{2})?)?");
+    private static final Pattern TIME = Pattern.compile("\\d{1,2}:\\d{2}(:\\d{2}([.,]\\d+)?)?");
+    private static final Pattern IP_ADDRESS = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}(:\\d+)?");
+    //at least 6 characters with both digits and letters, so ordinary words are kept
+    private static final Pattern HEX_ID = Pattern.compile("\\b(0x)?(?=[0-9a-f]*\\d)(?=[0-9a-f]*[a-f])[0-9a-f]{6,}\\b");
+    private static final Pattern NUMBER = Pattern.compile("\\d+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private FailureFingerprint() {
+    }
+
+    /**
+     * Returns a 16 characters long hexadecimal fingerprint of the failure.
+     */
+    public static String compute(FailureEvent event) {
+        StringBuilder signature = new StringBuilder(event.getTestCaseId());
+        List<String> assertions = new ArrayList<>(event.getFailedAssertions());
+        Collections.sort(assertions);
+        for (String assertion : assertions) {
+            signature.append('\n').append(assertion);
+        }
+        signature.append('\n').append(normalize(event.getReason()));
+        List<String> steps = new ArrayList<>();
+        for (String step : event.getFailedSteps()) {
+            steps.add(normalize(step));
+        }
+        Collections.sort(steps);
+        for (String step : steps) {
+            signature.append('\n').append(step);
+        }
+        return hash(signature.toString());
+    }
+
+    /**
+     * Lower-cases the message and replaces the parts which differ between runs of the same failure.
+     */
+    static String normalize(String message) {
+        if (message == null) {
+            return "";
+        }
+        String normalized = message.toLowerCase(Locale.ROOT);
+        normalized = UUID.matcher(normalized).replaceAll("<uuid>");
+        normalized = TIMESTAMP.matcher(normalized).replaceAll("<timestamp>");
+        normalized = TIME.matcher(normalized).replaceAll("<time>");
+        normalized = IP_ADDRESS.matcher(normalized).replaceAll("<address>");
+        normalized = HEX_ID.matcher(normalized).replaceAll("<id>");
+        normalized = NUMBER.matcher(normalized).replaceAll("<n>");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    private static String hash(String signature) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            //every JRE has to support SHA-1
+            throw new IllegalStateException(e);
+        }
+        byte[] bytes = digest.digest(signature.getBytes(StandardCharsets.UTF_8));
+        StringBuilder fingerprint = new StringBuilder(FINGERPRINT_BYTES * 2);
+        for (int i = 0; i < FINGERPRINT_BYTES; i++) {
+            fingerprint.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16));
+            fingerprint.append(Character.forDigit(bytes[i] & 0xF, 16));
+        }
+        return fingerprint.toString();
+    }
+}
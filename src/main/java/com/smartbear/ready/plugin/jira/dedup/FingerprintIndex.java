@@ -0,0 +1,263 @@
+package com.smartbear.ready.plugin.jira.dedup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persistent map of failure fingerprints to the JIRA items filed for them, so a repeated failure is matched to
+ * its item without searching JIRA. The file is a log of tab separated lines
+ * (fingerprint, issue key, status, occurrences, last seen), each line replacing the previous entry of the
+ * same fingerprint; it is read into memory once and rewritten when the obsolete lines outnumber the entries.
+ * <p>
+ * Parallel runs may share the file. Every change is made while holding a lock on a sibling {@code .lock} file,
+ * after reading the file again if another process has changed it since.
+ */
+public class FingerprintIndex {
+    private static final Logger logger = LoggerFactory.getLogger(FingerprintIndex.class);
+    public static final String DEFAULT_FILE_NAME = ".ready-jira-fingerprints.tsv";
+    public static final String UNKNOWN_STATUS = "";
+    private static final int MIN_LINES_TO_COMPACT = 100;
+
+    private final File file;
+    private final File compactedFile;
+    private final FileChannel lockChannel;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private int lines = 0;
+    //the file as last read or written by this index, -1 if it did not exist
+    private long knownLength = -1;
+    private long knownLastModified = -1;
+
+    public static class Entry {
+        private final String issueKey;
+        private final String status;
+        private final int occurrences;
+        private final long lastSeen;
+
+        Entry(String issueKey, String status, int occurrences, long lastSeen) {
+            this.issueKey = issueKey;
+            this.status = status;
+            this.occurrences = occurrences;
+            this.lastSeen = lastSeen;
+        }
+
+        public String getIssueKey() {
+            return issueKey;
+        }
+
+        /**
+         * The last known status of the item, {@link #UNKNOWN_STATUS} if it has not been read yet.
+         */
+        public String getStatus() {
+            return status;
+        }
+
+        /**
+         * How many times the failure has happened, including the first one.
+         */
+        public int getOccurrences() {
+            return occurrences;
+        }
+
+        public long getLastSeen() {
+            return lastSeen;
+        }
+    }
+
+    private FingerprintIndex(File file, FileChannel lockChannel) {
+        this.file = file;
+        this.compactedFile = new File(file.getPath() + ".tmp");
+        this.lockChannel = lockChannel;
+    }
+
+    public static File getDefaultFile() {
+        return new File(System.getProperty("user.home"), DEFAULT_FILE_NAME);
+    }
+
+    /**
+     * Reads the index, the file is created on the first change if it does not exist. Malformed lines are skipped.
+     */
+    public static FingerprintIndex open(File file) throws IOException {
+        createDirectory(file);
+        FileChannel lockChannel = new RandomAccessFile(file.getPath() + ".lock", "rw").getChannel();
+        FingerprintIndex index = new FingerprintIndex(file, lockChannel);
+        try (FileLock lock = lockChannel.lock()) {
+            index.recoverCompaction();
+            index.reloadIfChanged();
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+        return index;
+    }
+
+    /*
+     * A compaction interrupted before the file was replaced leaves the new content next to it. With the atomic
+     * move the old file is complete in that case, a file replaced without one may however be missing.
+     */
+    private void recoverCompaction() throws IOException {
+        if (!compactedFile.exists()) {
+            return;
+        }
+        if (file.exists()) {
+            Files.delete(compactedFile.toPath());
+        } else {
+            Files.move(compactedFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private void reloadIfChanged() throws IOException {
+        long length = file.exists() ? file.length() : -1;
+        if (length == knownLength && file.lastModified() == knownLastModified) {
+            return;
+        }
+        entries.clear();
+        lines = 0;
+        if (length >= 0) {
+            load();
+        }
+        rememberFileState();
+    }
+
+    private void rememberFileState() {
+        knownLength = file.exists() ? file.length() : -1;
+        knownLastModified = file.lastModified();
+    }
+
+    private void load() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                String[] columns = line.split("\t", -1);
+                if (columns.length != 5) {
+                    continue;
+                }
+                try {
+                    entries.put(columns[0], new Entry(columns[1], columns[2], Integer.parseInt(columns[3]),
+                            Long.parseLong(columns[4])));
+                } catch (NumberFormatException e) {
+                    logger.warn("Skipping a malformed line of " + file.getPath());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns null if no item has been filed for the fingerprint.
+     */
+    public synchronized Entry get(String fingerprint) {
+        return entries.get(fingerprint);
+    }
+
+    public synchronized void put(String fingerprint, String issueKey, int occurrences, long timestamp) throws IOException {
+        try (FileLock lock = lockChannel.lock()) {
+            reloadIfChanged();
+            write(fingerprint, new Entry(issueKey, UNKNOWN_STATUS, occurrences, timestamp));
+        }
+    }
+
+    /**
+     * Adds the occurrences to the entry of the fingerprint and returns the updated entry, or null if there is no entry.
+     */
+    public synchronized Entry recordOccurrences(String fingerprint, int occurrences, long timestamp) throws IOException {
+        try (FileLock lock = lockChannel.lock()) {
+            reloadIfChanged();
+            Entry entry = entries.get(fingerprint);
+            if (entry == null) {
+                return null;
+            }
+            Entry updated = new Entry(entry.issueKey, entry.status, entry.occurrences + occurrences,
+                    Math.max(entry.lastSeen, timestamp));
+            write(fingerprint, updated);
+            return updated;
+        }
+    }
+
+    /**
+     * Stores the status of all the entries pointing to the item.
+     */
+    public synchronized void updateStatus(String issueKey, String status) throws IOException {
+        try (FileLock lock = lockChannel.lock()) {
+            reloadIfChanged();
+            for (Map.Entry<String, Entry> entry : new HashMap<>(entries).entrySet()) {
+                Entry value = entry.getValue();
+                if (value.issueKey.equals(issueKey) && !value.status.equals(status)) {
+                    write(entry.getKey(), new Entry(issueKey, status, value.occurrences, value.lastSeen));
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void close() throws IOException {
+        lockChannel.close();
+    }
+
+    //called with the lock held, the file is opened for every change since another process may have replaced it
+    private void write(String fingerprint, Entry entry) throws IOException {
+        entries.put(fingerprint, entry);
+        if (lines >= MIN_LINES_TO_COMPACT && lines > 2 * entries.size()) {
+            compact();
+        } else {
+            try (Writer writer = openWriter(file, true)) {
+                writeLine(writer, fingerprint, entry);
+            }
+            lines++;
+        }
+        rememberFileState();
+    }
+
+    private void compact() throws IOException {
+        try (Writer compactedWriter = openWriter(compactedFile, false)) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writeLine(compactedWriter, entry.getKey(), entry.getValue());
+            }
+        }
+        Files.move(compactedFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        lines = entries.size();
+    }
+
+    private static void createDirectory(File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory.getPath());
+        }
+    }
+
+    private static Writer openWriter(File file, boolean append) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), StandardCharsets.UTF_8));
+    }
+
+    private static void writeLine(Writer writer, String fingerprint, Entry entry) throws IOException {
+        writer.write(fingerprint + '\t' + entry.issueKey + '\t' + clean(entry.status) + '\t' + entry.occurrences +
+                '\t' + entry.lastSeen + '\n');
+    }
+
+    //statuses are names defined in JIRA, they could contain a tab in theory
+    private static String clean(String value) {
+        return value.replace('\t', ' ').replace('\n', ' ');
+    }
+}
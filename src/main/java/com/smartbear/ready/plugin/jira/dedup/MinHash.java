@@ -0,0 +1,92 @@
+package com.smartbear.ready.plugin.jira.dedup;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * MinHash signatures of texts: the share of equal positions in two signatures estimates the Jaccard similarity
+ * of the word pairs of the texts. The texts are normalized as for {@link FailureFingerprint}, so messages which
+ * differ only in ids, timestamps or numbers get the same word pairs.
+ */
+public class MinHash {
+    public static final int SIGNATURE_SIZE = 64;
+    //longer texts (stack traces mostly) do not make the estimation better, only slower
+    private static final int MAX_TEXT_LENGTH = 8000;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}<>]+");
+    private static final long SEED = 20150318L;
+
+    private static final long[] MULTIPLIERS = new long[SIGNATURE_SIZE];
+    private static final long[] INCREMENTS = new long[SIGNATURE_SIZE];
+
+    static {
+        //fixed seed, so the signatures stay comparable between runs
+        Random random = new Random(SEED);
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1;
+            INCREMENTS[i] = random.nextLong();
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * Returns null if the text has no words.
+     */
+    public static int[] signature(String text) {
+        Set<Integer> shingles = shingles(text);
+        if (shingles.isEmpty()) {
+            return null;
+        }
+        int[] signature = new int[SIGNATURE_SIZE];
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            int min = Integer.MAX_VALUE;
+            for (int shingle : shingles) {
+                int hash = (int) ((MULTIPLIERS[i] * shingle + INCREMENTS[i]) >>> 32);
+                if (hash < min) {
+                    min = hash;
+                }
+            }
+            signature[i] = min;
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the texts of the signatures, from 0 to 1.
+     */
+    public static double similarity(int[] first, int[] second) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_SIZE; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_SIZE;
+    }
+
+    private static Set<Integer> shingles(String text) {
+        if (text.length() > MAX_TEXT_LENGTH) {
+            text = text.substring(0, MAX_TEXT_LENGTH);
+        }
+        String[] words = WORD_SEPARATOR.split(FailureFingerprint.normalize(text));
+        Set<Integer> shingles = new HashSet<>();
+        String previous = null;
+        for (String word : words) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (previous != null) {
+                shingles.add((previous + ' ' + word).hashCode());
+            }
+            previous = word;
+        }
+        if (shingles.isEmpty() && previous != null) {
+            //a single word
+            shingles.add(previous.hashCode());
+        }
+        return shingles;
+    }
+}
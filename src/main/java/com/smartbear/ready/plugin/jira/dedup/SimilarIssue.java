@@ -0,0 +1,33 @@
+package com.smartbear.ready.plugin.jira.dedup;
+
+public class SimilarIssue {
+    private final String issueKey;
+    private final String summary;
+    private final double similarity;
+
+    public SimilarIssue(String issueKey, String summary, double similarity) {
+        this.issueKey = issueKey;
+        this.summary = summary;
+        this.similarity = similarity;
+    }
+
+    public String getIssueKey() {
+        return issueKey;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    /**
+     * Estimated similarity, from 0 to 1.
+     */
+    public double getSimilarity() {
+        return similarity;
+    }
+
+    @Override
+    public String toString() {
+        return issueKey + " (" + Math.round(similarity * 100) + "%): " + summary;
+    }
+}
@@ -0,0 +1,172 @@
+package com.smartbear.ready.plugin.jira.dedup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Locality-sensitive hashing index of the {@link MinHash} signatures of recent issues. A signature is split into
+ * {@value #BANDS} bands of {@value #ROWS} rows and the issue is put into one bucket per band, so only the issues
+ * sharing a band with the query are compared with it. A text with similarity s shares a band with probability
+ * 1 - (1 - s^{@value #ROWS})^{@value #BANDS}: 99.99% at the {@link #DEFAULT_MIN_SIMILARITY} of 0.5, 95% at 0.3 and
+ * still 28% at 0.1. The low threshold trades some extra comparisons, a few dozen integers each, for not missing
+ * duplicates.
+ * <p>
+ * The index keeps the last {@link #DEFAULT_CAPACITY} issues added to it and is fed from the issues created
+ * through the plugin and from a bounded import of recently updated issues.
+ */
+public class SimilarIssueIndex {
+    public static final int BANDS = 32;
+    public static final int ROWS = MinHash.SIGNATURE_SIZE / BANDS;
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final double DEFAULT_MIN_SIMILARITY = 0.5;
+
+    private static class IndexedIssue {
+        final String issueKey;
+        final String projectKey;
+        final String summary;
+        final int[] signature;
+
+        IndexedIssue(String issueKey, String projectKey, String summary, int[] signature) {
+            this.issueKey = issueKey;
+            this.projectKey = projectKey;
+            this.summary = summary;
+            this.signature = signature;
+        }
+    }
+
+    private static final Comparator<SimilarIssue> MOST_SIMILAR_FIRST = new Comparator<SimilarIssue>() {
+        @Override
+        public int compare(SimilarIssue first, SimilarIssue second) {
+            return Double.compare(second.getSimilarity(), first.getSimilarity());
+        }
+    };
+
+    private final int capacity;
+    private final LinkedHashMap<String, IndexedIssue> issues;
+    //band number and band hash to the issue keys
+    private final Map<Long, Set<String>> buckets = new HashMap<>();
+
+    public SimilarIssueIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SimilarIssueIndex(int capacity) {
+        this.capacity = capacity;
+        this.issues = new LinkedHashMap<>();
+    }
+
+    /**
+     * Adds or replaces the issue. Returns false if the text has no words to compare.
+     */
+    public boolean add(String issueKey, String projectKey, String summary, String text) {
+        int[] signature = MinHash.signature(text);
+        if (signature == null) {
+            return false;
+        }
+        synchronized (this) {
+            IndexedIssue previous = issues.remove(issueKey);
+            if (previous != null) {
+                removeFromBuckets(previous);
+            }
+            IndexedIssue issue = new IndexedIssue(issueKey, projectKey, summary, signature);
+            issues.put(issueKey, issue);
+            for (int band = 0; band < BANDS; band++) {
+                Long bucketKey = bucketKey(band, signature);
+                Set<String> bucket = buckets.get(bucketKey);
+                if (bucket == null) {
+                    bucket = new HashSet<>(2);
+                    buckets.put(bucketKey, bucket);
+                }
+                bucket.add(issueKey);
+            }
+            evict();
+        }
+        return true;
+    }
+
+    public synchronized void remove(String issueKey) {
+        IndexedIssue issue = issues.remove(issueKey);
+        if (issue != null) {
+            removeFromBuckets(issue);
+        }
+    }
+
+    public synchronized int size() {
+        return issues.size();
+    }
+
+    /**
+     * Returns at most {@code limit} issues of the project which are at least {@code minSimilarity} similar to the
+     * text, the most similar first. The signature is computed outside of the lock, only the bucket lookup is
+     * synchronized.
+     */
+    public List<SimilarIssue> findSimilar(String projectKey, String text, int limit, double minSimilarity) {
+        int[] signature = MinHash.signature(text);
+        if (signature == null) {
+            return Collections.emptyList();
+        }
+        List<SimilarIssue> result = new ArrayList<>();
+        synchronized (this) {
+            Set<String> compared = new HashSet<>();
+            for (int band = 0; band < BANDS; band++) {
+                Set<String> bucket = buckets.get(bucketKey(band, signature));
+                if (bucket == null) {
+                    continue;
+                }
+                for (String issueKey : bucket) {
+                    if (!compared.add(issueKey)) {
+                        continue;
+                    }
+                    IndexedIssue issue = issues.get(issueKey);
+                    if (!issue.projectKey.equals(projectKey)) {
+                        continue;
+                    }
+                    double similarity = MinHash.similarity(signature, issue.signature);
+                    if (similarity >= minSimilarity) {
+                        result.add(new SimilarIssue(issue.issueKey, issue.summary, similarity));
+                    }
+                }
+            }
+        }
+        Collections.sort(result, MOST_SIMILAR_FIRST);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private void evict() {
+        Iterator<IndexedIssue> eldest = issues.values().iterator();
+        while (issues.size() > capacity && eldest.hasNext()) {
+            IndexedIssue issue = eldest.next();
+            eldest.remove();
+            removeFromBuckets(issue);
+        }
+    }
+
+    private void removeFromBuckets(IndexedIssue issue) {
+        for (int band = 0; band < BANDS; band++) {
+            Long bucketKey = bucketKey(band, issue.signature);
+            Set<String> bucket = buckets.get(bucketKey);
+            if (bucket != null) {
+                bucket.remove(issue.issueKey);
+                if (bucket.isEmpty()) {
+                    buckets.remove(bucketKey);
+                }
+            }
+        }
+    }
+
+    private static Long bucketKey(int band, int[] signature) {
+        int hash = 1;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            hash = 31 * hash + signature[row];
+        }
+        return ((long) band << 32) | (hash & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,165 @@
+package com.smartbear.ready.plugin.jira.dialog;
+
+import com.atlassian.jira.rest.client.api.domain.CimFieldInfo;
+import com.atlassian.jira.rest.client.api.domain.FieldSchema;
+import com.eviware.x.form.ValidationMessage;
+import com.eviware.x.form.XFormField;
+import com.eviware.x.form.XFormFieldValidator;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Checks a field value against the createmeta schema of the field before the item is sent to JIRA: allowed
+ * values, numbers, dates and the syntax of comma separated array values. Required fields are checked by the
+ * form itself. Compiled once per field of an {@link IssueFormTemplate}, the checks are set lookups and parsing
+ * of a single value.
+ */
+public class FieldValueValidator implements XFormFieldValidator {
+    public static final String VALUE_NOT_ALLOWED = "\"%s\" is not an allowed value of the %s field.";
+    public static final String NOT_A_NUMBER = "The %s field must be a number.";
+    public static final String NOT_A_DATE = "The %s field must be a date in the yyyy-MM-dd format.";
+    public static final String NOT_A_DATE_TIME = "The %s field must be a date and time in the yyyy-MM-dd'T'HH:mm format.";
+    public static final String EMPTY_ARRAY_ELEMENT = "The %s field contains an empty value, separate the values with single commas.";
+    public static final String LABEL_WITH_SPACES = "The labels in the %s field cannot contain spaces: \"%s\".";
+    public static final String TOO_LONG = "The %s field cannot be longer than %d characters.";
+
+    private static final String NUMBER_TYPE = "number";
+    private static final String DATE_TYPE = "date";
+    private static final String DATE_TIME_TYPE = "datetime";
+    private static final String ARRAY_TYPE = "array";
+    private static final String LABELS_SYSTEM_FIELD = "labels";
+    private static final String LABELS_CUSTOM_FIELD = "com.atlassian.jira.plugin.system.customfieldtypes:labels";
+    private static final String DATE_FORMAT = "yyyy-MM-dd";
+    private static final String[] DATE_TIME_FORMATS = {"yyyy-MM-dd'T'HH:mm:ss.SSSZ", "yyyy-MM-dd'T'HH:mm:ss", "yyyy-MM-dd'T'HH:mm"};
+
+    private final String fieldName;
+    private final String type;
+    private final boolean array;
+    private final boolean labels;
+    private final Set<String> allowedValues;
+    private final int maxLength;
+
+    private FieldValueValidator(String fieldName, String type, boolean array, boolean labels, Set<String> allowedValues,
+                                int maxLength) {
+        this.fieldName = fieldName;
+        this.type = type;
+        this.array = array;
+        this.labels = labels;
+        this.allowedValues = allowedValues;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the validator of a field, or null if nothing can be checked for it.
+     *
+     * @param options the values offered by the form for the field, null for text fields
+     */
+    public static FieldValueValidator compile(CimFieldInfo fieldInfo, Object[] options) {
+        FieldSchema schema = fieldInfo.getSchema();
+        boolean array = schema != null && ARRAY_TYPE.equalsIgnoreCase(schema.getType());
+        String type = schema == null ? null : array ? schema.getItems() : schema.getType();
+        boolean labels = schema != null && (LABELS_SYSTEM_FIELD.equals(schema.getSystem()) || LABELS_CUSTOM_FIELD.equals(schema.getCustom()));
+        Set<String> allowedValues = null;
+        if (options != null) {
+            allowedValues = new HashSet<>(options.length * 2);
+            for (Object option : options) {
+                allowedValues.add(String.valueOf(option));
+            }
+        }
+        if (allowedValues == null && !array && !NUMBER_TYPE.equals(type) && !DATE_TYPE.equals(type) &&
+                !DATE_TIME_TYPE.equals(type)) {
+            return null;
+        }
+        return new FieldValueValidator(fieldInfo.getName(), type, array, labels, allowedValues, 0);
+    }
+
+    public static FieldValueValidator maxLength(String fieldName, int maxLength) {
+        return new FieldValueValidator(fieldName, null, false, false, null, maxLength);
+    }
+
+    @Override
+    public ValidationMessage[] validateField(XFormField formField) {
+        String error = validateValue(formField.getValue());
+        if (error == null) {
+            return new ValidationMessage[0];
+        }
+        return new ValidationMessage[]{new ValidationMessage(error, formField)};
+    }
+
+    /**
+     * Returns the error message for the value, or null if the value is valid. Empty values are valid.
+     */
+    public String validateValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        if (maxLength > 0 && value.length() > maxLength) {
+            return String.format(TOO_LONG, fieldName, maxLength);
+        }
+        if (allowedValues != null) {
+            //values picked from the list are taken as a whole, even when they contain commas
+            return allowedValues.contains(value) ? null : String.format(VALUE_NOT_ALLOWED, value, fieldName);
+        }
+        if (!array) {
+            return validateElement(value.trim());
+        }
+        //the same splitting as when the item is created
+        String[] elements = value.trim().split("\\s*,\\s*", -1);
+        for (String element : elements) {
+            if (element.isEmpty()) {
+                return String.format(EMPTY_ARRAY_ELEMENT, fieldName);
+            }
+            if (labels && containsWhitespace(element)) {
+                return String.format(LABEL_WITH_SPACES, fieldName, element);
+            }
+            String error = validateElement(element);
+            if (error != null) {
+                return error;
+            }
+        }
+        return null;
+    }
+
+    private String validateElement(String element) {
+        if (NUMBER_TYPE.equals(type)) {
+            try {
+                double number = Double.parseDouble(element);
+                return Double.isNaN(number) || Double.isInfinite(number) ? String.format(NOT_A_NUMBER, fieldName) : null;
+            } catch (NumberFormatException e) {
+                return String.format(NOT_A_NUMBER, fieldName);
+            }
+        }
+        if (DATE_TYPE.equals(type)) {
+            return parses(element, DATE_FORMAT) ? null : String.format(NOT_A_DATE, fieldName);
+        }
+        if (DATE_TIME_TYPE.equals(type)) {
+            for (String format : DATE_TIME_FORMATS) {
+                if (parses(element, format)) {
+                    return null;
+                }
+            }
+            return String.format(NOT_A_DATE_TIME, fieldName);
+        }
+        return null;
+    }
+
+    private static boolean parses(String value, String format) {
+        //SimpleDateFormat is not thread safe, creating it costs less than a round trip to JIRA anyway
+        SimpleDateFormat dateFormat = new SimpleDateFormat(format);
+        dateFormat.setLenient(false);
+        ParsePosition position = new ParsePosition(0);
+        return dateFormat.parse(value, position) != null && position.getIndex() == value.length();
+    }
+
+    private static boolean containsWhitespace(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isWhitespace(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
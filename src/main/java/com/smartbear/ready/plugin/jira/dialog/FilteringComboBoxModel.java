@@ -0,0 +1,49 @@
+package com.smartbear.ready.plugin.jira.dialog;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Combo box model holding only the options matching the text typed into an editable combo box. The selected item
+ * may be any text, as usual for editable combo boxes.
+ */
+public class FilteringComboBoxModel extends AbstractListModel implements ComboBoxModel {
+    private List<Object> options = new ArrayList<>();
+    private Object selectedItem;
+
+    public FilteringComboBoxModel(List<?> options, Object selectedItem) {
+        this.options.addAll(options);
+        this.selectedItem = selectedItem;
+    }
+
+    public void setOptions(List<?> newOptions, Object newSelectedItem) {
+        options = new ArrayList<>(newOptions);
+        selectedItem = newSelectedItem;
+        fireContentsChanged(this, -1, -1);
+    }
+
+    @Override
+    public int getSize() {
+        return options.size();
+    }
+
+    @Override
+    public Object getElementAt(int index) {
+        return options.get(index);
+    }
+
+    @Override
+    public void setSelectedItem(Object item) {
+        if ((selectedItem != null && !selectedItem.equals(item)) || (selectedItem == null && item != null)) {
+            selectedItem = item;
+            fireContentsChanged(this, -1, -1);
+        }
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selectedItem;
+    }
+}
@@ -0,0 +1,108 @@
+package com.smartbear.ready.plugin.jira.dialog;
+
+import javax.swing.JComboBox;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import java.util.List;
+
+/**
+ * Turns an editable combo box into a search box: on every keystroke the options are replaced with the ones
+ * returned by the {@link OptionsSource} for the typed text, so the popup never holds more than
+ * {@link #VISIBLE_OPTIONS_LIMIT} rows however many values the field has.
+ */
+public class FilteringComboBoxSupport {
+    public static final int VISIBLE_OPTIONS_LIMIT = 100;
+
+    public interface OptionsSource {
+        List<?> getOptions(String text, int limit);
+    }
+
+    private final JComboBox comboBox;
+    private final FilteringComboBoxModel model;
+    private final OptionsSource optionsSource;
+    private final JTextComponent editor;
+    private boolean updating = false;
+
+    private FilteringComboBoxSupport(JComboBox comboBox, OptionsSource optionsSource) {
+        this.comboBox = comboBox;
+        this.optionsSource = optionsSource;
+        Object selectedItem = comboBox.getSelectedItem();
+        model = new FilteringComboBoxModel(optionsSource.getOptions("", VISIBLE_OPTIONS_LIMIT), selectedItem);
+        comboBox.setEditable(true);
+        comboBox.setModel(model);
+        editor = (JTextComponent) comboBox.getEditor().getEditorComponent();
+        editor.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                scheduleFiltering();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                scheduleFiltering();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+    }
+
+    public static FilteringComboBoxSupport install(JComboBox comboBox, OptionsSource optionsSource) {
+        return new FilteringComboBoxSupport(comboBox, optionsSource);
+    }
+
+    public JComboBox getComboBox() {
+        return comboBox;
+    }
+
+    public String getText() {
+        return editor.getText();
+    }
+
+    /**
+     * Repeats the search for the current text, for instance when an asynchronous source got more results.
+     */
+    public void refresh() {
+        filter(true);
+    }
+
+    private void scheduleFiltering() {
+        if (updating) {
+            return;
+        }
+        //the document must not be changed from its own listener
+        SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+                filter(false);
+            }
+        });
+    }
+
+    private void filter(boolean force) {
+        String text = editor.getText();
+        Object selectedItem = model.getSelectedItem();
+        if (!force && selectedItem != null && text.equals(selectedItem.toString())) {
+            //the text has been set by choosing an option, not typed
+            return;
+        }
+        int caretPosition = editor.getCaretPosition();
+        updating = true;
+        try {
+            model.setOptions(optionsSource.getOptions(text, VISIBLE_OPTIONS_LIMIT), text);
+            editor.setCaretPosition(Math.min(caretPosition, editor.getText().length()));
+        } finally {
+            updating = false;
+        }
+        if (editor.isFocusOwner() && comboBox.isShowing()) {
+            //makes the popup recalculate its height for the new number of rows
+            comboBox.hidePopup();
+            if (model.getSize() > 0) {
+                comboBox.showPopup();
+            }
+        }
+    }
+}
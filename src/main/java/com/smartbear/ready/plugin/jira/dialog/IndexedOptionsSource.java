@@ -0,0 +1,30 @@
+package com.smartbear.ready.plugin.jira.dialog;
+
+import com.smartbear.ready.plugin.jira.search.NGramIndex;
+
+import java.util.List;
+
+/**
+ * Options of a field with a huge list of allowed values (versions, components, custom field options),
+ * matched by prefix or substring through an {@link NGramIndex}.
+ */
+public class IndexedOptionsSource implements FilteringComboBoxSupport.OptionsSource {
+    private final NGramIndex index;
+
+    public IndexedOptionsSource(Object[] options) {
+        this(new NGramIndex(options));
+    }
+
+    public IndexedOptionsSource(NGramIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public List<?> getOptions(String text, int limit) {
+        return index.searchValues(text, limit);
+    }
+
+    public int size() {
+        return index.size();
+    }
+}
@@ -0,0 +1,156 @@
+package com.smartbear.ready.plugin.jira.dialog;
+
+import com.atlassian.jira.rest.client.api.domain.CimFieldInfo;
+import com.eviware.x.form.XForm;
+import com.eviware.x.form.XFormField;
+import com.smartbear.ready.plugin.jira.cache.IssueFormTemplateCache;
+import com.smartbear.ready.plugin.jira.impl.FormSection;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+import com.smartbear.ready.plugin.jira.impl.SwingXScrollableFormImpl;
+import com.smartbear.ready.plugin.jira.metrics.JiraMetrics;
+import com.smartbear.ready.plugin.jira.metrics.JiraMetrics.Cache;
+import org.jdesktop.swingx.autocomplete.AutoCompleteDecorator;
+
+import javax.swing.JComboBox;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the metadata-driven fields of the issue details form (priority, versions, custom fields) from an
+ * {@link IssueFormTemplate}. Templates are cached per (project, issue type) and metadata version, so opening the
+ * dialog again for the same item type only creates the Swing components.
+ */
+public class IssueDetailsFormBuilder {
+    public static final String DESCRIPTION_FIELD_NAME = "description";
+    public static final int LARGE_OPTIONS_LIST_SIZE = 200;
+    public static final int OPTIONAL_FIELDS_SECTION_THRESHOLD = 20;
+    public static final String OPTIONAL_FIELDS_SECTION_TITLE = "Optional fields";
+    private static final String COMBO_BOX_PROTOTYPE_VALUE = "XXXXXXXXXXXXXXXXXXXXXXXXXXXXXX";
+
+    public static final List<String> SKIPPED_FIELD_KEYS = Arrays.asList("summary",
+            "project",
+            "issuetype",
+            DESCRIPTION_FIELD_NAME,
+            JiraProvider.VERSIONS_FIELD_NAME,
+            "attachment",
+            JiraProvider.PRIORITY_FIELD_NAME,
+            JiraProvider.FIX_VERSIONS_FIELD_NAME);
+
+    private final JiraProvider bugTrackerProvider;
+    private final boolean skipReleasedVersions;
+
+    public IssueDetailsFormBuilder(JiraProvider bugTrackerProvider, boolean skipReleasedVersions) {
+        this.bugTrackerProvider = bugTrackerProvider;
+        this.skipReleasedVersions = skipReleasedVersions;
+    }
+
+    /**
+     * Returns the template of the item type if it has already been computed for the current metadata.
+     */
+    public IssueFormTemplate getCachedTemplate(String projectKey, String issueType) {
+        if (!bugTrackerProvider.hasProjectFields(projectKey)) {
+            return null;
+        }
+        IssueFormTemplate template = bugTrackerProvider.getIssueFormTemplateCache().get(projectKey, issueType);
+        if (template == null || !template.isUpToDate(bugTrackerProvider.getProjectFieldsVersion(projectKey), skipReleasedVersions)) {
+            return null;
+        }
+        return template;
+    }
+
+    /**
+     * Returns the cached template of the item type or computes it, reading the project metadata if needed.
+     * Must not be called on the event dispatch thread. Returns null if the metadata cannot be read.
+     */
+    public IssueFormTemplate getTemplate(String projectKey, String issueType) {
+        IssueFormTemplate template = getCachedTemplate(projectKey, issueType);
+        if (template != null) {
+            JiraMetrics.cache(Cache.FORM_TEMPLATES).hit();
+            return template;
+        }
+        JiraMetrics.cache(Cache.FORM_TEMPLATES).miss();
+        Map<String, Map<String, Map<String, CimFieldInfo>>> allFields = bugTrackerProvider.getProjectFields(projectKey);
+        if (allFields == null) {
+            return null;
+        }
+        //read before the fields, a concurrent reload then only makes the template look outdated
+        int metadataVersion = bugTrackerProvider.getProjectFieldsVersion(projectKey);
+        Map<String, Map<String, CimFieldInfo>> issueTypes = allFields.get(projectKey);
+        if (issueTypes == null || issueTypes.get(issueType) == null) {
+            return null;
+        }
+        template = new IssueFormTemplate(bugTrackerProvider, issueTypes.get(issueType), metadataVersion, skipReleasedVersions);
+        bugTrackerProvider.getIssueFormTemplateCache().put(projectKey, issueType, template);
+        return template;
+    }
+
+    public void addMetadataFields(XForm form, IssueFormTemplate template) {
+        FormSection section = null;
+        for (final IssueFormTemplate.FieldDescriptor descriptor : template.getFields()) {
+            if (descriptor.isLazy() && form instanceof SwingXScrollableFormImpl) {
+                //the fields are only created when the user expands the section
+                if (section == null) {
+                    section = ((SwingXScrollableFormImpl) form).addSection(OPTIONAL_FIELDS_SECTION_TITLE);
+                }
+                section.addField(descriptor.getName(), new FormSection.FieldFactory() {
+                    @Override
+                    public XFormField createField(XForm sectionForm) {
+                        return addField(sectionForm, descriptor);
+                    }
+                });
+            } else {
+                addField(form, descriptor);
+            }
+        }
+    }
+
+    private XFormField addField(XForm form, IssueFormTemplate.FieldDescriptor descriptor) {
+        XFormField field;
+        switch (descriptor.getKind()) {
+            case COMBO_BOX:
+                field = form.addComboBox(descriptor.getName(), descriptor.getOptions(), descriptor.getName());
+                makeComboBoxFieldEditable(field);
+                break;
+            case INDEXED_COMBO_BOX:
+                field = addIndexedComboBoxField(form, descriptor);
+                break;
+            case TEXTAREA:
+                field = form.addTextField(descriptor.getName(), descriptor.getName(), XForm.FieldType.TEXTAREA);
+                break;
+            default:
+                field = form.addTextField(descriptor.getName(), descriptor.getName(), XForm.FieldType.TEXT);
+        }
+        if (descriptor.isRequired()) {
+            field.setRequired(true, descriptor.getName());
+        }
+        if (descriptor.getValidator() != null) {
+            //run by JScrollableFormDialog.validate() when OK is pressed
+            field.addFormFieldValidator(descriptor.getValidator());
+        }
+        return field;
+    }
+
+    /**
+     * Fields with a lot of allowed values only get their first value in the combo box itself, the rest is
+     * searched through the index of the template as the user types.
+     */
+    private XFormField addIndexedComboBoxField(XForm form, IssueFormTemplate.FieldDescriptor descriptor) {
+        XFormField field = form.addComboBox(descriptor.getName(), new Object[]{descriptor.getOptions()[0]}, descriptor.getName());
+        if (field instanceof com.eviware.x.impl.swing.JComboBoxFormField) {
+            JComboBox comboBox = ((com.eviware.x.impl.swing.JComboBoxFormField) field).getComponent();
+            //gives the popup list a fixed cell size, so only the visible rows are measured and rendered
+            comboBox.setPrototypeDisplayValue(COMBO_BOX_PROTOTYPE_VALUE);
+            FilteringComboBoxSupport.install(comboBox, descriptor.getOptionsSource());
+        }
+        return field;
+    }
+
+    private void makeComboBoxFieldEditable(XFormField field) {
+        if (field instanceof com.eviware.x.impl.swing.JComboBoxFormField) {
+            com.eviware.x.impl.swing.JComboBoxFormField comboBox = (com.eviware.x.impl.swing.JComboBoxFormField) field;
+            comboBox.getComponent().setEditable(true);
+            AutoCompleteDecorator.decorate(comboBox.getComponent());
+        }
+    }
+}
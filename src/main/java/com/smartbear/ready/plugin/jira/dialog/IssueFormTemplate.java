@@ -0,0 +1,191 @@
+package com.smartbear.ready.plugin.jira.dialog;
+
+import com.atlassian.jira.rest.client.api.domain.CimFieldInfo;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+import com.smartbear.ready.plugin.jira.search.NGramIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the issue details form needs from the createmeta entry of a (project, issue type): the fields in
+ * the order they are shown, their option arrays and the search indexes of the fields with a lot of options.
+ * It is computed once, off the event dispatch thread, and shared by all the dialogs created for the same
+ * metadata version; the Swing components themselves are created for every dialog.
+ */
+public class IssueFormTemplate {
+    public enum FieldKind {
+        COMBO_BOX, INDEXED_COMBO_BOX, TEXT, TEXTAREA
+    }
+
+    public static class FieldDescriptor {
+        private final String key;
+        private final String name;
+        private final FieldKind kind;
+        private final boolean required;
+        private final boolean lazy;
+        private final Object[] options;
+        private final IndexedOptionsSource optionsSource;
+        private final FieldValueValidator validator;
+
+        FieldDescriptor(CimFieldInfo fieldInfo, FieldKind kind, boolean lazy, Object[] options) {
+            this.key = fieldInfo.getId();
+            this.name = fieldInfo.getName();
+            this.kind = kind;
+            this.required = fieldInfo.isRequired();
+            this.lazy = lazy;
+            this.options = options;
+            this.optionsSource = kind == FieldKind.INDEXED_COMBO_BOX ? new IndexedOptionsSource(new NGramIndex(options)) : null;
+            this.validator = FieldValueValidator.compile(fieldInfo, options);
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public FieldKind getKind() {
+            return kind;
+        }
+
+        public boolean isRequired() {
+            return required;
+        }
+
+        /**
+         * Whether the field goes to the collapsed section of optional fields.
+         */
+        public boolean isLazy() {
+            return lazy;
+        }
+
+        /**
+         * Shared by all the forms built from the template, must not be modified.
+         */
+        public Object[] getOptions() {
+            return options;
+        }
+
+        public IndexedOptionsSource getOptionsSource() {
+            return optionsSource;
+        }
+
+        /**
+         * Returns null if the value of the field cannot be checked before it is sent.
+         */
+        public FieldValueValidator getValidator() {
+            return validator;
+        }
+    }
+
+    private static final List<String> multilineTextEditors = Arrays.asList("com.atlassian.jira.plugin.system.customfieldtypes:textarea");
+
+    private final int metadataVersion;
+    private final boolean skipReleasedVersions;
+    private final boolean hasDescription;
+    private final boolean descriptionRequired;
+    private final List<FieldDescriptor> fields = new ArrayList<>();
+    private final Map<String, CimFieldInfo> fieldInfos;
+
+    public IssueFormTemplate(JiraProvider bugTrackerProvider, Map<String, CimFieldInfo> fieldInfos, int metadataVersion,
+                             boolean skipReleasedVersions) {
+        this.metadataVersion = metadataVersion;
+        this.skipReleasedVersions = skipReleasedVersions;
+        this.fieldInfos = fieldInfos;
+        CimFieldInfo descriptionFieldInfo = fieldInfos.get(IssueDetailsFormBuilder.DESCRIPTION_FIELD_NAME);
+        hasDescription = descriptionFieldInfo != null;
+        descriptionRequired = hasDescription && descriptionFieldInfo.isRequired();
+
+        CimFieldInfo priorityFieldInfo = fieldInfos.get(JiraProvider.PRIORITY_FIELD_NAME);
+        if (priorityFieldInfo != null && priorityFieldInfo.getAllowedValues() != null) {
+            addComboBoxField(priorityFieldInfo, bugTrackerProvider.getAllowedValueNames(
+                    priorityFieldInfo.getAllowedValues(), false), false);
+        }
+        CimFieldInfo affectedVersionFieldInfo = fieldInfos.get(JiraProvider.VERSIONS_FIELD_NAME);
+        if (affectedVersionFieldInfo != null && affectedVersionFieldInfo.getAllowedValues() != null) {
+            addComboBoxField(affectedVersionFieldInfo, bugTrackerProvider.getAllowedValueNames(
+                    affectedVersionFieldInfo.getAllowedValues(), !affectedVersionFieldInfo.isRequired()), false);
+        }
+
+        List<CimFieldInfo> optionalFields = new ArrayList<>();
+        for (Map.Entry<String, CimFieldInfo> field : fieldInfos.entrySet()) {
+            if (IssueDetailsFormBuilder.SKIPPED_FIELD_KEYS.contains(field.getKey())) {
+                continue;
+            }
+            if (field.getValue().isRequired()) {
+                addMetadataField(bugTrackerProvider, field.getValue(), false);
+            } else {
+                optionalFields.add(field.getValue());
+            }
+        }
+        boolean lazy = optionalFields.size() > IssueDetailsFormBuilder.OPTIONAL_FIELDS_SECTION_THRESHOLD;
+        for (CimFieldInfo fieldInfo : optionalFields) {
+            addMetadataField(bugTrackerProvider, fieldInfo, lazy);
+        }
+
+        CimFieldInfo fixedVersionFieldInfo = fieldInfos.get(JiraProvider.FIX_VERSIONS_FIELD_NAME);
+        if (fixedVersionFieldInfo != null && fixedVersionFieldInfo.getAllowedValues() != null) {
+            addComboBoxField(fixedVersionFieldInfo, bugTrackerProvider.getVersionNames(
+                    fixedVersionFieldInfo.getAllowedValues(), skipReleasedVersions, !fixedVersionFieldInfo.isRequired()), false);
+        }
+    }
+
+    private void addMetadataField(JiraProvider bugTrackerProvider, CimFieldInfo fieldInfo, boolean lazy) {
+        if (fieldInfo.getAllowedValues() != null) {
+            Object[] values = bugTrackerProvider.getAllowedValueNames(fieldInfo.getAllowedValues(),
+                    !fieldInfo.isRequired());
+            if (values.length > 0) {
+                addComboBoxField(fieldInfo, values, lazy);
+                return;
+            }
+            fields.add(new FieldDescriptor(fieldInfo, FieldKind.TEXT, lazy, null));
+            return;
+        }
+        boolean isMultilineTextEditor = fieldInfo.getSchema() != null &&
+                multilineTextEditors.contains(fieldInfo.getSchema().getCustom());
+        fields.add(new FieldDescriptor(fieldInfo, isMultilineTextEditor ? FieldKind.TEXTAREA : FieldKind.TEXT, lazy, null));
+    }
+
+    private void addComboBoxField(CimFieldInfo fieldInfo, Object[] values, boolean lazy) {
+        //a field without values is not shown at all, as before
+        if (values.length == 0) {
+            return;
+        }
+        FieldKind kind = values.length <= IssueDetailsFormBuilder.LARGE_OPTIONS_LIST_SIZE ?
+                FieldKind.COMBO_BOX : FieldKind.INDEXED_COMBO_BOX;
+        fields.add(new FieldDescriptor(fieldInfo, kind, lazy, values));
+    }
+
+    public boolean isUpToDate(int metadataVersion, boolean skipReleasedVersions) {
+        return this.metadataVersion == metadataVersion && this.skipReleasedVersions == skipReleasedVersions;
+    }
+
+    public int getMetadataVersion() {
+        return metadataVersion;
+    }
+
+    /**
+     * Returns the createmeta fields the form is built from, the values typed into it are sent for these fields.
+     */
+    public Map<String, CimFieldInfo> getFieldInfos() {
+        return Collections.unmodifiableMap(fieldInfos);
+    }
+
+    public boolean hasDescription() {
+        return hasDescription;
+    }
+
+    public boolean isDescriptionRequired() {
+        return descriptionRequired;
+    }
+
+    public List<FieldDescriptor> getFields() {
+        return Collections.unmodifiableList(fields);
+    }
+}
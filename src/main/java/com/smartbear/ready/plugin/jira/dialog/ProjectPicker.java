@@ -0,0 +1,113 @@
+package com.smartbear.ready.plugin.jira.dialog;
+
+import com.atlassian.jira.rest.client.api.domain.BasicProject;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+import com.smartbear.ready.plugin.jira.search.ProjectIndex;
+
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.JComboBox;
+import javax.swing.JList;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+
+/**
+ * Project combo box of the initial dialog. Typed text is looked up in the local {@link ProjectIndex}; when the
+ * index is stale or does not contain every project, JIRA is also searched (debounced, one request at a time)
+ * and the projects it finds are merged into the index.
+ */
+public class ProjectPicker implements FilteringComboBoxSupport.OptionsSource {
+    public static final int SERVER_SEARCH_DELAY_MS = 250;
+    public static final int MIN_SERVER_SEARCH_QUERY_LENGTH = 2;
+
+    private final JiraProvider provider;
+    private final ProjectIndex projectIndex;
+    private final Timer serverSearchTimer;
+    private FilteringComboBoxSupport comboBoxSupport;
+    private String serverQuery;
+    private String lastServerQuery;
+    private boolean serverSearchRunning = false;
+
+    private ProjectPicker(JiraProvider provider, ProjectIndex projectIndex) {
+        this.provider = provider;
+        this.projectIndex = projectIndex;
+        serverSearchTimer = new Timer(SERVER_SEARCH_DELAY_MS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                startServerSearch();
+            }
+        });
+        serverSearchTimer.setRepeats(false);
+    }
+
+    /**
+     * @param projectIndex index loaded beforehand, off the event dispatch thread
+     */
+    public static ProjectPicker install(JComboBox comboBox, JiraProvider provider, ProjectIndex projectIndex) {
+        final ProjectPicker picker = new ProjectPicker(provider, projectIndex);
+        picker.comboBoxSupport = FilteringComboBoxSupport.install(comboBox, picker);
+        comboBox.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                String key = String.valueOf(value);
+                String name = picker.projectIndex.getProjectName(key);
+                return super.getListCellRendererComponent(list, name == null || name.isEmpty() ? key : key + " - " + name,
+                        index, isSelected, cellHasFocus);
+            }
+        });
+        return picker;
+    }
+
+    public boolean isKnownProject(String key) {
+        return projectIndex.containsProject(key);
+    }
+
+    @Override
+    public List<?> getOptions(String text, int limit) {
+        List<String> result = projectIndex.search(text, limit);
+        if (comboBoxSupport != null && result.size() < limit && text.trim().length() >= MIN_SERVER_SEARCH_QUERY_LENGTH &&
+                (!projectIndex.isComplete() || projectIndex.isStale()) && !text.trim().equals(lastServerQuery)) {
+            serverQuery = text.trim();
+            serverSearchTimer.restart();
+        }
+        return result;
+    }
+
+    private void startServerSearch() {
+        if (serverSearchRunning || serverQuery == null) {
+            return;
+        }
+        final String query = serverQuery;
+        serverSearchRunning = true;
+        lastServerQuery = query;
+        new SwingWorker<List<BasicProject>, Void>() {
+            @Override
+            protected List<BasicProject> doInBackground() throws Exception {
+                return provider.searchProjects(query, FilteringComboBoxSupport.VISIBLE_OPTIONS_LIMIT);
+            }
+
+            @Override
+            protected void done() {
+                serverSearchRunning = false;
+                try {
+                    for (BasicProject project : get()) {
+                        projectIndex.addProject(project.getKey(), project.getName());
+                    }
+                } catch (Exception e) {
+                    return;
+                }
+                String currentText = comboBoxSupport.getText().trim();
+                if (currentText.equals(query)) {
+                    comboBoxSupport.refresh();
+                } else if (currentText.length() >= MIN_SERVER_SEARCH_QUERY_LENGTH && !currentText.equals(lastServerQuery)) {
+                    //the user kept typing while the request was running
+                    serverQuery = currentText;
+                    serverSearchTimer.restart();
+                }
+            }
+        }.execute();
+    }
+}
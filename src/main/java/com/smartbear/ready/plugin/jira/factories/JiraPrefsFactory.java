@@ -7,9 +7,11 @@ import com.eviware.soapui.support.components.SimpleForm;
 import com.eviware.soapui.support.types.StringToStringMap;
 import com.smartbear.ready.plugin.jira.impl.JiraProvider;
 import com.smartbear.ready.plugin.jira.settings.BugTrackerPrefs;
+import com.smartbear.ready.plugin.jira.settings.ServerProfiles;
 
 import javax.swing.JCheckBox;
 import javax.swing.JPasswordField;
+import javax.swing.JTextArea;
 import javax.swing.JTextField;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
@@ -29,6 +31,8 @@ public class JiraPrefsFactory implements Prefs {
     public static final String JIRA_PREFS_TITLE = "JIRA";
     public static final String SKIP_RELEASED_VERSIONS = "Hide released versions:";
     public static final String SKIP_RELEASED_VERSIONS_DESCRIPTION = "Do not show released versions for \"Fixed Version/s\" field";
+    public static final String SERVER_PROFILES = "Other JIRA servers:";
+    public static final String SERVER_PROFILES_DESCRIPTION = "One server per line: name | URL | username | password. Select the server of a project in its JIRA Server menu item";
 
     private SimpleForm form;
 
@@ -106,6 +110,8 @@ public class JiraPrefsFactory implements Prefs {
             bugTrackerUrl.getDocument().addDocumentListener(new BugTrackerSettingsChangeListener());
             bugTrackerUrl.addFocusListener(new BugTrackerUrlFieldFocusListener());
             JCheckBox skipReleasedVersions = form.appendCheckBox(SKIP_RELEASED_VERSIONS, SKIP_RELEASED_VERSIONS_DESCRIPTION, false);
+            JTextArea serverProfiles = form.appendTextArea(SERVER_PROFILES, SERVER_PROFILES_DESCRIPTION);
+            serverProfiles.getDocument().addDocumentListener(new BugTrackerSettingsChangeListener());
         }
 
         return form;
@@ -133,6 +139,13 @@ public class JiraPrefsFactory implements Prefs {
             settings.setString(BugTrackerPrefs.DEFAULT_URL, values.get(BUG_TRACKER_URL));
         }
         settings.setBoolean(BugTrackerPrefs.SKIP_VERSIONS, new Boolean(values.get(SKIP_RELEASED_VERSIONS)));
+        if (values.get(SERVER_PROFILES) != null) {
+            settings.setString(BugTrackerPrefs.SERVER_PROFILES, ServerProfiles.format(ServerProfiles.restorePasswords(
+                    ServerProfiles.parse(values.get(SERVER_PROFILES)),
+                    ServerProfiles.parse(settings.getString(BugTrackerPrefs.SERVER_PROFILES, ""))), false));
+        }
+        //the fields are edited before the values are stored, only now the changed servers are known
+        JiraProvider.freeProvider();
     }
 
     @Override
@@ -142,6 +155,8 @@ public class JiraPrefsFactory implements Prefs {
         values.put(BUG_TRACKER_PASSWORD, settings.getString(BugTrackerPrefs.PASSWORD, ""));
         values.put(BUG_TRACKER_URL, settings.getString(BugTrackerPrefs.DEFAULT_URL, BUG_TRACKER_URL_IN_FIELD_DESCRIPTION));
         values.put(SKIP_RELEASED_VERSIONS, settings.getBoolean(BugTrackerPrefs.SKIP_VERSIONS, false));
+        values.put(SERVER_PROFILES, ServerProfiles.format(ServerProfiles.parse(
+                settings.getString(BugTrackerPrefs.SERVER_PROFILES, "")), true));
         return values;
     }
 
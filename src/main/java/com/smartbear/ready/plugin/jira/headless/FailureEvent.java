@@ -0,0 +1,157 @@
+package com.smartbear.ready.plugin.jira.headless;
+
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A failed test case run, as reported by the test runner. Only plain values are kept, so the event does not
+ * hold the test case or its run context once the runner has moved on.
+ */
+public class FailureEvent {
+    public static final int MAX_COALESCED_STEPS = 20;
+
+    private final String projectName;
+    private final String testSuiteName;
+    private final String testCaseName;
+    private final String reason;
+    private final List<String> failedSteps;
+    private final List<String> failedAssertions;
+    private final long timestamp;
+    private final long timeTaken;
+    private final int occurrences;
+
+    public FailureEvent(String projectName, String testSuiteName, String testCaseName, String reason,
+                        List<String> failedSteps, List<String> failedAssertions, long timestamp, long timeTaken) {
+        this(projectName, testSuiteName, testCaseName, reason, failedSteps, failedAssertions, timestamp, timeTaken, 1);
+    }
+
+    private FailureEvent(String projectName, String testSuiteName, String testCaseName, String reason,
+                         List<String> failedSteps, List<String> failedAssertions, long timestamp, long timeTaken,
+                         int occurrences) {
+        this.projectName = projectName;
+        this.testSuiteName = testSuiteName;
+        this.testCaseName = testCaseName;
+        this.reason = reason;
+        this.failedSteps = Collections.unmodifiableList(new ArrayList<>(failedSteps));
+        this.failedAssertions = Collections.unmodifiableList(new ArrayList<>(failedAssertions));
+        this.timestamp = timestamp;
+        this.timeTaken = timeTaken;
+        this.occurrences = occurrences;
+    }
+
+    public String getProjectName() {
+        return projectName;
+    }
+
+    public String getTestSuiteName() {
+        return testSuiteName;
+    }
+
+    public String getTestCaseName() {
+        return testCaseName;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Returns "step name: messages" for every failed step.
+     */
+    public List<String> getFailedSteps() {
+        return failedSteps;
+    }
+
+    /**
+     * Returns "step name/assertion name" for every failed assertion.
+     */
+    public List<String> getFailedAssertions() {
+        return failedAssertions;
+    }
+
+    /**
+     * Time of the last failure.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Run time of the test case in milliseconds, of the last failure.
+     */
+    public long getTimeTaken() {
+        return timeTaken;
+    }
+
+    /**
+     * How many failures of the test case this event stands for.
+     */
+    public int getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     * Identifies the test case, one item is filed per test case and run.
+     */
+    public String getTestCaseId() {
+        return projectName + "/" + testSuiteName + "/" + testCaseName;
+    }
+
+    /**
+     * Merges a later failure of the same test case into this one: the latest reason and timing are kept, the
+     * failed steps of both are kept (up to {@link #MAX_COALESCED_STEPS}).
+     */
+    public FailureEvent coalesce(FailureEvent later) {
+        return new FailureEvent(projectName, testSuiteName, testCaseName, later.reason,
+                merge(failedSteps, later.failedSteps), merge(failedAssertions, later.failedAssertions),
+                later.timestamp, later.timeTaken, occurrences + later.occurrences);
+    }
+
+    private static List<String> merge(List<String> first, List<String> second) {
+        Set<String> merged = new LinkedHashSet<>(first);
+        for (String value : second) {
+            if (merged.size() >= MAX_COALESCED_STEPS) {
+                break;
+            }
+            merged.add(value);
+        }
+        return new ArrayList<>(merged);
+    }
+
+    String toJson() throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("project", projectName);
+        json.put("testSuite", testSuiteName);
+        json.put("testCase", testCaseName);
+        json.put("reason", reason == null ? "" : reason);
+        json.put("failedSteps", new JSONArray(failedSteps));
+        json.put("failedAssertions", new JSONArray(failedAssertions));
+        json.put("timestamp", timestamp);
+        json.put("timeTaken", timeTaken);
+        json.put("occurrences", occurrences);
+        return json.toString();
+    }
+
+    static FailureEvent fromJson(String line) throws JSONException {
+        JSONObject json = new JSONObject(line);
+        return new FailureEvent(json.getString("project"), json.getString("testSuite"), json.getString("testCase"),
+                json.getString("reason"), toList(json.getJSONArray("failedSteps")),
+                toList(json.getJSONArray("failedAssertions")), json.getLong("timestamp"), json.getLong("timeTaken"),
+                json.getInt("occurrences"));
+    }
+
+    private static List<String> toList(JSONArray array) throws JSONException {
+        List<String> values = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            values.add(array.getString(i));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,189 @@
+package com.smartbear.ready.plugin.jira.headless;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded multi-producer, single-consumer queue of failure events. {@link #offer(FailureEvent)} never blocks the
+ * test runner thread: the capacity is enforced with an atomic counter in front of a lock-free queue, and when
+ * the queue is full the event is either dropped or appended to a spill file (JSON, one event per line), which
+ * the consumer reads back once it has caught up with the in-memory events.
+ */
+public class FailureEventQueue {
+    private static final Logger logger = LoggerFactory.getLogger(FailureEventQueue.class);
+
+    public enum OverflowPolicy {
+        DROP, SPILL
+    }
+
+    private final ConcurrentLinkedQueue<FailureEvent> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final File spillFile;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong spilledEvents = new AtomicLong();
+    private volatile Thread consumer;
+
+    //spilled events are written by the producers, under the lock, and read back by the consumer only
+    private final Object spillLock = new Object();
+    private Writer spillWriter;
+    private boolean hasSpilledEvents = false;
+    private final Deque<FailureEvent> spilledBacklog = new ArrayDeque<>();
+
+    public FailureEventQueue(int capacity, OverflowPolicy overflowPolicy, File spillFile) {
+        this.capacity = capacity;
+        this.overflowPolicy = spillFile == null ? OverflowPolicy.DROP : overflowPolicy;
+        this.spillFile = spillFile;
+    }
+
+    /**
+     * Adds the event without waiting. Returns false if the event has been dropped.
+     */
+    public boolean offer(FailureEvent event) {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return overflow(event);
+        }
+        events.offer(event);
+        Thread waitingConsumer = consumer;
+        if (waitingConsumer != null) {
+            LockSupport.unpark(waitingConsumer);
+        }
+        return true;
+    }
+
+    private boolean overflow(FailureEvent event) {
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            try {
+                String line = event.toJson();
+                synchronized (spillLock) {
+                    if (spillWriter == null) {
+                        spillWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spillFile, true),
+                                StandardCharsets.UTF_8));
+                    }
+                    spillWriter.write(line);
+                    spillWriter.write('\n');
+                    hasSpilledEvents = true;
+                }
+                spilledEvents.incrementAndGet();
+                return true;
+            } catch (Exception e) {
+                logger.warn("Unable to spill a failure event to " + spillFile + ": " + e.getMessage());
+            }
+        }
+        droppedEvents.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Takes up to maxEvents events, waiting up to the timeout for the first one. Must be called from the
+     * consumer thread only.
+     */
+    public int take(List<FailureEvent> batch, int maxEvents, long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        consumer = Thread.currentThread();
+        try {
+            while (true) {
+                int taken = drainTo(batch, maxEvents);
+                long remaining = deadline - System.nanoTime();
+                if (taken > 0 || remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                    return taken;
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            consumer = null;
+        }
+    }
+
+    private int drainTo(List<FailureEvent> batch, int maxEvents) {
+        int taken = 0;
+        while (taken < maxEvents) {
+            FailureEvent event = spilledBacklog.pollFirst();
+            if (event == null) {
+                event = events.poll();
+                if (event != null) {
+                    size.decrementAndGet();
+                } else if (taken == 0 && loadSpilledEvents()) {
+                    continue;
+                } else {
+                    break;
+                }
+            }
+            batch.add(event);
+            taken++;
+        }
+        return taken;
+    }
+
+    /**
+     * Moves the spilled events to the backlog once the in-memory queue is empty. The file is renamed under the
+     * lock and read outside of it, so producers spilling meanwhile only wait for the rename.
+     */
+    private boolean loadSpilledEvents() {
+        File loadingFile = new File(spillFile.getPath() + ".loading");
+        synchronized (spillLock) {
+            if (!hasSpilledEvents) {
+                return false;
+            }
+            hasSpilledEvents = false;
+            try {
+                spillWriter.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close " + spillFile + ": " + e.getMessage());
+            }
+            spillWriter = null;
+            if (!spillFile.renameTo(loadingFile)) {
+                logger.warn("Unable to read the spilled failure events from " + spillFile);
+                return false;
+            }
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(loadingFile),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    spilledBacklog.add(FailureEvent.fromJson(line));
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Unable to read the spilled failure events from " + loadingFile + ": " + e.getMessage());
+        }
+        if (!loadingFile.delete()) {
+            logger.warn("Unable to delete " + loadingFile);
+        }
+        return !spilledBacklog.isEmpty();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long getDroppedEvents() {
+        return droppedEvents.get();
+    }
+
+    public long getSpilledEvents() {
+        return spilledEvents.get();
+    }
+}
@@ -0,0 +1,287 @@
+package com.smartbear.ready.plugin.jira.headless;
+
+import com.eviware.soapui.support.StringUtils;
+import com.smartbear.ready.plugin.jira.dedup.FingerprintIndex;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+import com.smartbear.ready.plugin.jira.settings.BugTrackerSettings;
+import com.smartbear.ready.plugin.jira.settings.ServerProfiles;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Settings of the command-line filing mode, read from the properties file given by the
+ * {@value #CONFIG_FILE_PROPERTY} system property, for instance:
+ * <pre>
+ * project=QA
+ * issueType=Bug
+ * summary=${testSuite} / ${testCase} failed
+ * field.priority=High
+ * field.labels=nightly
+ * requestsPerSecond=2
+ * overflowPolicy=spill
+ * repeatAction=comment
+ * </pre>
+ * The {@code summary}, {@code description} and {@code field.*} values can use the ${project}, ${testSuite},
+ * ${testCase}, ${reason} and ${failedSteps} placeholders. The JIRA connection is taken from the ReadyAPI settings
+ * unless {@code jira.url}, {@code jira.login} and {@code jira.password} are given, or {@code jira.profile} names
+ * one of the server profiles of the JIRA preferences.
+ * <p>
+ * A failure which already has an item in the {@code fingerprintIndexFile} is not filed again: a comment is added to
+ * the item and a resolved item is reopened with the {@code reopenTransition} ({@code repeatAction=comment}), or
+ * only the occurrence counter of the index is increased ({@code repeatAction=count}). The same is done for a failure at least {@code similarityThreshold} (0 to 1)
+ * similar to one of the recently updated items of the project; a threshold above 1 turns this check off.
+ */
+public class HeadlessFilingConfig {
+    public static final String CONFIG_FILE_PROPERTY = "jira.headless.config";
+    public static final String FIELD_PREFIX = "field.";
+    public static final String DEFAULT_SUMMARY = "${testSuite} / ${testCase} failed";
+    public static final String DEFAULT_DESCRIPTION = "Test case ${testCase} of the ${testSuite} test suite in the ${project} project failed.\n\n${reason}\n\n${failedSteps}";
+    public static final int DEFAULT_BATCH_SIZE = 20;
+    public static final double DEFAULT_REQUESTS_PER_SECOND = 2;
+    public static final int DEFAULT_MAX_ISSUES = 100;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    public static final long DEFAULT_SHUTDOWN_TIMEOUT_SECONDS = 60;
+    public static final String SPILL_FILE_PREFIX = "ready-jira-failures-";
+    public static final double DEFAULT_SIMILARITY_THRESHOLD = 0.8;
+    public static final String DEFAULT_REOPEN_TRANSITION = "Reopen Issue";
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 4;
+
+    public enum RepeatAction {
+        COMMENT, COUNT
+    }
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{(\\w+)\\}");
+
+    private final String projectKey;
+    private final String issueType;
+    private final String summary;
+    private final String description;
+    private final Map<String, String> fieldValues;
+    private final BugTrackerSettings bugTrackerSettings;
+    private final int batchSize;
+    private final double requestsPerSecond;
+    private final int maxIssues;
+    private final int queueCapacity;
+    private final long shutdownTimeoutSeconds;
+    private final FailureEventQueue.OverflowPolicy overflowPolicy;
+    private final File spillFile;
+    private final RepeatAction repeatAction;
+    private final File fingerprintIndexFile;
+    private final double similarityThreshold;
+    private final String reopenTransition;
+    private final int maxConcurrentRequests;
+
+    HeadlessFilingConfig(Properties properties) {
+        projectKey = required(properties, "project");
+        issueType = required(properties, "issueType");
+        summary = properties.getProperty("summary", DEFAULT_SUMMARY);
+        description = properties.getProperty("description", DEFAULT_DESCRIPTION);
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(FIELD_PREFIX) && name.length() > FIELD_PREFIX.length()) {
+                fields.put(name.substring(FIELD_PREFIX.length()), properties.getProperty(name));
+            }
+        }
+        fieldValues = Collections.unmodifiableMap(fields);
+        String url = properties.getProperty("jira.url");
+        String profileName = properties.getProperty("jira.profile");
+        if (StringUtils.isNullOrEmpty(url) && !StringUtils.isNullOrEmpty(profileName)) {
+            bugTrackerSettings = ServerProfiles.getSettings(profileName.trim());
+            if (bugTrackerSettings == null) {
+                throw new IllegalArgumentException("Unknown JIRA server profile: " + profileName);
+            }
+        } else if (StringUtils.isNullOrEmpty(url)) {
+            bugTrackerSettings = JiraProvider.readBugTrackerSettings();
+        } else {
+            bugTrackerSettings = new BugTrackerSettings(url, properties.getProperty("jira.login", ""),
+                    properties.getProperty("jira.password", ""), false);
+        }
+        batchSize = Integer.parseInt(properties.getProperty("batchSize", String.valueOf(DEFAULT_BATCH_SIZE)).trim());
+        requestsPerSecond = Double.parseDouble(properties.getProperty("requestsPerSecond",
+                String.valueOf(DEFAULT_REQUESTS_PER_SECOND)).trim());
+        maxIssues = Integer.parseInt(properties.getProperty("maxIssues", String.valueOf(DEFAULT_MAX_ISSUES)).trim());
+        queueCapacity = Integer.parseInt(properties.getProperty("queueCapacity", String.valueOf(DEFAULT_QUEUE_CAPACITY)).trim());
+        shutdownTimeoutSeconds = Long.parseLong(properties.getProperty("shutdownTimeoutSeconds",
+                String.valueOf(DEFAULT_SHUTDOWN_TIMEOUT_SECONDS)).trim());
+        overflowPolicy = FailureEventQueue.OverflowPolicy.valueOf(properties.getProperty("overflowPolicy",
+                FailureEventQueue.OverflowPolicy.SPILL.name()).trim().toUpperCase(Locale.ROOT));
+        File spillDirectory = new File(properties.getProperty("spillDirectory", System.getProperty("java.io.tmpdir")));
+        spillFile = new File(spillDirectory, SPILL_FILE_PREFIX + System.currentTimeMillis() + ".jsonl");
+        repeatAction = RepeatAction.valueOf(properties.getProperty("repeatAction",
+                RepeatAction.COMMENT.name()).trim().toUpperCase(Locale.ROOT));
+        String indexFile = properties.getProperty("fingerprintIndexFile");
+        fingerprintIndexFile = StringUtils.isNullOrEmpty(indexFile) ? FingerprintIndex.getDefaultFile() :
+                new File(indexFile.trim());
+        similarityThreshold = Double.parseDouble(properties.getProperty("similarityThreshold",
+                String.valueOf(DEFAULT_SIMILARITY_THRESHOLD)).trim());
+        reopenTransition = properties.getProperty("reopenTransition", DEFAULT_REOPEN_TRANSITION).trim();
+        maxConcurrentRequests = Integer.parseInt(properties.getProperty("maxConcurrentRequests",
+                String.valueOf(DEFAULT_MAX_CONCURRENT_REQUESTS)).trim());
+    }
+
+    public static boolean isConfigured() {
+        return !StringUtils.isNullOrEmpty(System.getProperty(CONFIG_FILE_PROPERTY));
+    }
+
+    /**
+     * Reads the file given by the {@value #CONFIG_FILE_PROPERTY} system property.
+     *
+     * @throws IOException              if the file cannot be read
+     * @throws IllegalArgumentException if a required setting is missing or a number is malformed
+     */
+    public static HeadlessFilingConfig load() throws IOException {
+        File file = new File(System.getProperty(CONFIG_FILE_PROPERTY));
+        Properties properties = new Properties();
+        try (InputStream input = new FileInputStream(file)) {
+            properties.load(input);
+        }
+        return new HeadlessFilingConfig(properties);
+    }
+
+    private static String required(Properties properties, String name) {
+        String value = properties.getProperty(name);
+        if (StringUtils.isNullOrEmpty(value)) {
+            throw new IllegalArgumentException("The \"" + name + "\" setting is missing in the JIRA filing configuration");
+        }
+        return value.trim();
+    }
+
+    /**
+     * Replaces the placeholders of the template with the values of the event; unknown placeholders are kept.
+     */
+    public static String expand(String template, FailureEvent event) {
+        Matcher matcher = PLACEHOLDER.matcher(template);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            String value = getPlaceholderValue(matcher.group(1), event);
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value == null ? matcher.group() : value));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String getPlaceholderValue(String name, FailureEvent event) {
+        switch (name) {
+            case "project":
+                return event.getProjectName();
+            case "testSuite":
+                return event.getTestSuiteName();
+            case "testCase":
+                return event.getTestCaseName();
+            case "reason":
+                return event.getReason() == null ? "" : event.getReason();
+            case "failedSteps":
+                StringBuilder steps = new StringBuilder();
+                for (String step : event.getFailedSteps()) {
+                    if (steps.length() > 0) {
+                        steps.append('\n');
+                    }
+                    steps.append(step);
+                }
+                return steps.toString();
+            default:
+                return null;
+        }
+    }
+
+    public String getProjectKey() {
+        return projectKey;
+    }
+
+    public String getIssueType() {
+        return issueType;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Field id to value template.
+     */
+    public Map<String, String> getFieldValues() {
+        return fieldValues;
+    }
+
+    public BugTrackerSettings getBugTrackerSettings() {
+        return bugTrackerSettings;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public int getMaxIssues() {
+        return maxIssues;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getShutdownTimeoutSeconds() {
+        return shutdownTimeoutSeconds;
+    }
+
+    /**
+     * What happens to failures reported while the queue is full: dropped or written to {@link #getSpillFile()}.
+     */
+    public FailureEventQueue.OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public File getSpillFile() {
+        return spillFile;
+    }
+
+    /**
+     * What is done when a failure already has an item.
+     */
+    public RepeatAction getRepeatAction() {
+        return repeatAction;
+    }
+
+    public File getFingerprintIndexFile() {
+        return fingerprintIndexFile;
+    }
+
+    /**
+     * Minimal similarity of a failure and an existing item to treat the failure as a repeated one, above 1 if the
+     * check is off.
+     */
+    public double getSimilarityThreshold() {
+        return similarityThreshold;
+    }
+
+    /**
+     * Name of the workflow transition used to reopen a resolved item which failed again.
+     */
+    public String getReopenTransition() {
+        return reopenTransition;
+    }
+
+    /**
+     * How many updates of repeated failures can be in flight at the same time.
+     */
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+}
@@ -0,0 +1,378 @@
+package com.smartbear.ready.plugin.jira.headless;
+
+import com.atlassian.jira.rest.client.api.domain.CimFieldInfo;
+import com.smartbear.ready.plugin.jira.dedup.FailureFingerprint;
+import com.smartbear.ready.plugin.jira.dedup.FingerprintIndex;
+import com.smartbear.ready.plugin.jira.dedup.SimilarIssue;
+import com.smartbear.ready.plugin.jira.dialog.FieldValueValidator;
+import com.smartbear.ready.plugin.jira.impl.IssueCreationResult;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+import com.smartbear.ready.plugin.jira.trace.FlowTracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Files JIRA items for failed test cases without any UI. Test runner threads only put the failures into a
+ * {@link FailureEventQueue}, which never blocks them; a single background thread takes them in batches,
+ * coalesces the same failures and creates the items through a {@link JiraProvider} of its own, at most
+ * {@link HeadlessFilingConfig#getRequestsPerSecond()} requests per second. The metadata of the configured project
+ * is read once and reused for all the items, and the configured field values are checked against it before they
+ * are sent.
+ * <p>
+ * Failures are told apart by their {@link FailureFingerprint}. A failure found in the {@link FingerprintIndex} is
+ * not filed again, the item of the previous run is commented on (and reopened if it is resolved, see
+ * {@link RepeatedFailureProcessor}) or only counted instead. So is a failure similar
+ * enough to one of the recent items of the project, see {@link JiraProvider#findSimilarIssues}.
+ * <p>
+ * The queue is drained when the JVM shuts down, for up to {@link HeadlessFilingConfig#getShutdownTimeoutSeconds()}.
+ */
+public class HeadlessIssueFiler {
+    private static final Logger logger = LoggerFactory.getLogger(HeadlessIssueFiler.class);
+    private static final long IDLE_WAIT_SECONDS = 1;
+    private static final long FLUSH_POLL_INTERVAL_MS = 50;
+
+    private static HeadlessIssueFiler instance;
+    private static boolean initialized = false;
+
+    private final HeadlessFilingConfig config;
+    private final JiraProvider provider;
+    private final RateLimiter rateLimiter;
+    private final FailureEventQueue queue;
+    private final FingerprintIndex fingerprintIndex;
+    private final RepeatedFailureProcessor repeatedFailureProcessor;
+    //queued or spilled events which have not been processed yet
+    private final AtomicInteger pendingEvents = new AtomicInteger();
+    //used by the consumer thread only, the fingerprints handled in this run
+    private final Set<String> handledFingerprints = new HashSet<>();
+    private int filedIssues = 0;
+    private Map<String, CimFieldInfo> fields;
+    private Map<String, FieldValueValidator> validators;
+
+    HeadlessIssueFiler(HeadlessFilingConfig config, JiraProvider provider, FingerprintIndex fingerprintIndex) {
+        this.config = config;
+        this.provider = provider;
+        this.fingerprintIndex = fingerprintIndex;
+        this.rateLimiter = new RateLimiter(config.getRequestsPerSecond());
+        this.queue = new FailureEventQueue(config.getQueueCapacity(), config.getOverflowPolicy(), config.getSpillFile());
+        this.repeatedFailureProcessor = new RepeatedFailureProcessor(provider, rateLimiter,
+                config.getMaxConcurrentRequests(), config.getReopenTransition());
+    }
+
+    /**
+     * Returns the filer of the command-line run, or null if filing is not configured or the configuration is
+     * invalid (the reason is logged once).
+     */
+    public static synchronized HeadlessIssueFiler getInstance() {
+        if (!initialized) {
+            initialized = true;
+            instance = create();
+        }
+        return instance;
+    }
+
+    private static HeadlessIssueFiler create() {
+        if (!HeadlessFilingConfig.isConfigured()) {
+            return null;
+        }
+        HeadlessFilingConfig config;
+        try {
+            config = HeadlessFilingConfig.load();
+        } catch (Exception e) {
+            logger.error("Unable to read the JIRA filing configuration: " + e.getMessage());
+            return null;
+        }
+        JiraProvider provider = JiraProvider.createHeadlessProvider(config.getBugTrackerSettings());
+        if (provider == null) {
+            return null;
+        }
+        FingerprintIndex fingerprintIndex = null;
+        try {
+            fingerprintIndex = FingerprintIndex.open(config.getFingerprintIndexFile());
+        } catch (IOException e) {
+            logger.warn("Unable to read " + config.getFingerprintIndexFile().getPath() +
+                    ", repeated failures are not recognized across runs: " + e.getMessage());
+        }
+        final HeadlessIssueFiler filer = new HeadlessIssueFiler(config, provider, fingerprintIndex);
+        filer.start();
+        return filer;
+    }
+
+    void start() {
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                processQueue();
+            }
+        }, "JIRA issue filer");
+        worker.setDaemon(true);
+        worker.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                if (!flush(config.getShutdownTimeoutSeconds(), TimeUnit.SECONDS)) {
+                    logger.warn("Not all failed test cases have been filed to JIRA before the shutdown");
+                }
+                if (queue.getDroppedEvents() > 0) {
+                    logger.warn(queue.getDroppedEvents() + " failed test cases have not been filed to JIRA, the queue was full");
+                }
+                if (fingerprintIndex != null) {
+                    try {
+                        fingerprintIndex.close();
+                    } catch (IOException e) {
+                        logger.warn("Unable to close " + config.getFingerprintIndexFile().getPath() + ": " + e.getMessage());
+                    }
+                }
+            }
+        }, "JIRA issue filer shutdown"));
+    }
+
+    /**
+     * Queues the failure without blocking the caller. Returns false if the failure has been dropped because the
+     * queue is full.
+     */
+    public boolean submit(FailureEvent event) {
+        pendingEvents.incrementAndGet();
+        if (!queue.offer(event)) {
+            pendingEvents.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Waits until all the queued failures have been processed.
+     *
+     * @return false if the timeout has elapsed first
+     */
+    public boolean flush(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (pendingEvents.get() > 0) {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            try {
+                Thread.sleep(FLUSH_POLL_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void processQueue() {
+        List<FailureEvent> batch = new ArrayList<>(config.getBatchSize());
+        while (!Thread.currentThread().isInterrupted()) {
+            int taken = queue.take(batch, config.getBatchSize(), IDLE_WAIT_SECONDS, TimeUnit.SECONDS);
+            if (taken == 0) {
+                continue;
+            }
+            long flowId = FlowTracer.getInstance().beginFlow("fileBatch");
+            try {
+                fileBatch(coalesce(batch));
+            } catch (InterruptedException e) {
+                return;
+            } catch (Exception e) {
+                logger.error("Unable to file failed test cases to JIRA: " + e.getMessage());
+            } finally {
+                FlowTracer.getInstance().endFlow(flowId);
+                pendingEvents.addAndGet(-taken);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Merges the failures with the same fingerprint, a test case failing in a loop results in a single request.
+     *
+     * @return the coalesced failures by their fingerprints
+     */
+    static Map<String, FailureEvent> coalesce(List<FailureEvent> batch) {
+        Map<String, FailureEvent> coalesced = new LinkedHashMap<>();
+        for (FailureEvent event : batch) {
+            String fingerprint = FailureFingerprint.compute(event);
+            FailureEvent previous = coalesced.get(fingerprint);
+            coalesced.put(fingerprint, previous == null ? event : previous.coalesce(event));
+        }
+        return coalesced;
+    }
+
+    private void fileBatch(Map<String, FailureEvent> batch) throws InterruptedException, IOException {
+        if (!loadMetadata()) {
+            return;
+        }
+        List<RepeatedFailureProcessor.RepeatedFailure> repeatedFailures = new ArrayList<>();
+        for (Map.Entry<String, FailureEvent> failure : batch.entrySet()) {
+            //a failure which cannot be filed must not drop the rest of the batch
+            try {
+                fileFailure(failure.getKey(), failure.getValue(), repeatedFailures);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                logger.error("Unable to file " + failure.getValue().getTestCaseId() + " to JIRA: " + e.getMessage());
+            }
+        }
+        if (!repeatedFailures.isEmpty()) {
+            handleRepeatedFailures(repeatedFailures);
+        }
+    }
+
+    /**
+     * Files the failure, or adds it to the repeated failures if it already has an item. The fingerprint is
+     * marked as handled only once the failure has an item or has been rejected, so a failed creation is retried
+     * when the failure occurs again.
+     */
+    private void fileFailure(String fingerprint, FailureEvent event,
+                             List<RepeatedFailureProcessor.RepeatedFailure> repeatedFailures) throws InterruptedException, IOException {
+        FingerprintIndex.Entry known = fingerprintIndex == null ? null :
+                fingerprintIndex.recordOccurrences(fingerprint, event.getOccurrences(), event.getTimestamp());
+        if (handledFingerprints.contains(fingerprint)) {
+            //already filed, commented on or rejected in this run
+            return;
+        }
+        if (known != null) {
+            handledFingerprints.add(fingerprint);
+            repeatedFailures.add(new RepeatedFailureProcessor.RepeatedFailure(known.getIssueKey(),
+                    known.getOccurrences(), event));
+            return;
+        }
+        String summary = HeadlessFilingConfig.expand(config.getSummary(), event);
+        String description = fields.containsKey("description") ?
+                HeadlessFilingConfig.expand(config.getDescription(), event) : null;
+        SimilarIssue duplicate = findDuplicate(summary, description == null ? event.getReason() : description);
+        if (duplicate != null) {
+            logger.info(event.getTestCaseId() + " looks like a duplicate of " + duplicate);
+            if (fingerprintIndex != null) {
+                fingerprintIndex.put(fingerprint, duplicate.getIssueKey(), event.getOccurrences(), event.getTimestamp());
+            }
+            handledFingerprints.add(fingerprint);
+            repeatedFailures.add(new RepeatedFailureProcessor.RepeatedFailure(duplicate.getIssueKey(),
+                    event.getOccurrences(), event));
+            return;
+        }
+        if (filedIssues >= config.getMaxIssues()) {
+            logger.warn("The maximum number of JIRA items per run is reached, " + event.getTestCaseId() + " is not filed");
+            return;
+        }
+        Map<String, String> extraValues = getFieldValues(event);
+        if (extraValues == null) {
+            handledFingerprints.add(fingerprint);
+            return;
+        }
+        rateLimiter.acquire();
+        IssueCreationResult result = provider.createIssue(config.getProjectKey(), config.getIssueType(), summary,
+                description, extraValues);
+        if (!result.getSuccess()) {
+            logger.error("Unable to file " + event.getTestCaseId() + " to JIRA: " + result.getError());
+            return;
+        }
+        filedIssues++;
+        handledFingerprints.add(fingerprint);
+        logger.info("Filed " + result.getIssue().getKey() + " for " + event.getTestCaseId());
+        if (fingerprintIndex != null) {
+            fingerprintIndex.put(fingerprint, result.getIssue().getKey(), event.getOccurrences(),
+                    event.getTimestamp());
+        }
+    }
+
+    /**
+     * Returns the most similar recent issue of the project if it is at least
+     * {@link HeadlessFilingConfig#getSimilarityThreshold()} similar, no request is sent.
+     */
+    private SimilarIssue findDuplicate(String summary, String details) {
+        if (config.getSimilarityThreshold() > 1) {
+            return null;
+        }
+        List<SimilarIssue> similarIssues = provider.findSimilarIssues(config.getProjectKey(), summary, details,
+                config.getSimilarityThreshold());
+        return similarIssues.isEmpty() ? null : similarIssues.get(0);
+    }
+
+    private void handleRepeatedFailures(List<RepeatedFailureProcessor.RepeatedFailure> failures)
+            throws InterruptedException, IOException {
+        if (config.getRepeatAction() == HeadlessFilingConfig.RepeatAction.COUNT) {
+            for (RepeatedFailureProcessor.RepeatedFailure failure : failures) {
+                logger.info(failure.event.getTestCaseId() + " failed again, " + failure.issueKey + " has " +
+                        failure.totalOccurrences + " occurrences");
+            }
+            return;
+        }
+        Map<String, String> statuses = repeatedFailureProcessor.process(failures);
+        if (fingerprintIndex != null) {
+            for (Map.Entry<String, String> status : statuses.entrySet()) {
+                fingerprintIndex.updateStatus(status.getKey(),
+                        status.getValue() == null ? FingerprintIndex.UNKNOWN_STATUS : status.getValue());
+            }
+        }
+    }
+
+    /**
+     * Reads the create metadata of the configured item type once, the same cache as in the IDE is used.
+     */
+    private boolean loadMetadata() throws InterruptedException {
+        if (fields != null) {
+            return true;
+        }
+        rateLimiter.acquire();
+        Map<String, Map<String, Map<String, CimFieldInfo>>> allFields = provider.getProjectFields(config.getProjectKey());
+        Map<String, Map<String, CimFieldInfo>> issueTypes = allFields == null ? null : allFields.get(config.getProjectKey());
+        if (issueTypes == null || issueTypes.get(config.getIssueType()) == null) {
+            logger.error("Unable to read the fields of the " + config.getIssueType() + " item type of the " +
+                    config.getProjectKey() + " JIRA project");
+            return false;
+        }
+        fields = issueTypes.get(config.getIssueType());
+        if (config.getSimilarityThreshold() <= 1) {
+            rateLimiter.acquire();
+            provider.syncRecentIssues(config.getProjectKey());
+        }
+        validators = new HashMap<>();
+        for (String fieldId : config.getFieldValues().keySet()) {
+            CimFieldInfo fieldInfo = fields.get(fieldId);
+            if (fieldInfo == null) {
+                logger.warn("The " + fieldId + " field is not on the create screen of " + config.getIssueType() +
+                        " items, its value is ignored");
+                continue;
+            }
+            Object[] options = fieldInfo.getAllowedValues() == null ? null :
+                    provider.getAllowedValueNames(fieldInfo.getAllowedValues(), false);
+            FieldValueValidator validator = FieldValueValidator.compile(fieldInfo, options);
+            if (validator != null) {
+                validators.put(fieldId, validator);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns null if a value is rejected by the field schema, so the item is not sent at all.
+     */
+    private Map<String, String> getFieldValues(FailureEvent event) {
+        Map<String, String> values = new HashMap<>();
+        for (Map.Entry<String, String> field : config.getFieldValues().entrySet()) {
+            if (!fields.containsKey(field.getKey())) {
+                continue;
+            }
+            String value = HeadlessFilingConfig.expand(field.getValue(), event);
+            FieldValueValidator validator = validators.get(field.getKey());
+            String error = validator == null ? null : validator.validateValue(value);
+            if (error != null) {
+                logger.error("Unable to file " + event.getTestCaseId() + " to JIRA: " + error);
+                return null;
+            }
+            values.put(field.getKey(), value);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,32 @@
+package com.smartbear.ready.plugin.jira.headless;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out requests to JIRA evenly, at most the given number of permits per second. Callers block in
+ * {@link #acquire()} until their turn comes.
+ */
+public class RateLimiter {
+    private final long intervalNanos;
+    private long nextFreeNanos;
+
+    public RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        nextFreeNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            waitNanos = nextFreeNanos - now;
+            nextFreeNanos = Math.max(now, nextFreeNanos) + intervalNanos;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.smartbear.ready.plugin.jira.headless;
+
+import com.atlassian.jira.rest.client.api.domain.Transition;
+import com.atlassian.util.concurrent.Promise;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.smartbear.ready.plugin.jira.clients.AsynchronousIssueSearchRestClient;
+import com.smartbear.ready.plugin.jira.clients.IssueDigest;
+import com.smartbear.ready.plugin.jira.impl.JiraApiCallResult;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Updates the items of the failures which happened again, in one pass per batch: a comment with the new run
+ * details is added to every item, and the resolved ones are reopened in the same request.
+ * <p>
+ * The state of the items is read with one search per {@link AsynchronousIssueSearchRestClient#DEFAULT_PAGE_SIZE}
+ * items. The reopen transition depends on the workflow, that is on the project, the item type and the current
+ * status, so it is looked up once per such combination and cached. The updates are sent without waiting for each
+ * other, at most {@link HeadlessFilingConfig#getMaxConcurrentRequests()} at a time.
+ */
+public class RepeatedFailureProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(RepeatedFailureProcessor.class);
+    private static final int NO_TRANSITION = -1;
+
+    static class RepeatedFailure {
+        final String issueKey;
+        final int totalOccurrences;
+        final FailureEvent event;
+
+        RepeatedFailure(String issueKey, int totalOccurrences, FailureEvent event) {
+            this.issueKey = issueKey;
+            this.totalOccurrences = totalOccurrences;
+            this.event = event;
+        }
+    }
+
+    private final JiraProvider provider;
+    private final RateLimiter rateLimiter;
+    private final Semaphore permits;
+    private final String reopenTransitionName;
+    //"project/item type/status" to the id of the reopen transition; used by the consumer thread only
+    private final Map<String, Integer> reopenTransitions = new HashMap<>();
+
+    RepeatedFailureProcessor(JiraProvider provider, RateLimiter rateLimiter, int maxConcurrentRequests,
+                             String reopenTransitionName) {
+        this.provider = provider;
+        this.rateLimiter = rateLimiter;
+        this.permits = new Semaphore(maxConcurrentRequests);
+        this.reopenTransitionName = reopenTransitionName;
+    }
+
+    /**
+     * Comments on the items of the failures and reopens the resolved ones, returns when all the requests have
+     * completed.
+     *
+     * @return the keys of the items and their status after the update, {@code null} if it is unknown
+     */
+    Map<String, String> process(List<RepeatedFailure> failures) throws InterruptedException {
+        //several failures can point to the same item
+        Map<String, List<RepeatedFailure>> failuresByIssue = new LinkedHashMap<>();
+        for (RepeatedFailure failure : failures) {
+            List<RepeatedFailure> issueFailures = failuresByIssue.get(failure.issueKey);
+            if (issueFailures == null) {
+                issueFailures = new ArrayList<>();
+                failuresByIssue.put(failure.issueKey, issueFailures);
+            }
+            issueFailures.add(failure);
+        }
+        Map<String, IssueDigest> states = readStates(new ArrayList<>(failuresByIssue.keySet()));
+        Map<String, Promise<Void>> updates = new LinkedHashMap<>();
+        Map<String, String> statuses = new HashMap<>();
+        Set<String> reopened = new HashSet<>();
+        for (Map.Entry<String, List<RepeatedFailure>> issueFailures : failuresByIssue.entrySet()) {
+            String issueKey = issueFailures.getKey();
+            IssueDigest state = states.get(issueKey);
+            int transitionId = state != null && state.getResolution() != null ? getReopenTransition(state) : NO_TRANSITION;
+            String comment = createComment(issueFailures.getValue());
+            permits.acquire();
+            Promise<Void> update;
+            try {
+                rateLimiter.acquire();
+                update = transitionId == NO_TRANSITION ? provider.addCommentAsync(issueKey, comment) :
+                        provider.transitionAsync(issueKey, transitionId, comment);
+            } catch (RuntimeException | InterruptedException e) {
+                permits.release();
+                throw e;
+            }
+            update.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    permits.release();
+                }
+            }, MoreExecutors.sameThreadExecutor());
+            updates.put(issueKey, update);
+            statuses.put(issueKey, transitionId == NO_TRANSITION && state != null ? state.getStatus() : null);
+            if (transitionId != NO_TRANSITION) {
+                reopened.add(issueKey);
+            }
+        }
+        for (Map.Entry<String, Promise<Void>> update : updates.entrySet()) {
+            try {
+                update.getValue().get();
+                logger.info((reopened.contains(update.getKey()) ? "Reopened " : "Commented on ") + update.getKey());
+            } catch (ExecutionException e) {
+                logger.error("Unable to update " + update.getKey() + ": " + e.getMessage());
+                statuses.remove(update.getKey());
+            }
+        }
+        return statuses;
+    }
+
+    private Map<String, IssueDigest> readStates(List<String> issueKeys) throws InterruptedException {
+        Map<String, IssueDigest> states = new HashMap<>();
+        int chunkSize = AsynchronousIssueSearchRestClient.DEFAULT_PAGE_SIZE;
+        for (int start = 0; start < issueKeys.size(); start += chunkSize) {
+            rateLimiter.acquire();
+            JiraApiCallResult<List<IssueDigest>> result = provider.getIssueWorkflowStates(
+                    issueKeys.subList(start, Math.min(issueKeys.size(), start + chunkSize)));
+            if (!result.isSuccess()) {
+                //the items are commented on only
+                continue;
+            }
+            for (IssueDigest issue : result.getResult()) {
+                states.put(issue.getKey(), issue);
+            }
+        }
+        return states;
+    }
+
+    private int getReopenTransition(IssueDigest state) throws InterruptedException {
+        String workflowKey = state.getProjectKey() + "/" + state.getIssueType() + "/" + state.getStatus();
+        Integer transitionId = reopenTransitions.get(workflowKey);
+        if (transitionId != null) {
+            return transitionId;
+        }
+        rateLimiter.acquire();
+        JiraApiCallResult<Iterable<Transition>> transitions = provider.getTransitions(state.getKey());
+        if (!transitions.isSuccess()) {
+            //not cached, the next item of the workflow will try again
+            return NO_TRANSITION;
+        }
+        transitionId = findReopenTransition(transitions.getResult());
+        if (transitionId == NO_TRANSITION) {
+            logger.warn("No \"" + reopenTransitionName + "\" transition from the " + state.getStatus() +
+                    " status, " + state.getIssueType() + " items of " + state.getProjectKey() + " are only commented on");
+        }
+        reopenTransitions.put(workflowKey, transitionId);
+        return transitionId;
+    }
+
+    //the configured name first, then any transition looking like a reopen one
+    private int findReopenTransition(Iterable<Transition> transitions) {
+        int candidate = NO_TRANSITION;
+        for (Transition transition : transitions) {
+            if (transition.getName().equalsIgnoreCase(reopenTransitionName)) {
+                return transition.getId();
+            }
+            if (candidate == NO_TRANSITION && transition.getName().toLowerCase(Locale.ROOT).contains("reopen")) {
+                candidate = transition.getId();
+            }
+        }
+        return candidate;
+    }
+
+    private static String createComment(List<RepeatedFailure> failures) {
+        StringBuilder comment = new StringBuilder();
+        for (RepeatedFailure failure : failures) {
+            if (comment.length() > 0) {
+                comment.append("\n----\n");
+            }
+            FailureEvent event = failure.event;
+            comment.append(event.getTestCaseId()).append(" failed again ").append(event.getOccurrences())
+                    .append(" time(s), last at ").append(new Date(event.getTimestamp())).append(", ")
+                    .append(failure.totalOccurrences).append(" time(s) in total.\n\n")
+                    .append(HeadlessFilingConfig.expand("${reason}\n\n${failedSteps}", event));
+        }
+        return comment.toString();
+    }
+}
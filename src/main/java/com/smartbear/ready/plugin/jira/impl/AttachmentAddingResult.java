@@ -4,13 +4,24 @@ package com.smartbear.ready.plugin.jira.impl;
  * Created by avdeev on 18.03.2015.
  */
 public class AttachmentAddingResult extends BugTrackerActionResult {
+    private long uploadedBytes;
+
     public AttachmentAddingResult() {
         this.isSuccess = true;
         this.error = null;
     }
 
+    public AttachmentAddingResult(long uploadedBytes) {
+        this();
+        this.uploadedBytes = uploadedBytes;
+    }
+
     public AttachmentAddingResult(String error){
         this.isSuccess = false;
         this.error = error;
     }
+
+    public long getUploadedBytes() {
+        return uploadedBytes;
+    }
 }
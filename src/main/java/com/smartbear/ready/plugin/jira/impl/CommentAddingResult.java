@@ -0,0 +1,13 @@
+package com.smartbear.ready.plugin.jira.impl;
+
+public class CommentAddingResult extends BugTrackerActionResult {
+    public CommentAddingResult() {
+        this.isSuccess = true;
+        this.error = null;
+    }
+
+    public CommentAddingResult(String error) {
+        this.isSuccess = false;
+        this.error = error;
+    }
+}
@@ -0,0 +1,109 @@
+package com.smartbear.ready.plugin.jira.impl;
+
+import com.eviware.x.form.XForm;
+import com.eviware.x.form.XFormField;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collapsible group of fields in a {@link SwingXScrollableFormImpl}. Fields are registered as factories and
+ * created all together the first time the section is expanded, so issue types with hundreds of optional custom
+ * fields do not pay for their components until the user actually wants to see them.
+ */
+public class FormSection {
+    private static final String COLLAPSED_MARK = "\u25B6 ";
+    private static final String EXPANDED_MARK = "\u25BC ";
+
+    public interface FieldFactory {
+        XFormField createField(XForm sectionForm);
+    }
+
+    private final SwingXScrollableFormImpl parentForm;
+    private final SwingXScrollableFormImpl sectionForm;
+    private final String title;
+    private final JButton header;
+    private final Map<String, FieldFactory> pendingFields = new LinkedHashMap<>();
+    private boolean materialized = false;
+    private boolean expanded = false;
+
+    FormSection(SwingXScrollableFormImpl parentForm, String title) {
+        this.parentForm = parentForm;
+        this.title = title;
+        sectionForm = new SwingXScrollableFormImpl(title, 0, parentForm);
+        sectionForm.getPanel().setVisible(false);
+        header = new JButton();
+        header.setBorderPainted(false);
+        header.setContentAreaFilled(false);
+        header.setBorder(BorderFactory.createEmptyBorder(2, 0, 2, 0));
+        header.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                setExpanded(!expanded);
+            }
+        });
+        updateHeader();
+    }
+
+    public void addField(String label, FieldFactory factory) {
+        if (materialized) {
+            factory.createField(sectionForm);
+        } else {
+            pendingFields.put(label, factory);
+        }
+        updateHeader();
+    }
+
+    public boolean containsField(String label) {
+        return pendingFields.containsKey(label);
+    }
+
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    public void setExpanded(boolean expanded) {
+        if (expanded) {
+            materialize();
+        }
+        this.expanded = expanded;
+        sectionForm.getPanel().setVisible(expanded);
+        updateHeader();
+        parentForm.sectionChanged();
+    }
+
+    void materialize() {
+        if (materialized) {
+            return;
+        }
+        materialized = true;
+        //the section form registers the created fields in the parent form
+        for (FieldFactory factory : pendingFields.values()) {
+            factory.createField(sectionForm);
+        }
+        pendingFields.clear();
+    }
+
+    SwingXScrollableFormImpl getForm() {
+        return sectionForm;
+    }
+
+    JComponent getHeader() {
+        return header;
+    }
+
+    JComponent getContent() {
+        return sectionForm.getPanel();
+    }
+
+    private void updateHeader() {
+        int fieldCount = materialized ? sectionForm.getFormFields().length : pendingFields.size();
+        header.setText((expanded ? EXPANDED_MARK : COLLAPSED_MARK) + title + " (" + fieldCount + ")");
+    }
+}
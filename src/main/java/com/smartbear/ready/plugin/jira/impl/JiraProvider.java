@@ -4,24 +4,29 @@ import com.atlassian.jira.rest.client.api.GetCreateIssueMetadataOptions;
 import com.atlassian.jira.rest.client.api.GetCreateIssueMetadataOptionsBuilder;
 import com.atlassian.jira.rest.client.api.JiraRestClient;
 import com.atlassian.jira.rest.client.api.MetadataRestClient;
-import com.atlassian.jira.rest.client.api.OptionalIterable;
+import com.atlassian.jira.rest.client.api.NamedEntity;
+import com.atlassian.jira.rest.client.api.RestClientException;
 import com.atlassian.jira.rest.client.api.domain.BasicIssue;
 import com.atlassian.jira.rest.client.api.domain.BasicProject;
 import com.atlassian.jira.rest.client.api.domain.CimFieldInfo;
 import com.atlassian.jira.rest.client.api.domain.CimIssueType;
 import com.atlassian.jira.rest.client.api.domain.CimProject;
+import com.atlassian.jira.rest.client.api.domain.Comment;
 import com.atlassian.jira.rest.client.api.domain.CustomFieldOption;
 import com.atlassian.jira.rest.client.api.domain.Issue;
 import com.atlassian.jira.rest.client.api.domain.IssueFieldId;
 import com.atlassian.jira.rest.client.api.domain.IssueType;
 import com.atlassian.jira.rest.client.api.domain.Priority;
 import com.atlassian.jira.rest.client.api.domain.Project;
+import com.atlassian.jira.rest.client.api.domain.Transition;
 import com.atlassian.jira.rest.client.api.domain.Version;
 import com.atlassian.jira.rest.client.api.domain.User;
 import com.atlassian.jira.rest.client.api.domain.input.ComplexIssueInputFieldValue;
 import com.atlassian.jira.rest.client.api.domain.input.FieldInput;
 import com.atlassian.jira.rest.client.api.domain.input.IssueInputBuilder;
+import com.atlassian.jira.rest.client.api.domain.input.TransitionInput;
 import com.atlassian.util.concurrent.Promise;
+import com.google.common.io.CountingInputStream;
 import com.eviware.soapui.SoapUI;
 import com.eviware.soapui.actions.SoapUIPreferencesAction;
 import com.eviware.soapui.impl.wsdl.WsdlProject;
@@ -30,17 +35,33 @@ import com.eviware.soapui.model.settings.Settings;
 import com.eviware.soapui.model.support.ModelSupport;
 import com.eviware.soapui.support.StringUtils;
 import com.eviware.soapui.support.UISupport;
+import com.smartbear.ready.plugin.jira.cache.IssueFormTemplateCache;
+import com.smartbear.ready.plugin.jira.cache.MetadataPrefetcher;
+import com.smartbear.ready.plugin.jira.cache.ProjectIssueTypeCatalog;
+import com.smartbear.ready.plugin.jira.clients.AsynchronousIssueSearchRestClient;
 import com.smartbear.ready.plugin.jira.clients.AsynchronousJiraRestClientEx;
+import com.smartbear.ready.plugin.jira.clients.AsynchronousProjectSearchRestClient;
 import com.smartbear.ready.plugin.jira.clients.AsynchronousUserSearchRestClient;
+import com.smartbear.ready.plugin.jira.clients.IssueDigest;
+import com.smartbear.ready.plugin.jira.clients.IssueSearchPage;
+import com.smartbear.ready.plugin.jira.dedup.SimilarIssue;
+import com.smartbear.ready.plugin.jira.dedup.SimilarIssueIndex;
 import com.smartbear.ready.plugin.jira.factories.AsynchronousJiraRestClientFactoryEx;
 import com.smartbear.ready.plugin.jira.factories.JiraPrefsFactory;
+import com.smartbear.ready.plugin.jira.metrics.JiraMetrics;
+import com.smartbear.ready.plugin.jira.metrics.JiraMetrics.Cache;
+import com.smartbear.ready.plugin.jira.metrics.JiraMetrics.Endpoint;
+import com.smartbear.ready.plugin.jira.search.ProjectIndex;
+import com.smartbear.ready.plugin.jira.search.RecentIssuesIndex;
 import com.smartbear.ready.plugin.jira.settings.BugTrackerPrefs;
 import com.smartbear.ready.plugin.jira.settings.BugTrackerSettings;
+import com.smartbear.ready.plugin.jira.settings.ServerProfiles;
 import org.apache.log4j.Appender;
 import org.apache.log4j.FileAppender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.core.UriBuilder;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -52,12 +73,17 @@ import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class JiraProvider implements SimpleBugTrackerProvider {
     private static final Logger logger = LoggerFactory.getLogger(JiraProvider.class);
@@ -69,6 +95,7 @@ public class JiraProvider implements SimpleBugTrackerProvider {
     public static final String BUG_TRACKER_SETTINGS_ARE_NOT_COMPLETELY_SPECIFIED = "Unable to create a JIRA item.\nThe JIRA Integration plugin's settings are not configured or invalid.";
     public static final String INCORRECT_PROTOCOL_IN_THE_JIRA_URL = "\nPerhaps,  you specified the HTTP protocol in the JIRA URL instead of HTTPS.";
     public static final String USER_NAME_NOT_FOUND = "%s user is not found";
+    public static final int USER_SEARCH_MAX_PAGES = 20;
     public static final String INCORRECT_PROTOCOL_ERROR_CODE = "301";
     public static final String PRIORITY_FIELD_NAME = "priority";
     public static final String FIX_VERSIONS_FIELD_NAME = "fixVersions";
@@ -79,30 +106,82 @@ public class JiraProvider implements SimpleBugTrackerProvider {
     public static final String RESOLUTION_FIELD_NAME = "resolution";
     public static final String NAME_FIELD_NAME = "name";
     public static final String VALUE_FIELD_NAME = "value";
+    public static final String EMPTY_OPTION_VALUE = "";
+    private static final String ISSUE_COMMENTS_PATH = "rest/api/2/issue/{issueKey}/comment";
+    private static final String ISSUE_TRANSITIONS_PATH = "rest/api/2/issue/{issueKey}/transitions";
+    public static final int SIMILAR_ISSUES_LIMIT = 5;
+    public static final int RECENT_ISSUES_LIMIT = 500;
+    public static final long RECENT_ISSUES_SYNC_INTERVAL_MS = 60 * 1000;
+    //an empty or partial catalog is requested again after this delay, the failure may have been transient
+    public static final long INCOMPLETE_CATALOG_EXPIRY_MS = 60 * 1000;
 
     private ModelItem activeElement;
     private JiraRestClient restClient = null;
     private BugTrackerSettings bugTrackerSettings;
-    static private JiraProvider instance = null;
-
-    //Properties below exist for reducing number of Jira API calls since every call is very greedy operation
-    Iterable<BasicProject> allProjects = null;
-    Map<String, Project> requestedProjects = new HashMap<>();
-    Iterable<Priority> priorities = null;
-    Map<String/*project*/, Map<String/*Issue Type*/, Map<String/*FieldName*/, CimFieldInfo>>> projectFields = new HashMap<>();
+    private String profileName = ServerProfiles.DEFAULT_PROFILE;
+    //one provider per server profile, each with its own client and caches, kept until the settings change
+    static private final Map<String, JiraProvider> instances = new HashMap<>();
+
+    //Properties below exist for reducing number of Jira API calls since every call is very greedy operation.
+    //They are filled both from the UI and from the background prefetcher, so all of them have to be thread safe.
+    volatile Iterable<BasicProject> allProjects = null;
+    volatile ProjectIssueTypeCatalog projectCatalog = null;
+    volatile long projectCatalogLoadTime = 0;
+    volatile ProjectIndex projectIndex = null;
+    volatile boolean projectSearchUnsupported = false;
+    volatile Iterable<Priority> priorities = null;
+    Map<String/*project*/, Map<String/*Issue Type*/, Map<String/*FieldName*/, CimFieldInfo>>> projectFields = new ConcurrentHashMap<>();
+    //changes every time the createmeta entry of a project is (re)loaded, the form templates depend on it
+    Map<String/*project*/, Integer> projectFieldsVersions = new ConcurrentHashMap<>();
+    private final AtomicInteger lastProjectFieldsVersion = new AtomicInteger();
+    private final IssueFormTemplateCache issueFormTemplateCache = new IssueFormTemplateCache();
+    private final SimilarIssueIndex similarIssueIndex = new SimilarIssueIndex();
+    private final ConcurrentHashMap<String, RecentIssuesIndex> recentIssues = new ConcurrentHashMap<>();
+    private final Set<String> syncingProjects = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    //a call in progress holds the lock of its cache, so a second caller waits for it instead of repeating the request
+    private final Object projectsLock = new Object();
+    private final Object projectCatalogLock = new Object();
+    private final Object prioritiesLock = new Object();
+    private final Object projectFieldsLock = new Object();
 
     public static JiraProvider getProvider() {
-        if (instance == null) {
-            instance = new JiraProvider();
+        return getProvider(ServerProfiles.DEFAULT_PROFILE);
+    }
+
+    /**
+     * Returns the provider of the server profile selected for the ReadyAPI project of the item.
+     */
+    public static JiraProvider getProvider(ModelItem modelItem) {
+        return getProvider(ServerProfiles.getProfileName(modelItem));
+    }
+
+    public static synchronized JiraProvider getProvider(String profileName) {
+        JiraProvider provider = instances.get(profileName);
+        if (provider == null) {
+            provider = new JiraProvider(profileName);
+            instances.put(profileName, provider);
         }
-        return instance;
+        return provider;
     }
 
-    public static void freeProvider() {
-        instance = null;
+    /**
+     * Drops the providers of the profiles whose settings have been changed or which have been removed, they are
+     * created again with the new settings when needed. The providers of the other profiles keep their caches.
+     */
+    public static synchronized void freeProvider() {
+        Iterator<Map.Entry<String, JiraProvider>> providers = instances.entrySet().iterator();
+        while (providers.hasNext()) {
+            Map.Entry<String, JiraProvider> provider = providers.next();
+            BugTrackerSettings settings = ServerProfiles.getSettings(provider.getKey());
+            if (settings == null || !settings.equals(provider.getValue().bugTrackerSettings)) {
+                providers.remove();
+                MetadataPrefetcher.getInstance().reset(provider.getKey());
+            }
+        }
     }
 
-    private JiraProvider() {
+    private JiraProvider(String profileName) {
+        this.profileName = profileName;
         bugTrackerSettings = getBugTrackerSettings();
         if (!settingsComplete(bugTrackerSettings)) {
             logger.error(BUG_TRACKER_URI_IS_INCORRECT);
@@ -112,16 +191,47 @@ public class JiraProvider implements SimpleBugTrackerProvider {
                 return;
             }
         }
-        final AsynchronousJiraRestClientFactoryEx factory = new AsynchronousJiraRestClientFactoryEx();
-
         try {
-            restClient = factory.createWithBasicHttpAuthentication(new URI(bugTrackerSettings.getUrl()), bugTrackerSettings.getLogin(), bugTrackerSettings.getPassword());
+            restClient = createRestClient(bugTrackerSettings);
         } catch (URISyntaxException e) {
             logger.error(BUG_TRACKER_URI_IS_INCORRECT);
             UISupport.showErrorMessage(BUG_TRACKER_URI_IS_INCORRECT);
         }
     }
 
+    private JiraProvider(BugTrackerSettings settings) {
+        bugTrackerSettings = settings;
+        if (!settingsComplete(bugTrackerSettings)) {
+            logger.error(BUG_TRACKER_SETTINGS_ARE_NOT_COMPLETELY_SPECIFIED);
+            return;
+        }
+        try {
+            restClient = createRestClient(bugTrackerSettings);
+        } catch (URISyntaxException e) {
+            logger.error(BUG_TRACKER_URI_IS_INCORRECT);
+        }
+    }
+
+    //for the benchmarks, which run the provider against a stub client
+    JiraProvider(BugTrackerSettings settings, JiraRestClient restClient) {
+        this.bugTrackerSettings = settings;
+        this.restClient = restClient;
+    }
+
+    /**
+     * Creates a provider which never shows any UI, for the command-line runner. It is not shared with the IDE
+     * through {@link #getProvider(String)}. Returns null if the settings are incomplete or invalid.
+     */
+    public static JiraProvider createHeadlessProvider(BugTrackerSettings settings) {
+        JiraProvider provider = new JiraProvider(settings);
+        return provider.restClient == null ? null : provider;
+    }
+
+    private static JiraRestClient createRestClient(BugTrackerSettings settings) throws URISyntaxException {
+        final AsynchronousJiraRestClientFactoryEx factory = new AsynchronousJiraRestClientFactoryEx();
+        return factory.createWithBasicHttpAuthentication(new URI(settings.getUrl()), settings.getLogin(), settings.getPassword());
+    }
+
     private void showSettingsDialog() {
         SoapUIPreferencesAction.getInstance().show(JiraPrefsFactory.JIRA_PREFS_TITLE);
         createBugTrackerSettings();
@@ -129,20 +239,31 @@ public class JiraProvider implements SimpleBugTrackerProvider {
 
     private JiraApiCallResult<Iterable<BasicProject>> getAllProjects() {
         if (allProjects != null) {
+            JiraMetrics.cache(Cache.PROJECTS).hit();
             return new JiraApiCallResult<Iterable<BasicProject>>(allProjects);
         }
 
-        try {
-            allProjects = restClient.getProjectClient().getAllProjects().get();
-            return new JiraApiCallResult<Iterable<BasicProject>>(allProjects);
-        } catch (InterruptedException e) {
-            logger.error(e.getMessage());
-            allProjects = null;
-            return new JiraApiCallResult<Iterable<BasicProject>>(e);
-        } catch (ExecutionException e) {
-            logger.error(e.getMessage());
-            allProjects = null;
-            return new JiraApiCallResult<Iterable<BasicProject>>(e);
+        synchronized (projectsLock) {
+            if (allProjects != null) {
+                JiraMetrics.cache(Cache.PROJECTS).hit();
+                return new JiraApiCallResult<Iterable<BasicProject>>(allProjects);
+            }
+            JiraMetrics.cache(Cache.PROJECTS).miss();
+            try {
+                Iterable<BasicProject> projects = JiraMetrics.track(Endpoint.PROJECTS,
+                        restClient.getProjectClient().getAllProjects()).get();
+                //an empty list is not kept, so the projects show up as soon as JIRA returns them
+                allProjects = projects.iterator().hasNext() ? projects : null;
+                return new JiraApiCallResult<Iterable<BasicProject>>(projects);
+            } catch (InterruptedException e) {
+                logger.error(e.getMessage());
+                allProjects = null;
+                return new JiraApiCallResult<Iterable<BasicProject>>(e);
+            } catch (ExecutionException e) {
+                logger.error(e.getMessage());
+                allProjects = null;
+                return new JiraApiCallResult<Iterable<BasicProject>>(e);
+            }
         }
     }
 
@@ -160,10 +281,102 @@ public class JiraProvider implements SimpleBugTrackerProvider {
         return projectNames;
     }
 
-    private JiraApiCallResult<Project> getProjectByKey(String key) {
-        if (!requestedProjects.containsKey(key)) {
+    /**
+     * Returns the index of the project list, rebuilt from a fresh list once it is
+     * {@linkplain ProjectIndex#isStale() stale}, so projects added in JIRA meanwhile show up.
+     */
+    public ProjectIndex getProjectIndex() {
+        ProjectIndex current = projectIndex;
+        if (current != null && !current.isStale()) {
+            return current;
+        }
+        if (current != null) {
+            allProjects = null;
+        }
+        JiraApiCallResult<Iterable<BasicProject>> projects = getAllProjects();
+        ProjectIndex index = new ProjectIndex(projects.isSuccess());
+        if (projects.isSuccess()) {
+            for (BasicProject project : projects.getResult()) {
+                index.addProject(project.getKey(), project.getName());
+            }
+            projectIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Asks JIRA for the projects matching the query. Returns an empty list if the server does not support
+     * the project search (JIRA Server before 8.0).
+     */
+    public List<BasicProject> searchProjects(String query, int maxResults) {
+        if (projectSearchUnsupported) {
+            return new ArrayList<>();
+        }
+        AsynchronousProjectSearchRestClient projectSearchRestClient = ((AsynchronousJiraRestClientEx) restClient).getProjectSearchRestClient();
+        try {
+            return JiraMetrics.track(Endpoint.PROJECT_SEARCH, projectSearchRestClient.searchProjects(query, 0, maxResults)).get().getProjects();
+        } catch (InterruptedException e) {
+            return new ArrayList<>();
+        } catch (ExecutionException e) {
+            logger.warn("Project search failed: " + e.getMessage());
+            if (e.getCause() instanceof RestClientException) {
+                RestClientException restClientException = (RestClientException) e.getCause();
+                if (restClientException.getStatusCode().isPresent() && restClientException.getStatusCode().get() == 404) {
+                    projectSearchUnsupported = true;
+                }
+            }
+            return new ArrayList<>();
+        }
+    }
+
+    public ProjectIssueTypeCatalog getProjectCatalog() {
+        if (isProjectCatalogValid()) {
+            JiraMetrics.cache(Cache.PROJECT_CATALOG).hit();
+            return projectCatalog;
+        }
+        synchronized (projectCatalogLock) {
+            if (isProjectCatalogValid()) {
+                JiraMetrics.cache(Cache.PROJECT_CATALOG).hit();
+            } else {
+                JiraMetrics.cache(Cache.PROJECT_CATALOG).miss();
+                GetCreateIssueMetadataOptions options = new GetCreateIssueMetadataOptionsBuilder().build();
+                try {
+                    projectCatalog = new ProjectIssueTypeCatalog(JiraMetrics.track(Endpoint.CREATEMETA,
+                            restClient.getIssueClient().getCreateIssueMetadata(options)).get());
+                } catch (InterruptedException e) {
+                    logger.error(e.getMessage());
+                    projectCatalog = new ProjectIssueTypeCatalog();
+                } catch (ExecutionException e) {
+                    logger.error(e.getMessage());
+                    //will be filled project by project
+                    projectCatalog = new ProjectIssueTypeCatalog();
+                }
+                projectCatalogLoadTime = System.currentTimeMillis();
+            }
+        }
+        return projectCatalog;
+    }
+
+    private boolean isProjectCatalogValid() {
+        ProjectIssueTypeCatalog catalog = projectCatalog;
+        if (catalog == null) {
+            return false;
+        }
+        return (catalog.isComplete() && catalog.size() > 0) ||
+                System.currentTimeMillis() - projectCatalogLoadTime < INCOMPLETE_CATALOG_EXPIRY_MS;
+    }
+
+    private JiraApiCallResult<List<IssueType>> getProjectIssueTypes(String projectKey) {
+        ProjectIssueTypeCatalog catalog = getProjectCatalog();
+        if (!catalog.containsProject(projectKey)) {
+            //the catalog could not be loaded, fall back to the project itself but keep only its issue types
             try {
-                requestedProjects.put(key, restClient.getProjectClient().getProject(key).get());
+                Project project = JiraMetrics.track(Endpoint.PROJECT, restClient.getProjectClient().getProject(projectKey)).get();
+                List<IssueType> issueTypes = new ArrayList<>();
+                for (IssueType issueType : project.getIssueTypes()) {
+                    issueTypes.add(issueType);
+                }
+                catalog.putProject(project.getKey(), project.getName(), issueTypes);
             } catch (InterruptedException e) {
                 logger.error(e.getMessage());
                 return new JiraApiCallResult<>(e);
@@ -172,25 +385,17 @@ public class JiraProvider implements SimpleBugTrackerProvider {
                 return new JiraApiCallResult<>(e);
             }
         }
-        return new JiraApiCallResult<>(requestedProjects.get(key));
-    }
-
-    private JiraApiCallResult<OptionalIterable<IssueType>> getProjectIssueTypes(String projectKey) {
-        JiraApiCallResult<Project> project = getProjectByKey(projectKey);
-        if (!project.isSuccess()) {
-            return new JiraApiCallResult<>(project.getError());
-        }
-        return new JiraApiCallResult<>(project.getResult().getIssueTypes());
+        return new JiraApiCallResult<>(catalog.getIssueTypes(projectKey));
     }
 
     public List<String> getListOfProjectIssueTypes(String projectKey) {
-        JiraApiCallResult<OptionalIterable<IssueType>> result = getProjectIssueTypes(projectKey);
+        JiraApiCallResult<List<IssueType>> result = getProjectIssueTypes(projectKey);
         if (!result.isSuccess()) {
             return new ArrayList<>();
         }
 
         List<String> issueTypeList = new ArrayList<String>();
-        OptionalIterable<IssueType> issueTypes = result.getResult();
+        List<IssueType> issueTypes = result.getResult();
         for (IssueType issueType : issueTypes) {
             issueTypeList.add(issueType.getName());
         }
@@ -214,20 +419,75 @@ public class JiraProvider implements SimpleBugTrackerProvider {
         return null;
     }
 
+    /**
+     * Returns the names under which the allowed values of a field are shown and sent back to JIRA.
+     */
+    public Object[] getAllowedValueNames(Iterable<Object> allowedValues, boolean addEmptyValue) {
+        ArrayList<Object> objects = new ArrayList<>();
+        if (addEmptyValue) {
+            objects.add(EMPTY_OPTION_VALUE);
+        }
+        for (Object obj : allowedValues) {
+            CustomFieldOption customFieldOption = transformToCustomFieldOption(obj);
+            if (customFieldOption != null) {
+                objects.add(customFieldOption.getValue());
+            } else {
+                if (obj instanceof NamedEntity) {
+                    NamedEntity namedEntity = (NamedEntity) obj;
+                    objects.add(namedEntity.getName());
+                }
+            }
+        }
+        return objects.toArray();
+    }
+
+    public Object[] getVersionNames(Iterable<Object> allowedValues, boolean skipReleasedVersions, boolean addEmptyValue) {
+        ArrayList<Object> objects = new ArrayList<>();
+        if (addEmptyValue) {
+            objects.add(EMPTY_OPTION_VALUE);
+        }
+        for (Object obj : allowedValues) {
+            Version versionValue = transformToVersion(obj);
+            if (versionValue != null) {
+                if (!skipReleasedVersions || (skipReleasedVersions && !versionValue.isReleased())) {
+                    objects.add(versionValue.getName());
+                }
+            }
+        }
+        return objects.toArray();
+    }
+
     private JiraApiCallResult<Iterable<Priority>> getAllPriorities() {
-        if (priorities == null) {
-            final MetadataRestClient client = restClient.getMetadataClient();
-            try {
-                priorities = client.getPriorities().get();
-            } catch (InterruptedException e) {
-                return new JiraApiCallResult<>(e);
-            } catch (ExecutionException e) {
-                return new JiraApiCallResult<>(e);
+        synchronized (prioritiesLock) {
+            if (priorities != null) {
+                JiraMetrics.cache(Cache.PRIORITIES).hit();
+            } else {
+                JiraMetrics.cache(Cache.PRIORITIES).miss();
+                final MetadataRestClient client = restClient.getMetadataClient();
+                try {
+                    priorities = JiraMetrics.track(Endpoint.PRIORITIES, client.getPriorities()).get();
+                } catch (InterruptedException e) {
+                    return new JiraApiCallResult<>(e);
+                } catch (ExecutionException e) {
+                    return new JiraApiCallResult<>(e);
+                }
             }
         }
         return new JiraApiCallResult<>(priorities);
     }
 
+    public List<String> getListOfPriorities() {
+        JiraApiCallResult<Iterable<Priority>> priorities = getAllPriorities();
+        List<String> priorityNames = new ArrayList<>();
+        if (!priorities.isSuccess()) {
+            return priorityNames;
+        }
+        for (Priority priority : priorities.getResult()) {
+            priorityNames.add(priority.getName());
+        }
+        return priorityNames;
+    }
+
     private Priority getPriorityByName(String priorityName) {
         JiraApiCallResult<Iterable<Priority>> priorities = getAllPriorities();
         if (!priorities.isSuccess()) {
@@ -242,7 +502,7 @@ public class JiraProvider implements SimpleBugTrackerProvider {
     }
 
     private JiraApiCallResult<IssueType> getIssueType(String projectKey, String requiredIssueType) {
-        JiraApiCallResult<OptionalIterable<IssueType>> issueTypes = getProjectIssueTypes(projectKey);
+        JiraApiCallResult<List<IssueType>> issueTypes = getProjectIssueTypes(projectKey);
         if (!issueTypes.isSuccess()) {
             return new JiraApiCallResult<IssueType>(issueTypes.getError());
         }
@@ -256,7 +516,7 @@ public class JiraProvider implements SimpleBugTrackerProvider {
 
     public Issue getIssue(String key) {
         try {
-            return restClient.getIssueClient().getIssue(key).get();
+            return JiraMetrics.track(Endpoint.GET_ISSUE, restClient.getIssueClient().getIssue(key)).get();
         } catch (InterruptedException e) {
             e.printStackTrace();
         } catch (ExecutionException e) {
@@ -275,11 +535,168 @@ public class JiraProvider implements SimpleBugTrackerProvider {
         return null;
     }
 
+    public boolean hasProjectFields(String projectKey) {
+        return projectFields.containsKey(projectKey);
+    }
+
+    public int getProjectFieldsVersion(String projectKey) {
+        Integer version = projectFieldsVersions.get(projectKey);
+        return version == null ? 0 : version;
+    }
+
+    /**
+     * Drops the cached createmeta entry of the project, it is read again the next time it is needed.
+     */
+    public void invalidateProjectFields(String projectKey) {
+        synchronized (projectFieldsLock) {
+            projectFields.remove(projectKey);
+            projectFieldsVersions.remove(projectKey);
+        }
+        issueFormTemplateCache.removeProject(projectKey);
+    }
+
+    public IssueFormTemplateCache getIssueFormTemplateCache() {
+        return issueFormTemplateCache;
+    }
+
+    public SimilarIssueIndex getSimilarIssueIndex() {
+        return similarIssueIndex;
+    }
+
+    /**
+     * Returns the indexed issues of the project which look like duplicates of the new one, the most similar first.
+     * No request is sent, see {@link #syncRecentIssues(String)}.
+     */
+    public List<SimilarIssue> findSimilarIssues(String projectKey, String summary, String description, double minSimilarity) {
+        return similarIssueIndex.findSimilar(projectKey, getSimilarityText(summary, description),
+                SIMILAR_ISSUES_LIMIT, minSimilarity);
+    }
+
+    private static String getSimilarityText(String summary, String description) {
+        return StringUtils.isNullOrEmpty(description) ? summary : summary + "\n" + description;
+    }
+
+    /**
+     * Reads the status, resolution and assignee of the issues with a single search. The issues not updated in the
+     * last {@code updatedWithinMs} ms (all of them if it is 0) and the ones which do not exist any more are not
+     * returned. At most {@link AsynchronousIssueSearchRestClient#DEFAULT_PAGE_SIZE} keys can be given.
+     */
+    public JiraApiCallResult<List<IssueDigest>> getIssueStatuses(Collection<String> issueKeys, long updatedWithinMs) {
+        return searchByKeys(issueKeys, updatedWithinMs, AsynchronousIssueSearchRestClient.STATUS_FIELDS);
+    }
+
+    /**
+     * Reads the project, item type, status and resolution of the issues with a single search, the issues which
+     * do not exist any more are not returned. At most {@link AsynchronousIssueSearchRestClient#DEFAULT_PAGE_SIZE}
+     * keys can be given.
+     */
+    public JiraApiCallResult<List<IssueDigest>> getIssueWorkflowStates(Collection<String> issueKeys) {
+        return searchByKeys(issueKeys, 0, AsynchronousIssueSearchRestClient.WORKFLOW_FIELDS);
+    }
+
+    private JiraApiCallResult<List<IssueDigest>> searchByKeys(Collection<String> issueKeys, long updatedWithinMs,
+                                                             String fields) {
+        if (restClient == null) {
+            return new JiraApiCallResult<List<IssueDigest>>(new IllegalStateException(BUG_TRACKER_URI_IS_INCORRECT));
+        }
+        StringBuilder jql = new StringBuilder("key in (");
+        for (String issueKey : issueKeys) {
+            if (jql.charAt(jql.length() - 1) != '(') {
+                jql.append(',');
+            }
+            jql.append('"').append(issueKey).append('"');
+        }
+        jql.append(')');
+        if (updatedWithinMs > 0) {
+            jql.append(" AND updated >= -").append(updatedWithinMs / 60000 + 1).append('m');
+        }
+        AsynchronousIssueSearchRestClient searchClient = ((AsynchronousJiraRestClientEx) restClient).getIssueSearchRestClient();
+        try {
+            IssueSearchPage page = JiraMetrics.track(Endpoint.ISSUE_SEARCH,
+                    searchClient.search(jql.toString(), 0, issueKeys.size(), fields, false)).get();
+            return new JiraApiCallResult<List<IssueDigest>>(page.getIssues());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new JiraApiCallResult<List<IssueDigest>>(e);
+        } catch (ExecutionException e) {
+            logger.error(e.getMessage());
+            return new JiraApiCallResult<List<IssueDigest>>(e);
+        }
+    }
+
+    public RecentIssuesIndex getRecentIssuesIndex(String projectKey) {
+        RecentIssuesIndex index = recentIssues.get(projectKey);
+        if (index == null) {
+            RecentIssuesIndex created = new RecentIssuesIndex();
+            index = recentIssues.putIfAbsent(projectKey, created);
+            if (index == null) {
+                index = created;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Reads the issues of the project updated since the previous call into the recent issues index and the similar
+     * issue index; the first call reads the last {@value #RECENT_ISSUES_LIMIT} updated issues. Returns at once if
+     * the project has been synchronized in the last {@value #RECENT_ISSUES_SYNC_INTERVAL_MS} ms or is being
+     * synchronized by another thread. It takes several requests, so it must not be called on the event dispatch thread.
+     */
+    public void syncRecentIssues(String projectKey) {
+        if (restClient == null) {
+            return;
+        }
+        RecentIssuesIndex index = getRecentIssuesIndex(projectKey);
+        long syncStart = System.currentTimeMillis();
+        if (syncStart - index.getLastSync() < RECENT_ISSUES_SYNC_INTERVAL_MS || !syncingProjects.add(projectKey)) {
+            return;
+        }
+        AsynchronousIssueSearchRestClient searchClient = ((AsynchronousJiraRestClientEx) restClient).getIssueSearchRestClient();
+        String jql = "project = \"" + projectKey + "\"";
+        if (index.getLastSync() > 0) {
+            //a relative date does not depend on the time zone of the JIRA user, the extra minute covers the rounding
+            jql += " AND updated >= -" + ((syncStart - index.getLastSync()) / 60000 + 1) + "m";
+        }
+        jql += " ORDER BY updated DESC";
+        List<IssueDigest> updatedIssues = new ArrayList<>();
+        try {
+            while (updatedIssues.size() < RECENT_ISSUES_LIMIT) {
+                IssueSearchPage page = JiraMetrics.track(Endpoint.ISSUE_SEARCH, searchClient.search(jql, updatedIssues.size(),
+                        AsynchronousIssueSearchRestClient.DEFAULT_PAGE_SIZE)).get();
+                updatedIssues.addAll(page.getIssues());
+                if (page.isLast()) {
+                    break;
+                }
+            }
+            index.addAll(updatedIssues);
+            for (IssueDigest issue : updatedIssues) {
+                similarIssueIndex.add(issue.getKey(), projectKey, issue.getSummary(),
+                        getSimilarityText(issue.getSummary(), issue.getDescription()));
+            }
+            index.setLastSync(syncStart);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error(e.getMessage());
+        } finally {
+            syncingProjects.remove(projectKey);
+        }
+    }
+
     private JiraApiCallResult<Map<String, Map<String, Map<String, CimFieldInfo>>>> getProjectFieldsInternal(String... projects) {
+        synchronized (projectFieldsLock) {
+            return loadProjectFields(projects);
+        }
+    }
+
+    private JiraApiCallResult<Map<String, Map<String, Map<String, CimFieldInfo>>>> loadProjectFields(String... projects) {
         List<String> unCachedProjectsList = new ArrayList<>();
         for (String project : projects) {
             if (!projectFields.containsKey(project)) {
+                JiraMetrics.cache(Cache.PROJECT_FIELDS).miss();
                 unCachedProjectsList.add(project);
+            } else {
+                JiraMetrics.cache(Cache.PROJECT_FIELDS).hit();
             }
         }
         if (unCachedProjectsList.size() > 0) {
@@ -289,8 +706,10 @@ public class JiraProvider implements SimpleBugTrackerProvider {
                     .withExpandedIssueTypesFields()
                     .withProjectKeys(unCachedProjectsList.toArray(unCachedProjectsArray))
                     .build();
+            Promise<Iterable<CimProject>> request = JiraMetrics.track(Endpoint.CREATEMETA,
+                    restClient.getIssueClient().getCreateIssueMetadata(options));
             try {
-                Iterable<CimProject> cimProjects = restClient.getIssueClient().getCreateIssueMetadata(options).get();
+                Iterable<CimProject> cimProjects = request.get();
                 for (CimProject cimProject : cimProjects) {
                     Iterable<CimIssueType> issueTypes = cimProject.getIssueTypes();
                     HashMap<String, Map<String, CimFieldInfo>> issueTypeFields = new HashMap<String, Map<String, CimFieldInfo>>();
@@ -298,8 +717,11 @@ public class JiraProvider implements SimpleBugTrackerProvider {
                         issueTypeFields.put(currentIssueType.getName(), currentIssueType.getFields());
                     }
                     projectFields.put(cimProject.getKey(), issueTypeFields);
+                    projectFieldsVersions.put(cimProject.getKey(), lastProjectFieldsVersion.incrementAndGet());
                 }
             } catch (InterruptedException e) {
+                //a superseded speculative load or a cancelled dialog, the request itself is dropped too
+                request.cancel(true);
                 return new JiraApiCallResult<>(e);
             } catch (ExecutionException e) {
                 return new JiraApiCallResult<>(e);
@@ -422,7 +844,9 @@ public class JiraProvider implements SimpleBugTrackerProvider {
                         }
                     });
                 } else if (extraRequiredValue.getKey().equals(ASSIGNEE_FIELD_NAME)) {
-                    issueInputBuilder.setAssigneeName(extraRequiredValue.getValue());
+                    //the name typed is sent as it is if no assignable user matches it, as before
+                    String assigneeName = findUserName(projectKey, extraRequiredValue.getValue());
+                    issueInputBuilder.setAssigneeName(assigneeName == null ? extraRequiredValue.getValue() : assigneeName);
                 } else if (extraRequiredValue.getKey().equals(PARENT_FIELD_NAME)) {
                     Map<String, Object> parent = new HashMap<String, Object>();
                     parent.put("key", extraRequiredValue.getValue());
@@ -433,7 +857,10 @@ public class JiraProvider implements SimpleBugTrackerProvider {
                     customOptionValue.put(NAME_FIELD_NAME, extraRequiredValue.getValue());
                     issueInputBuilder.setFieldValue(extraRequiredValue.getKey(), new ComplexIssueInputFieldValue(customOptionValue));
                 } else if (extraRequiredValue.getKey().equals(IssueFieldId.REPORTER_FIELD.id)) {
-                    String username = getUserName(extraRequiredValue.getValue());
+                    String username = findUserName(null, extraRequiredValue.getValue());
+                    if (username == null) {
+                        throw new Exception(String.format(USER_NAME_NOT_FOUND, extraRequiredValue.getValue()));
+                    }
                     issueInputBuilder.setFieldInput(new FieldInput(IssueFieldId.REPORTER_FIELD,
                             ComplexIssueInputFieldValue.with("name", username)));
                 } else if (isFieldWithPredefinedValues(projectKey, issueTypeKey, extraRequiredValue.getKey())) {
@@ -446,7 +873,8 @@ public class JiraProvider implements SimpleBugTrackerProvider {
                     issueInputBuilder.setFieldValue(extraRequiredValue.getKey(), extraRequiredValue.getValue());
                 }
             }
-            Promise<BasicIssue> issue = restClient.getIssueClient().createIssue(issueInputBuilder.build());
+            Promise<BasicIssue> issue = JiraMetrics.track(Endpoint.CREATE_ISSUE,
+                    restClient.getIssueClient().createIssue(issueInputBuilder.build()));
             basicIssue = issue.get();
         } catch (InterruptedException e) {
             String errorMessage = e.getMessage();
@@ -459,21 +887,59 @@ public class JiraProvider implements SimpleBugTrackerProvider {
             if (errorMessage.contains(INCORRECT_PROTOCOL_ERROR_CODE)) {
                 errorMessage += INCORRECT_PROTOCOL_IN_THE_JIRA_URL;
             }
+            if (isBadRequest(e)) {
+                //the fields or their allowed values may have changed since the metadata was read
+                invalidateProjectFields(projectKey);
+            }
             return new IssueCreationResult(errorMessage);
         } catch (Exception e) {
             return new IssueCreationResult(e.getMessage());
         }
 
+        similarIssueIndex.add(basicIssue.getKey(), projectKey, summary, getSimilarityText(summary, description));
+        getRecentIssuesIndex(projectKey).addAll(Collections.singletonList(new IssueDigest(basicIssue.getKey(), projectKey,
+                issueTypeKey, summary, description, null, null, null, Collections.<String>emptyList(), System.currentTimeMillis())));
         return new IssueCreationResult(basicIssue);
     }
 
-    private String getUserName(String username) throws Exception {
+    private static boolean isBadRequest(ExecutionException e) {
+        if (e.getCause() instanceof RestClientException) {
+            RestClientException restClientException = (RestClientException) e.getCause();
+            return restClientException.getStatusCode().isPresent() && restClientException.getStatusCode().get() == 400;
+        }
+        return false;
+    }
+
+    /**
+     * Pages through the users matching the typed value, only the ones assignable in the project if it is given.
+     * The user whose name, display name or email is the value wins over the first match, at most
+     * {@value #USER_SEARCH_MAX_PAGES} pages are read. Returns null if no user matches.
+     */
+    private String findUserName(String projectKey, String value) throws Exception {
         AsynchronousUserSearchRestClient userSearchRestClient = ((AsynchronousJiraRestClientEx) restClient).getUserSearchRestClient();
-        User user = userSearchRestClient.getUser(username).get();
-        if (user == null) {
-            throw new Exception(String.format(USER_NAME_NOT_FOUND, username));
+        int pageSize = AsynchronousUserSearchRestClient.DEFAULT_PAGE_SIZE;
+        String firstMatch = null;
+        for (int page = 0; page < USER_SEARCH_MAX_PAGES; page++) {
+            Promise<Iterable<User>> users = projectKey == null ?
+                    JiraMetrics.track(Endpoint.USER_SEARCH, userSearchRestClient.findUsers(value, page * pageSize, pageSize)) :
+                    JiraMetrics.track(Endpoint.ASSIGNABLE_USER_SEARCH,
+                            userSearchRestClient.findAssignableUsers(projectKey, value, page * pageSize, pageSize));
+            int count = 0;
+            for (User user : users.get()) {
+                count++;
+                if (value.equalsIgnoreCase(user.getName()) || value.equalsIgnoreCase(user.getDisplayName()) ||
+                        value.equalsIgnoreCase(user.getEmailAddress())) {
+                    return user.getName();
+                }
+                if (firstMatch == null) {
+                    firstMatch = user.getName();
+                }
+            }
+            if (count < pageSize) {
+                break;
+            }
         }
-        return user.getName();
+        return firstMatch;
     }
 
     protected void finalize() throws Throwable {
@@ -494,15 +960,22 @@ public class JiraProvider implements SimpleBugTrackerProvider {
             return new AttachmentAddingResult(BUG_TRACKER_FILE_NAME_NOT_SPECIFIED);
         }
 
+        final CountingInputStream countingStream = new CountingInputStream(inputStream);
         try {
-            restClient.getIssueClient().addAttachment(attachmentUri, inputStream, fileName).get();
+            JiraMetrics.track(Endpoint.ATTACH, restClient.getIssueClient().addAttachment(attachmentUri, countingStream, fileName),
+                    new JiraMetrics.PayloadSize() {
+                        @Override
+                        public long getBytes() {
+                            return countingStream.getCount();
+                        }
+                    }).get();
         } catch (InterruptedException e) {
             return new AttachmentAddingResult(e.getMessage());
         } catch (ExecutionException e) {
             return new AttachmentAddingResult(e.getMessage());
         }
 
-        return new AttachmentAddingResult();//everything is ok
+        return new AttachmentAddingResult(countingStream.getCount());//everything is ok
     }
 
     @Override
@@ -513,13 +986,74 @@ public class JiraProvider implements SimpleBugTrackerProvider {
         if (StringUtils.isNullOrEmpty(filePath)) {
             return new AttachmentAddingResult(BUG_TRACKER_INCORRECT_FILE_PATH);
         }
-        File file = new File(filePath);
+        final File file = new File(filePath);
         if (!file.exists() && file.isFile()) {
             return new AttachmentAddingResult(BUG_TRACKER_INCORRECT_FILE_PATH);
         }
 
-        restClient.getIssueClient().addAttachments(attachmentUri, file);
-        return new AttachmentAddingResult();
+        JiraMetrics.track(Endpoint.ATTACH, restClient.getIssueClient().addAttachments(attachmentUri, file),
+                new JiraMetrics.PayloadSize() {
+                    @Override
+                    public long getBytes() {
+                        return file.length();
+                    }
+                });
+        return new AttachmentAddingResult(file.length());
+    }
+
+    /**
+     * Adds a comment to an issue known by its key only, the issue itself is not read.
+     */
+    public CommentAddingResult addComment(String issueKey, String body) {
+        if (StringUtils.isNullOrEmpty(issueKey)) {
+            return new CommentAddingResult(BUG_TRACKER_ISSUE_KEY_NOT_SPECIFIED);
+        }
+        try {
+            addCommentAsync(issueKey, body).get();
+        } catch (InterruptedException e) {
+            return new CommentAddingResult(e.getMessage());
+        } catch (ExecutionException e) {
+            return new CommentAddingResult(e.getMessage());
+        }
+        return new CommentAddingResult();
+    }
+
+    /**
+     * Sends the comment without waiting for the response, for callers which pipeline their requests.
+     */
+    public Promise<Void> addCommentAsync(String issueKey, String body) {
+        URI commentsUri = UriBuilder.fromUri(bugTrackerSettings.getUrl()).path(ISSUE_COMMENTS_PATH).build(issueKey);
+        return JiraMetrics.track(Endpoint.COMMENT, restClient.getIssueClient().addComment(commentsUri, Comment.valueOf(body)));
+    }
+
+    /**
+     * Returns the transitions available for the issue in its current status.
+     */
+    public JiraApiCallResult<Iterable<Transition>> getTransitions(String issueKey) {
+        try {
+            return new JiraApiCallResult<Iterable<Transition>>(JiraMetrics.track(Endpoint.TRANSITIONS,
+                    restClient.getIssueClient().getTransitions(getTransitionsUri(issueKey))).get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new JiraApiCallResult<Iterable<Transition>>(e);
+        } catch (ExecutionException e) {
+            logger.error(e.getMessage());
+            return new JiraApiCallResult<Iterable<Transition>>(e);
+        }
+    }
+
+    /**
+     * Moves the issue through the transition and adds the comment in the same request, without waiting for the
+     * response.
+     */
+    public Promise<Void> transitionAsync(String issueKey, int transitionId, String comment) {
+        return JiraMetrics.track(Endpoint.TRANSITION, restClient.getIssueClient().transition(getTransitionsUri(issueKey),
+                new TransitionInput(transitionId, Comment.valueOf(comment))));
+    }
+
+    private URI getTransitionsUri(String issueKey) {
+        return UriBuilder.fromUri(bugTrackerSettings.getUrl()).path(ISSUE_TRANSITIONS_PATH)
+                .queryParam("expand", "transitions.fields").build(issueKey);
     }
 
     private InputStream getExecutionLog(String loggerName) {
@@ -560,6 +1094,10 @@ public class JiraProvider implements SimpleBugTrackerProvider {
         activeElement = element;
     }
 
+    public ModelItem getActiveItem() {
+        return activeElement;
+    }
+
     public String getActiveItemName() {
         return activeElement.getName();
     }
@@ -598,8 +1136,16 @@ public class JiraProvider implements SimpleBugTrackerProvider {
     }
 
     private void createBugTrackerSettings() {
+        bugTrackerSettings = ServerProfiles.getSettings(profileName);
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    public static BugTrackerSettings readBugTrackerSettings() {
         Settings soapuiSettings = SoapUI.getSettings();
-        bugTrackerSettings = new BugTrackerSettings(soapuiSettings.getString(BugTrackerPrefs.DEFAULT_URL, ""),
+        return new BugTrackerSettings(soapuiSettings.getString(BugTrackerPrefs.DEFAULT_URL, ""),
                 soapuiSettings.getString(BugTrackerPrefs.LOGIN, ""),
                 soapuiSettings.getString(BugTrackerPrefs.PASSWORD, ""),
                 soapuiSettings.getBoolean(BugTrackerPrefs.SKIP_VERSIONS, false));
@@ -0,0 +1,37 @@
+package com.smartbear.ready.plugin.jira.impl;
+
+import com.eviware.soapui.support.UISupport;
+import com.smartbear.ready.plugin.jira.sync.IssueStatus;
+import com.smartbear.ready.plugin.jira.sync.IssueStatusSyncService;
+
+import javax.swing.BoxLayout;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import java.util.List;
+
+public class LinkedIssuesDialog {
+
+    public static final String LINKED_ITEMS = "JIRA items filed for %s:";
+    public static final String STATUS_NOT_READ_YET = "%s: the status has not been read yet";
+
+    public static void showDialog(String itemName, String profileName, String jiraUrl, List<String> issueKeys) {
+        JOptionPane.showMessageDialog(null,
+                getPanel(itemName, profileName, jiraUrl, issueKeys),
+                itemName,
+                JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private static JPanel getPanel(String itemName, String profileName, String jiraUrl, List<String> issueKeys) {
+        JPanel panel = new JPanel();
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.add(new JLabel(String.format(LINKED_ITEMS, itemName)));
+        for (String issueKey : issueKeys) {
+            IssueStatus status = IssueStatusSyncService.getInstance().getStatus(profileName, issueKey);
+            String link = jiraUrl.concat("/browse/").concat(issueKey);
+            panel.add(UISupport.createLabelLink(link, status == null ? String.format(STATUS_NOT_READ_YET, issueKey) :
+                    status.toString()));
+        }
+        return panel;
+    }
+}
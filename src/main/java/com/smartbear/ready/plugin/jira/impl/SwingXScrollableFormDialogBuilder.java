@@ -37,6 +37,7 @@ import java.awt.event.ActionEvent;
 public class SwingXScrollableFormDialogBuilder extends XFormDialogBuilder {
     private String name;
     private SwingXFormDialog dialog;
+    private Action okAction;
 
     public SwingXScrollableFormDialogBuilder(String name) {
         this.name = name;
@@ -79,7 +80,8 @@ public class SwingXScrollableFormDialogBuilder extends XFormDialogBuilder {
     @Override
     public ActionList buildOkCancelActions() {
         DefaultActionList actions = new DefaultActionList("Actions");
-        actions.addAction(new OKAction());
+        okAction = new OKAction();
+        actions.addAction(okAction);
         actions.addAction(new CancelAction());
         return actions;
     }
@@ -88,7 +90,7 @@ public class SwingXScrollableFormDialogBuilder extends XFormDialogBuilder {
     public ActionList buildOkCancelHelpActions(String url) {
         DefaultActionList actions = new DefaultActionList("Actions");
         actions.addAction(new ShowOnlineHelpAction(url));
-        OKAction okAction = new OKAction();
+        okAction = new OKAction();
         actions.addAction(okAction);
         actions.addAction(new CancelAction());
         actions.setDefaultAction(okAction);
@@ -102,6 +104,13 @@ public class SwingXScrollableFormDialogBuilder extends XFormDialogBuilder {
         return actions;
     }
 
+    /**
+     * Returns the OK action of the last built action list, it can be disabled while the form is not complete yet.
+     */
+    public Action getOkAction() {
+        return okAction;
+    }
+
     protected final class OKAction extends AbstractAction {
         public OKAction() {
             super("OK");
@@ -49,6 +49,9 @@ public class SwingXScrollableFormImpl implements XForm {
     private RowSpec rowSpec;
     private int rowSpacing = 5;
     private Map<String, XFormField> components = new LinkedHashMap<>();
+    private List<FormSection> sections = new ArrayList<>();
+    private List<SwingXScrollableFormImpl> nestedForms = new ArrayList<>();
+    private SwingXScrollableFormImpl parentForm;
     private String rowAlignment = "top";
     private String name;
 
@@ -57,11 +60,26 @@ public class SwingXScrollableFormImpl implements XForm {
     }
 
     public SwingXScrollableFormImpl(String name, int leftIndent) {
+        this(name, leftIndent, true);
+    }
+
+    /*
+     * Non-scrollable forms are nested in a scrollable one (collapsible sections, groups of fields added later),
+     * their fields are also registered in the parent form so that it returns and validates them.
+     */
+    SwingXScrollableFormImpl(String name, int leftIndent, SwingXScrollableFormImpl parentForm) {
+        this(name, leftIndent, parentForm == null);
+        this.parentForm = parentForm;
+    }
+
+    private SwingXScrollableFormImpl(String name, int leftIndent, boolean scrollable) {
         this.name = name;
         layout = new FormLayout(leftIndent + "px,left:pref,5px,left:default,5px:grow(1.0)");
         panel = new JPanel(layout);
-        scrollPane = new JScrollPane(panel);
-        scrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+        if (scrollable) {
+            scrollPane = new JScrollPane(panel);
+            scrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
+        }
         rowSpec = new RowSpec(rowAlignment + ":pref");
     }
 
@@ -94,6 +112,75 @@ public class SwingXScrollableFormImpl implements XForm {
         return scrollPane;
     }
 
+    JPanel getPanel() {
+        return panel;
+    }
+
+    /**
+     * Adds a collapsed section whose fields are only created when it is expanded or when one of them is
+     * requested through {@link #getFormField(String)}. Until then the fields are not part of
+     * {@link #getValues()} and {@link #getFormFields()}, so only optional fields should be put there.
+     */
+    public FormSection addSection(String title) {
+        if (rowSpacing > 0 && !components.isEmpty()) {
+            addSpace(rowSpacing);
+        }
+        FormSection section = new FormSection(this, title);
+        nestedForms.add(section.getForm());
+        layout.appendRow(rowSpec);
+        panel.add(section.getHeader(), cc.xyw(2, layout.getRowCount(), 3));
+        layout.appendRow(rowSpec);
+        panel.add(section.getContent(), cc.xyw(2, layout.getRowCount(), 4));
+        sections.add(section);
+        return section;
+    }
+
+    /**
+     * Adds a group of fields which can be filled after the dialog has been shown, for instance when the data
+     * they depend on arrives. The fields are part of this form as if they had been added to it directly.
+     */
+    public SwingXScrollableFormImpl addNestedForm(String name) {
+        if (rowSpacing > 0 && !components.isEmpty()) {
+            addSpace(rowSpacing);
+        }
+        SwingXScrollableFormImpl nestedForm = new SwingXScrollableFormImpl(name, 0, this);
+        layout.appendRow(rowSpec);
+        panel.add(nestedForm.getPanel(), cc.xyw(2, layout.getRowCount(), 4));
+        nestedForms.add(nestedForm);
+        return nestedForm;
+    }
+
+    void registerSectionField(String label, XFormField field) {
+        components.put(label, field);
+        if (parentForm != null) {
+            parentForm.registerSectionField(label, field);
+        }
+    }
+
+    void sectionChanged() {
+        panel.revalidate();
+        panel.repaint();
+        if (parentForm != null) {
+            parentForm.sectionChanged();
+        }
+    }
+
+    private XFormField materializeSectionField(String label) {
+        for (FormSection section : sections) {
+            if (section.containsField(label)) {
+                section.materialize();
+                return components.get(label);
+            }
+        }
+        for (SwingXScrollableFormImpl nestedForm : nestedForms) {
+            XFormField field = nestedForm.materializeSectionField(label);
+            if (field != null) {
+                return field;
+            }
+        }
+        return null;
+    }
+
     public void addSpace(int size) {
         if (size > 0) {
             layout.appendRow(new RowSpec(size + "px"));
@@ -160,6 +247,11 @@ public class SwingXScrollableFormImpl implements XForm {
         }
 
         components.put(label, formComponent);
+        if (parentForm != null) {
+            parentForm.registerSectionField(label, formComponent);
+            //the form may already be shown
+            sectionChanged();
+        }
 
         return formComponent;
     }
@@ -168,13 +260,20 @@ public class SwingXScrollableFormImpl implements XForm {
         JComponent component = ((AbstractSwingXFormField<?>) field).getComponent();
         CellConstraints cell = layout.getConstraints(component);
         component.setVisible(visibility);
+        //the first component of a form has no spacing row above it
+        boolean hasSpacingRow = cell.gridY > 1;
         if (visibility) {
             layout.setRowSpec(cell.gridY, rowSpec);
-            layout.setRowSpec(cell.gridY - 1, new RowSpec(rowSpacing + "px"));
+            if (hasSpacingRow) {
+                layout.setRowSpec(cell.gridY - 1, new RowSpec(rowSpacing + "px"));
+            }
         } else {
             layout.setRowSpec(cell.gridY, new RowSpec(Sizes.pixel(0)));
-            layout.setRowSpec(cell.gridY - 1, new RowSpec(Sizes.pixel(0)));
+            if (hasSpacingRow) {
+                layout.setRowSpec(cell.gridY - 1, new RowSpec(Sizes.pixel(0)));
+            }
         }
+        sectionChanged();
     }
 
     public boolean getComponentVisibility(XFormField field) {
@@ -261,7 +360,8 @@ public class SwingXScrollableFormImpl implements XForm {
     }
 
     public XFormField getComponent(String label) {
-        return components.get(label);
+        XFormField field = components.get(label);
+        return field != null ? field : materializeSectionField(label);
     }
 
     public void setBorder(Border border) {
@@ -334,7 +434,7 @@ public class SwingXScrollableFormImpl implements XForm {
     }
 
     public XFormField getFormField(String name) {
-        return components.get(name);
+        return getComponent(name);
     }
 
     private List<FileFilter> getDefinitionManagerFilters() {
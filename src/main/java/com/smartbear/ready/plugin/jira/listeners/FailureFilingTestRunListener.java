@@ -0,0 +1,58 @@
+package com.smartbear.ready.plugin.jira.listeners;
+
+import com.eviware.soapui.model.support.TestRunListenerAdapter;
+import com.eviware.soapui.model.testsuite.Assertable;
+import com.eviware.soapui.model.testsuite.TestAssertion;
+import com.eviware.soapui.model.testsuite.TestCase;
+import com.eviware.soapui.model.testsuite.TestCaseRunContext;
+import com.eviware.soapui.model.testsuite.TestCaseRunner;
+import com.eviware.soapui.model.testsuite.TestRunner;
+import com.eviware.soapui.model.testsuite.TestStep;
+import com.eviware.soapui.model.testsuite.TestStepResult;
+import com.eviware.soapui.plugins.ListenerConfiguration;
+import com.smartbear.ready.plugin.jira.headless.FailureEvent;
+import com.smartbear.ready.plugin.jira.headless.HeadlessFilingConfig;
+import com.smartbear.ready.plugin.jira.headless.HeadlessIssueFiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reports failed test cases to the {@link HeadlessIssueFiler}, in the command-line runner as well as in the IDE.
+ * Only copies a few values from the runner into a queued event, JIRA is never called on the test thread. Does
+ * nothing when the {@value HeadlessFilingConfig#CONFIG_FILE_PROPERTY} system property is not set.
+ */
+@ListenerConfiguration
+public class FailureFilingTestRunListener extends TestRunListenerAdapter {
+    @Override
+    public void afterRun(TestCaseRunner testRunner, TestCaseRunContext runContext) {
+        if (!HeadlessFilingConfig.isConfigured() || testRunner.getStatus() != TestRunner.Status.FAILED) {
+            return;
+        }
+        HeadlessIssueFiler filer = HeadlessIssueFiler.getInstance();
+        if (filer == null) {
+            return;
+        }
+        TestCase testCase = testRunner.getTestCase();
+        List<String> failedSteps = new ArrayList<>();
+        List<String> failedAssertions = new ArrayList<>();
+        for (TestStepResult result : testRunner.getResults()) {
+            if (result.getStatus() == TestStepResult.TestStepStatus.FAILED) {
+                TestStep testStep = result.getTestStep();
+                failedSteps.add(testStep.getName() + " (" + result.getTimeTaken() + " ms): " +
+                        Arrays.toString(result.getMessages()));
+                if (testStep instanceof Assertable) {
+                    for (TestAssertion assertion : ((Assertable) testStep).getAssertionList()) {
+                        if (assertion.getStatus() == Assertable.AssertionStatus.FAILED) {
+                            failedAssertions.add(testStep.getName() + "/" + assertion.getName());
+                        }
+                    }
+                }
+            }
+        }
+        filer.submit(new FailureEvent(testCase.getTestSuite().getProject().getName(), testCase.getTestSuite().getName(),
+                testCase.getName(), testRunner.getReason(), failedSteps, failedAssertions, System.currentTimeMillis(),
+                testRunner.getTimeTaken()));
+    }
+}
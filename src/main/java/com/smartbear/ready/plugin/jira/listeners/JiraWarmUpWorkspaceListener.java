@@ -0,0 +1,26 @@
+package com.smartbear.ready.plugin.jira.listeners;
+
+import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.model.project.Project;
+import com.eviware.soapui.model.support.WorkspaceListenerAdapter;
+import com.eviware.soapui.plugins.ListenerConfiguration;
+import com.smartbear.ready.plugin.jira.cache.MetadataPrefetcher;
+import com.smartbear.ready.plugin.jira.settings.ServerProfiles;
+import com.smartbear.ready.plugin.jira.sync.IssueStatusSyncService;
+import com.smartbear.ready.plugin.jira.sync.LinkedIssues;
+import com.smartbear.ready.plugin.jira.sync.WebhookReceiver;
+
+@ListenerConfiguration
+public class JiraWarmUpWorkspaceListener extends WorkspaceListenerAdapter {
+    @Override
+    public void projectOpened(Project project) {
+        if (SoapUI.isCommandLine()) {
+            return;
+        }
+        String profileName = ServerProfiles.getProfileName(project);
+        MetadataPrefetcher.getInstance().warmUp(profileName);
+        IssueStatusSyncService.getInstance().register(profileName, LinkedIssues.collectIssueKeys(project));
+        IssueStatusSyncService.getInstance().start();
+        WebhookReceiver.startIfConfigured(IssueStatusSyncService.getInstance());
+    }
+}
@@ -0,0 +1,48 @@
+package com.smartbear.ready.plugin.jira.metrics;
+
+import com.smartbear.ready.plugin.jira.trace.FlowTracer;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CacheMetrics implements CacheMetricsMBean {
+    private final String name;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    CacheMetrics(String name) {
+        this.name = name;
+    }
+
+    public void hit() {
+        hits.incrementAndGet();
+        FlowTracer.getInstance().recordCacheLookup(name, true);
+    }
+
+    public void miss() {
+        misses.incrementAndGet();
+        FlowTracer.getInstance().recordCacheLookup(name, false);
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public void reset() {
+        hits.set(0);
+        misses.set(0);
+    }
+}
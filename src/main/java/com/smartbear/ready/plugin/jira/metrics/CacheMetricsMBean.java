@@ -0,0 +1,14 @@
+package com.smartbear.ready.plugin.jira.metrics;
+
+public interface CacheMetricsMBean {
+    long getHits();
+
+    long getMisses();
+
+    /**
+     * Share of the lookups answered from the cache, from 0 to 1; 0 if there have been none.
+     */
+    double getHitRate();
+
+    void reset();
+}
@@ -0,0 +1,107 @@
+package com.smartbear.ready.plugin.jira.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histogram (in microseconds, 3 significant digits) and counters of one JIRA REST endpoint.
+ */
+public class EndpointMetrics implements EndpointMetricsMBean {
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Histogram latencies = new ConcurrentHistogram(3);
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong payloadBytes = new AtomicLong();
+    private final ConcurrentHashMap<Integer, AtomicLong> errorsByStatus = new ConcurrentHashMap<>();
+
+    void recordSuccess(long latencyMicros) {
+        latencies.recordValue(latencyMicros);
+    }
+
+    void recordFailure(long latencyMicros, int status) {
+        latencies.recordValue(latencyMicros);
+        errors.incrementAndGet();
+        AtomicLong counter = errorsByStatus.get(status);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = errorsByStatus.putIfAbsent(status, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    void recordPayload(long bytes) {
+        payloadBytes.addAndGet(bytes);
+    }
+
+    public Histogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public long getRequestCount() {
+        return latencies.getTotalCount();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    @Override
+    public String getErrorCountsByStatus() {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<Integer, AtomicLong> entry : new TreeMap<>(errorsByStatus).entrySet()) {
+            if (result.length() > 0) {
+                result.append(", ");
+            }
+            result.append(entry.getKey()).append('=').append(entry.getValue().get());
+        }
+        return result.toString();
+    }
+
+    @Override
+    public long getPayloadBytes() {
+        return payloadBytes.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return latencies.getMean() / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return latencies.getValueAtPercentile(50) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return latencies.getValueAtPercentile(90) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return latencies.getValueAtPercentile(99) / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return latencies.getMaxValue() / MICROS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        latencies.reset();
+        errors.set(0);
+        payloadBytes.set(0);
+        errorsByStatus.clear();
+    }
+}
@@ -0,0 +1,30 @@
+package com.smartbear.ready.plugin.jira.metrics;
+
+public interface EndpointMetricsMBean {
+    long getRequestCount();
+
+    long getErrorCount();
+
+    /**
+     * Failed requests by HTTP status, for instance "400=2, 500=1"; failures without a response are counted as
+     * status 0.
+     */
+    String getErrorCountsByStatus();
+
+    /**
+     * Bytes sent, only known for the requests which upload a body of a known size, such as attachments.
+     */
+    long getPayloadBytes();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    void reset();
+}
@@ -0,0 +1,207 @@
+package com.smartbear.ready.plugin.jira.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Emits JDK Flight Recorder events for the phases of the item creation flow and for the JIRA REST calls, so a
+ * recording of a slow session shows where the time goes next to the GC and thread events.
+ * <p>
+ * The plugin is compiled for Java 7, so the event types are defined at runtime with {@code jdk.jfr.EventFactory}
+ * through reflection. On a JVM without it (before 8u262 or 11) every span is a no-op, as are the spans started
+ * while no recording has the events enabled.
+ */
+public class FlightRecorderEvents {
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderEvents.class);
+
+    public static final String PHASE_EVENT_NAME = "com.smartbear.ready.plugin.jira.Phase";
+    public static final String REQUEST_EVENT_NAME = "com.smartbear.ready.plugin.jira.Request";
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String CANCELLED = "cancelled";
+
+    private static final String CATEGORY = "JIRA Integration";
+
+    //the fields of both event types, in the order of their indexes
+    private static final int NAME = 0;
+    private static final int PROJECT_KEY = 1;
+    private static final int ISSUE_TYPE = 2;
+    private static final int ISSUE_KEY = 3;
+    private static final int BYTES = 4;
+    private static final int STATUS = 5;
+    private static final int OUTCOME = 6;
+    private static final String[] FIELD_NAMES = {"name", "projectKey", "issueType", "issueKey", "bytes", "status", "outcome"};
+    private static final Class<?>[] FIELD_TYPES = {String.class, String.class, String.class, String.class, long.class, int.class, String.class};
+
+    public enum Phase {
+        INITIAL_LOAD("initialLoad"),
+        CREATEMETA("createmeta"),
+        FORM_BUILD("formBuild"),
+        CREATE("create"),
+        COMMENT("comment"),
+        ATTACHMENT("attachment");
+
+        private final String eventName;
+
+        Phase(String eventName) {
+            this.eventName = eventName;
+        }
+
+        public String getEventName() {
+            return eventName;
+        }
+    }
+
+    private static final Span NO_OP_SPAN = new Span(null);
+
+    private static Object phaseFactory;
+    private static Object requestFactory;
+    private static Method newEventMethod;
+    private static Method isEnabledMethod;
+    private static Method beginMethod;
+    private static Method setMethod;
+    private static Method commitMethod;
+
+    static {
+        try {
+            Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            phaseFactory = createFactory(eventFactoryClass, PHASE_EVENT_NAME, "Item Creation Phase",
+                    "A phase of creating a JIRA item from the dialog, including its REST calls");
+            requestFactory = createFactory(eventFactoryClass, REQUEST_EVENT_NAME, "JIRA Request",
+                    "A JIRA REST call, from sending the request to parsing the response");
+            newEventMethod = eventFactoryClass.getMethod("newEvent");
+            isEnabledMethod = eventClass.getMethod("isEnabled");
+            beginMethod = eventClass.getMethod("begin");
+            setMethod = eventClass.getMethod("set", int.class, Object.class);
+            commitMethod = eventClass.getMethod("commit");
+        } catch (ClassNotFoundException e) {
+            logger.debug("JDK Flight Recorder is not available, no events are emitted");
+            phaseFactory = null;
+            requestFactory = null;
+        } catch (Exception | LinkageError e) {
+            logger.warn("Unable to define the JDK Flight Recorder events: " + e);
+            phaseFactory = null;
+            requestFactory = null;
+        }
+    }
+
+    private FlightRecorderEvents() {
+    }
+
+    public static boolean isAvailable() {
+        return phaseFactory != null;
+    }
+
+    public static Span beginPhase(Phase phase, String projectKey, String issueType) {
+        return begin(phaseFactory, phase.getEventName()).setProjectKey(projectKey).setIssueType(issueType);
+    }
+
+    public static Span beginRequest(JiraMetrics.Endpoint endpoint) {
+        return begin(requestFactory, endpoint.getMetricName());
+    }
+
+    private static Span begin(Object factory, String name) {
+        if (factory == null) {
+            return NO_OP_SPAN;
+        }
+        try {
+            Object event = newEventMethod.invoke(factory);
+            if (!(Boolean) isEnabledMethod.invoke(event)) {
+                return NO_OP_SPAN;
+            }
+            setMethod.invoke(event, NAME, name);
+            beginMethod.invoke(event);
+            return new Span(event);
+        } catch (Exception e) {
+            return NO_OP_SPAN;
+        }
+    }
+
+    private static Object createFactory(Class<?> eventFactoryClass, String name, String label, String description)
+            throws Exception {
+        ClassLoader loader = eventFactoryClass.getClassLoader();
+        Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement", true, loader);
+        Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor", true, loader);
+        Constructor<?> annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+        Constructor<?> valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class);
+
+        String[] categories = {CATEGORY};
+        List<Object> annotations = new ArrayList<>(Arrays.asList(
+                annotationElement.newInstance(Class.forName("jdk.jfr.Name", true, loader), name),
+                annotationElement.newInstance(Class.forName("jdk.jfr.Label", true, loader), label),
+                annotationElement.newInstance(Class.forName("jdk.jfr.Description", true, loader), description),
+                annotationElement.newInstance(Class.forName("jdk.jfr.Category", true, loader), categories),
+                //the stack would only show the reflective commit
+                annotationElement.newInstance(Class.forName("jdk.jfr.StackTrace", true, loader), false)));
+        List<Object> fields = new ArrayList<>();
+        for (int i = 0; i < FIELD_NAMES.length; i++) {
+            fields.add(valueDescriptor.newInstance(FIELD_TYPES[i], FIELD_NAMES[i]));
+        }
+        return eventFactoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+    }
+
+    /**
+     * An event in progress; committed by {@link #end}. The setters return the span for chaining.
+     */
+    public static class Span {
+        private final Object event;
+
+        private Span(Object event) {
+            this.event = event;
+        }
+
+        public Span setProjectKey(String projectKey) {
+            return set(PROJECT_KEY, projectKey);
+        }
+
+        public Span setIssueType(String issueType) {
+            return set(ISSUE_TYPE, issueType);
+        }
+
+        public Span setIssueKey(String issueKey) {
+            return set(ISSUE_KEY, issueKey);
+        }
+
+        public Span setBytes(long bytes) {
+            return set(BYTES, bytes);
+        }
+
+        public Span setStatus(int status) {
+            return set(STATUS, status);
+        }
+
+        public void end(String outcome) {
+            if (event == null) {
+                return;
+            }
+            set(OUTCOME, outcome);
+            try {
+                commitMethod.invoke(event);
+            } catch (Exception e) {
+                logger.debug("Unable to commit a JDK Flight Recorder event: " + e);
+            }
+        }
+
+        public void end(boolean success) {
+            end(success ? SUCCESS : FAILURE);
+        }
+
+        private Span set(int index, Object value) {
+            if (event != null) {
+                try {
+                    setMethod.invoke(event, index, value);
+                } catch (Exception e) {
+                    logger.debug("Unable to set a JDK Flight Recorder event field: " + e);
+                }
+            }
+            return this;
+        }
+    }
+}
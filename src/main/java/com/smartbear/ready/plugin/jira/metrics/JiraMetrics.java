@@ -0,0 +1,198 @@
+package com.smartbear.ready.plugin.jira.metrics;
+
+import com.atlassian.jira.rest.client.api.RestClientException;
+import com.atlassian.util.concurrent.Promise;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.smartbear.ready.plugin.jira.trace.FlowTracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencies, errors and payload sizes of the JIRA REST calls and the hit rates of the metadata caches, published
+ * as MBeans under the {@value #DOMAIN} domain, so they can be read with JConsole or a JMX exporter from both the
+ * IDE and the command-line runner.
+ */
+public class JiraMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(JiraMetrics.class);
+    public static final String DOMAIN = "com.smartbear.ready.plugin.jira";
+
+    public enum Endpoint {
+        PROJECTS("projects", "rest/api/2/project"),
+        PROJECT("project", "rest/api/2/project/{key}"),
+        PROJECT_SEARCH("projectSearch", "rest/api/2/project/search"),
+        PRIORITIES("priorities", "rest/api/2/priority"),
+        CREATEMETA("createmeta", "rest/api/2/issue/createmeta"),
+        CREATE_ISSUE("createIssue", "rest/api/2/issue"),
+        GET_ISSUE("getIssue", "rest/api/2/issue/{key}"),
+        ATTACH("attach", "rest/api/2/issue/{key}/attachments"),
+        COMMENT("comment", "rest/api/2/issue/{key}/comment"),
+        TRANSITIONS("transitions", "rest/api/2/issue/{key}/transitions"),
+        TRANSITION("transition", "rest/api/2/issue/{key}/transitions"),
+        USER_SEARCH("userSearch", "rest/api/2/user/search"),
+        ASSIGNABLE_USER_SEARCH("assignableUserSearch", "rest/api/2/user/assignable/search"),
+        ISSUE_SEARCH("issueSearch", "rest/api/2/search");
+
+        private final String metricName;
+        private final String uriTemplate;
+
+        Endpoint(String metricName, String uriTemplate) {
+            this.metricName = metricName;
+            this.uriTemplate = uriTemplate;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+
+        public String getUriTemplate() {
+            return uriTemplate;
+        }
+    }
+
+    public enum Cache {
+        PROJECTS("projects"),
+        PROJECT_CATALOG("projectCatalog"),
+        PRIORITIES("priorities"),
+        PROJECT_FIELDS("projectFields"),
+        FORM_TEMPLATES("formTemplates");
+
+        private final String metricName;
+
+        Cache(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private static final Map<Endpoint, EndpointMetrics> endpoints = new EnumMap<>(Endpoint.class);
+    private static final Map<Cache, CacheMetrics> caches = new EnumMap<>(Cache.class);
+
+    static {
+        for (Endpoint endpoint : Endpoint.values()) {
+            endpoints.put(endpoint, new EndpointMetrics());
+        }
+        for (Cache cache : Cache.values()) {
+            caches.put(cache, new CacheMetrics(cache.getMetricName()));
+        }
+        registerMBeans();
+    }
+
+    private JiraMetrics() {
+    }
+
+    public static EndpointMetrics getEndpointMetrics(Endpoint endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    public static CacheMetrics cache(Cache cache) {
+        return caches.get(cache);
+    }
+
+    /**
+     * The size of a request body, read once the request has completed.
+     */
+    public interface PayloadSize {
+        long getBytes();
+    }
+
+    /**
+     * Records the latency and the outcome of the request when the promise completes and returns the same promise,
+     * so a call can be wrapped in place: {@code track(Endpoint.PROJECTS, client.getAllProjects()).get()}.
+     * The call is also emitted as a flight recorder event, committed on the thread which completes the promise,
+     * and recorded as a span of the flow in progress on the calling thread.
+     */
+    public static <T> Promise<T> track(Endpoint endpoint, Promise<T> promise) {
+        return track(endpoint, promise, null);
+    }
+
+    /**
+     * Same as {@link #track(Endpoint, Promise)} for a request with a body, the payload size of the endpoint is
+     * recorded as well.
+     */
+    public static <T> Promise<T> track(final Endpoint endpoint, final Promise<T> promise,
+                                       final PayloadSize payloadSize) {
+        final long startMillis = System.currentTimeMillis();
+        final long start = System.nanoTime();
+        final FlowTracer.Flow flow = FlowTracer.getInstance().beginRequest();
+        final FlightRecorderEvents.Span span = FlightRecorderEvents.beginRequest(endpoint);
+        promise.addListener(new Runnable() {
+            @Override
+            public void run() {
+                long duration = System.nanoTime() - start;
+                long latencyMicros = TimeUnit.NANOSECONDS.toMicros(duration);
+                long bytes = payloadSize == null ? FlowTracer.NO_BYTES : payloadSize.getBytes();
+                if (payloadSize != null) {
+                    endpoints.get(endpoint).recordPayload(bytes);
+                }
+                boolean success = false;
+                int status = 0;
+                try {
+                    promise.get();
+                    success = true;
+                    endpoints.get(endpoint).recordSuccess(latencyMicros);
+                    span.end(FlightRecorderEvents.SUCCESS);
+                } catch (ExecutionException e) {
+                    status = getStatusCode(e.getCause());
+                    endpoints.get(endpoint).recordFailure(latencyMicros, status);
+                    span.setStatus(status).end(FlightRecorderEvents.FAILURE);
+                } catch (InterruptedException e) {
+                    //cannot happen, the promise is done
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    //a cancelled promise
+                    endpoints.get(endpoint).recordFailure(latencyMicros, 0);
+                    span.end(FlightRecorderEvents.CANCELLED);
+                }
+                FlowTracer.getInstance().recordRequest(flow, endpoint.getMetricName(), endpoint.getUriTemplate(),
+                        startMillis, duration, bytes, success, status);
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        return promise;
+    }
+
+    private static int getStatusCode(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RestClientException) {
+                RestClientException restClientException = (RestClientException) cause;
+                return restClientException.getStatusCode().isPresent() ? restClientException.getStatusCode().get() : 0;
+            }
+        }
+        return 0;
+    }
+
+    //a previous instance of the plugin may have left its MBeans registered, they are replaced
+    private static void registerMBeans() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            for (Map.Entry<Endpoint, EndpointMetrics> endpoint : endpoints.entrySet()) {
+                register(server, new ObjectName(DOMAIN + ":type=Endpoint,name=" + endpoint.getKey().getMetricName()),
+                        endpoint.getValue());
+            }
+            for (Map.Entry<Cache, CacheMetrics> cache : caches.entrySet()) {
+                register(server, new ObjectName(DOMAIN + ":type=Cache,name=" + cache.getKey().getMetricName()),
+                        cache.getValue());
+            }
+        } catch (JMException | SecurityException e) {
+            logger.warn("Unable to publish the JIRA metrics over JMX: " + e.getMessage());
+        }
+    }
+
+    private static void register(MBeanServer server, ObjectName name, Object mbean) throws JMException {
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(mbean, name);
+    }
+}
@@ -0,0 +1,69 @@
+package com.smartbear.ready.plugin.jira.parsers;
+
+import com.atlassian.jira.rest.client.internal.json.JsonObjectParser;
+import com.atlassian.jira.rest.client.internal.json.JsonParseUtil;
+import com.smartbear.ready.plugin.jira.clients.IssueDigest;
+import com.smartbear.ready.plugin.jira.clients.IssueSearchPage;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the result of a search requested with a few fields only, such as
+ * {@link com.smartbear.ready.plugin.jira.clients.AsynchronousIssueSearchRestClient#DIGEST_FIELDS}. Missing fields
+ * are left empty instead of failing the whole page.
+ */
+public class IssueSearchPageJsonParser implements JsonObjectParser<IssueSearchPage> {
+
+    @Override
+    public IssueSearchPage parse(JSONObject json) throws JSONException {
+        JSONArray issuesJson = json.getJSONArray("issues");
+        List<IssueDigest> issues = new ArrayList<>(issuesJson.length());
+        for (int i = 0; i < issuesJson.length(); i++) {
+            issues.add(parseIssue(issuesJson.getJSONObject(i)));
+        }
+        int startAt = json.optInt("startAt", 0);
+        int total = json.optInt("total", startAt + issues.size());
+        return new IssueSearchPage(issues, startAt, total);
+    }
+
+    private IssueDigest parseIssue(JSONObject json) throws JSONException {
+        String key = json.getString("key");
+        JSONObject fields = json.optJSONObject("fields");
+        if (fields == null) {
+            fields = new JSONObject();
+        }
+        JSONObject project = fields.optJSONObject("project");
+        String projectKey = project == null ? key.substring(0, Math.max(0, key.lastIndexOf('-'))) :
+                project.getString("key");
+        JSONObject issueType = fields.optJSONObject("issuetype");
+        JSONObject status = fields.optJSONObject("status");
+        JSONObject resolution = fields.optJSONObject("resolution");
+        JSONObject assignee = fields.optJSONObject("assignee");
+        String updated = JsonParseUtil.getOptionalString(fields, "updated");
+        return new IssueDigest(key, projectKey,
+                issueType == null ? null : JsonParseUtil.getOptionalString(issueType, "name"),
+                JsonParseUtil.getOptionalString(fields, "summary"),
+                JsonParseUtil.getOptionalString(fields, "description"),
+                status == null ? null : JsonParseUtil.getOptionalString(status, "name"),
+                resolution == null ? null : JsonParseUtil.getOptionalString(resolution, "name"),
+                assignee == null ? null : JsonParseUtil.getOptionalString(assignee, "displayName"),
+                parseLabels(fields.optJSONArray("labels")),
+                updated == null ? 0 : JsonParseUtil.parseDateTime(updated).getMillis());
+    }
+
+    private List<String> parseLabels(JSONArray labels) throws JSONException {
+        if (labels == null || labels.length() == 0) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>(labels.length());
+        for (int i = 0; i < labels.length(); i++) {
+            result.add(labels.getString(i));
+        }
+        return result;
+    }
+}
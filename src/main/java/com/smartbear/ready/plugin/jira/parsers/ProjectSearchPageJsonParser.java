@@ -0,0 +1,30 @@
+package com.smartbear.ready.plugin.jira.parsers;
+
+import com.atlassian.jira.rest.client.api.domain.BasicProject;
+import com.atlassian.jira.rest.client.internal.json.BasicProjectJsonParser;
+import com.atlassian.jira.rest.client.internal.json.JsonObjectParser;
+import com.smartbear.ready.plugin.jira.clients.ProjectSearchPage;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProjectSearchPageJsonParser implements JsonObjectParser<ProjectSearchPage> {
+
+    private final BasicProjectJsonParser basicProjectJsonParser = new BasicProjectJsonParser();
+
+    @Override
+    public ProjectSearchPage parse(JSONObject json) throws JSONException {
+        JSONArray values = json.getJSONArray("values");
+        List<BasicProject> projects = new ArrayList<>(values.length());
+        for (int i = 0; i < values.length(); i++) {
+            projects.add(basicProjectJsonParser.parse(values.getJSONObject(i)));
+        }
+        int startAt = json.optInt("startAt", 0);
+        int total = json.optInt("total", startAt + projects.size());
+        boolean last = json.optBoolean("isLast", startAt + projects.size() >= total);
+        return new ProjectSearchPage(projects, startAt, total, last);
+    }
+}
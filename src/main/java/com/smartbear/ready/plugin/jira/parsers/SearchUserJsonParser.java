@@ -5,14 +5,17 @@ import com.atlassian.jira.rest.client.internal.json.*;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
 
+import java.util.Iterator;
+
 public class SearchUserJsonParser implements JsonArrayParser<User> {
 
-    private final UserJsonParser userJsonParser = new UserJsonParser();
+    private final UserArrayJsonParser userArrayJsonParser = new UserArrayJsonParser();
 
     @Override
     public User parse(JSONArray json) throws JSONException {
-        if (json.length() > 0) {
-            return userJsonParser.parse(json.getJSONObject(0));
+        Iterator<User> users = userArrayJsonParser.parse(json).iterator();
+        if (users.hasNext()) {
+            return users.next();
         }
         return null;
     }
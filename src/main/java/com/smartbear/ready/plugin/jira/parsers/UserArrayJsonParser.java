@@ -0,0 +1,60 @@
+package com.smartbear.ready.plugin.jira.parsers;
+
+import com.atlassian.jira.rest.client.api.domain.User;
+import com.atlassian.jira.rest.client.internal.json.JsonArrayParser;
+import com.atlassian.jira.rest.client.internal.json.UserJsonParser;
+import org.codehaus.jettison.json.JSONArray;
+import org.codehaus.jettison.json.JSONException;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Parses a user search response lazily: each element of the array is turned into a {@link User} only when the
+ * iterator reaches it, so callers which stop early (or just count) never build the whole list of users.
+ */
+public class UserArrayJsonParser implements JsonArrayParser<Iterable<User>> {
+
+    private final UserJsonParser userJsonParser = new UserJsonParser();
+
+    @Override
+    public Iterable<User> parse(final JSONArray json) throws JSONException {
+        return new Iterable<User>() {
+            @Override
+            public Iterator<User> iterator() {
+                return new UserIterator(json);
+            }
+        };
+    }
+
+    private class UserIterator implements Iterator<User> {
+        private final JSONArray json;
+        private int position = 0;
+
+        UserIterator(JSONArray json) {
+            this.json = json;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < json.length();
+        }
+
+        @Override
+        public User next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return userJsonParser.parse(json.getJSONObject(position++));
+            } catch (JSONException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
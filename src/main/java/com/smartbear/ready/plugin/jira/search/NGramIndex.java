@@ -0,0 +1,146 @@
+package com.smartbear.ready.plugin.jira.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive substring index over a growing list of strings. Every value is split into trigrams and each
+ * trigram keeps the ascending list of ids of the values containing it, so a query only has to verify the values
+ * of its rarest trigram instead of scanning everything. Queries shorter than a trigram are answered by a scan,
+ * which is still cheap for such queries since most values match them anyway and the scan stops at the limit.
+ * <p>
+ * Prefix matches are returned before the other substring matches; within each group values keep the order in
+ * which they were added. Not thread safe: values are added and searched on the same (usually the event
+ * dispatch) thread.
+ */
+public class NGramIndex {
+    private static final int GRAM_SIZE = 3;
+
+    private final List<String> values = new ArrayList<>();
+    private final List<String> normalizedValues = new ArrayList<>();
+    private final Map<String, IntList> postings = new HashMap<>();
+
+    public NGramIndex() {
+    }
+
+    public NGramIndex(Object[] values) {
+        for (Object value : values) {
+            add(String.valueOf(value));
+        }
+    }
+
+    public int add(String value) {
+        int id = values.size();
+        String normalized = normalize(value);
+        values.add(value);
+        normalizedValues.add(normalized);
+        for (int i = 0; i + GRAM_SIZE <= normalized.length(); i++) {
+            String gram = normalized.substring(i, i + GRAM_SIZE);
+            IntList ids = postings.get(gram);
+            if (ids == null) {
+                ids = new IntList();
+                postings.put(gram, ids);
+            }
+            //a value may contain the same trigram several times, ids are added in ascending order
+            if (ids.size == 0 || ids.last() != id) {
+                ids.add(id);
+            }
+        }
+        return id;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public String get(int id) {
+        return values.get(id);
+    }
+
+    /**
+     * Returns up to {@code limit} ids of the values containing the query, prefix matches first.
+     * An empty query matches the first {@code limit} values.
+     */
+    public int[] search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (limit <= 0) {
+            return new int[0];
+        }
+        IntList prefixMatches = new IntList();
+        IntList otherMatches = new IntList();
+        if (normalizedQuery.length() < GRAM_SIZE) {
+            for (int id = 0; id < normalizedValues.size() && prefixMatches.size < limit; id++) {
+                collect(id, normalizedQuery, prefixMatches, otherMatches, limit);
+            }
+        } else {
+            IntList candidates = getRarestGramPostings(normalizedQuery);
+            if (candidates == null) {
+                return new int[0];
+            }
+            for (int i = 0; i < candidates.size && prefixMatches.size < limit; i++) {
+                collect(candidates.values[i], normalizedQuery, prefixMatches, otherMatches, limit);
+            }
+        }
+        int[] result = new int[Math.min(limit, prefixMatches.size + otherMatches.size)];
+        int prefixCount = Math.min(prefixMatches.size, result.length);
+        System.arraycopy(prefixMatches.values, 0, result, 0, prefixCount);
+        System.arraycopy(otherMatches.values, 0, result, prefixCount, result.length - prefixCount);
+        return result;
+    }
+
+    public List<String> searchValues(String query, int limit) {
+        int[] ids = search(query, limit);
+        List<String> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(values.get(id));
+        }
+        return result;
+    }
+
+    private void collect(int id, String normalizedQuery, IntList prefixMatches, IntList otherMatches, int limit) {
+        String value = normalizedValues.get(id);
+        if (value.startsWith(normalizedQuery)) {
+            prefixMatches.add(id);
+        } else if (otherMatches.size < limit && value.contains(normalizedQuery)) {
+            otherMatches.add(id);
+        }
+    }
+
+    private IntList getRarestGramPostings(String normalizedQuery) {
+        IntList rarest = null;
+        for (int i = 0; i + GRAM_SIZE <= normalizedQuery.length(); i++) {
+            IntList ids = postings.get(normalizedQuery.substring(i, i + GRAM_SIZE));
+            if (ids == null) {
+                return null;
+            }
+            if (rarest == null || ids.size < rarest.size) {
+                rarest = ids;
+            }
+        }
+        return rarest;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int last() {
+            return values[size - 1];
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.smartbear.ready.plugin.jira.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local index of the JIRA project keys and names used by the project picker. Key prefix matches come first,
+ * then projects whose key or name contains the query. Projects found by the server-side search are merged in
+ * with {@link #addProject(String, String)}.
+ */
+public class ProjectIndex {
+    public static final long STALE_AFTER_MS = 30 * 60 * 1000;
+
+    private final NGramIndex index = new NGramIndex();
+    private final List<String> keys = new ArrayList<>();
+    private final Map<String, String> names = new HashMap<>();
+    private final boolean complete;
+    private final long createdAt = System.currentTimeMillis();
+
+    /**
+     * @param complete false if the projects the index is built from are known to be only a part of the projects
+     *                 available to the user, in that case the picker also asks the server.
+     */
+    public ProjectIndex(boolean complete) {
+        this.complete = complete;
+    }
+
+    public synchronized void addProject(String key, String name) {
+        if (names.containsKey(key)) {
+            return;
+        }
+        String projectName = name == null ? "" : name;
+        names.put(key, projectName);
+        keys.add(key);
+        index.add(key + " " + projectName);
+    }
+
+    public synchronized boolean containsProject(String key) {
+        return names.containsKey(key);
+    }
+
+    public synchronized String getProjectName(String key) {
+        return names.get(key);
+    }
+
+    public synchronized List<String> search(String query, int limit) {
+        int[] ids = index.search(query == null ? "" : query.trim(), limit);
+        List<String> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(keys.get(id));
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return keys.size();
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns true once the index is older than {@value #STALE_AFTER_MS} ms, the provider then rebuilds it and the
+     * picker of a dialog still using it also asks the server.
+     */
+    public boolean isStale() {
+        return System.currentTimeMillis() - createdAt > STALE_AFTER_MS;
+    }
+}
@@ -0,0 +1,223 @@
+package com.smartbear.ready.plugin.jira.search;
+
+import com.smartbear.ready.plugin.jira.clients.IssueDigest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index of the recently updated issues of a project: the words of the summary, description, labels and
+ * status point to the issues containing them. It is filled by {@link com.smartbear.ready.plugin.jira.impl.JiraProvider#syncRecentIssues(String)}
+ * and searched on every change of the summary in the issue dialog, without any request. The last word of the
+ * query is matched as a prefix since it is usually still being typed.
+ */
+public class RecentIssuesIndex {
+    public static final int DEFAULT_CAPACITY = 1000;
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_WORD_LENGTH = 2;
+    private static final int SUMMARY_WEIGHT = 3;
+    private static final int LABEL_WEIGHT = 2;
+    private static final int TEXT_WEIGHT = 1;
+
+    public static class Match {
+        private final IssueDigest issue;
+        private final double score;
+
+        Match(IssueDigest issue, double score) {
+            this.issue = issue;
+            this.score = score;
+        }
+
+        public IssueDigest getIssue() {
+            return issue;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return issue.getKey() + " " + issue.getSummary() +
+                    (issue.getStatus() == null ? "" : " [" + issue.getStatus() + "]");
+        }
+    }
+
+    private static final Comparator<Match> BEST_FIRST = new Comparator<Match>() {
+        @Override
+        public int compare(Match first, Match second) {
+            int result = Double.compare(second.score, first.score);
+            return result != 0 ? result : Long.compare(second.issue.getUpdated(), first.issue.getUpdated());
+        }
+    };
+
+    private final int capacity;
+    //in the order of the updates, the least recently updated first
+    private final LinkedHashMap<String, IssueDigest> issues = new LinkedHashMap<>();
+    private final TreeMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    private volatile long lastSync = 0;
+
+    public RecentIssuesIndex() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RecentIssuesIndex(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds or replaces the issues; the index keeps the {@link #DEFAULT_CAPACITY} most recently updated ones.
+     */
+    public synchronized void addAll(List<IssueDigest> updatedIssues) {
+        List<IssueDigest> sorted = new ArrayList<>(updatedIssues);
+        Collections.sort(sorted, new Comparator<IssueDigest>() {
+            @Override
+            public int compare(IssueDigest first, IssueDigest second) {
+                return Long.compare(first.getUpdated(), second.getUpdated());
+            }
+        });
+        for (IssueDigest issue : sorted) {
+            IssueDigest previous = issues.remove(issue.getKey());
+            if (previous != null) {
+                removePostings(previous);
+            }
+            issues.put(issue.getKey(), issue);
+            addPostings(issue);
+        }
+        Iterator<IssueDigest> eldest = issues.values().iterator();
+        while (issues.size() > capacity && eldest.hasNext()) {
+            IssueDigest issue = eldest.next();
+            eldest.remove();
+            removePostings(issue);
+        }
+    }
+
+    public synchronized int size() {
+        return issues.size();
+    }
+
+    /**
+     * Time of the start of the last successful synchronization, 0 if there has been none.
+     */
+    public long getLastSync() {
+        return lastSync;
+    }
+
+    public void setLastSync(long lastSync) {
+        this.lastSync = lastSync;
+    }
+
+    /**
+     * Returns at most {@code limit} issues containing the words of the query, rare words and summary matches
+     * count more.
+     */
+    public synchronized List<Match> search(String query, int limit) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty() || issues.isEmpty()) {
+            return Collections.emptyList();
+        }
+        //the last word is still being typed unless it is followed by a separator
+        boolean lastWordComplete = !Character.isLetterOrDigit(query.charAt(query.length() - 1));
+        Map<String, Double> scores = new HashMap<>();
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            if (i == words.size() - 1 && !lastWordComplete) {
+                for (Map.Entry<String, Map<String, Integer>> posting : prefixPostings(word).entrySet()) {
+                    addScores(scores, posting.getValue());
+                }
+            } else {
+                Map<String, Integer> posting = postings.get(word);
+                if (posting != null) {
+                    addScores(scores, posting);
+                }
+            }
+        }
+        List<Match> matches = new ArrayList<>(scores.size());
+        for (Map.Entry<String, Double> score : scores.entrySet()) {
+            matches.add(new Match(issues.get(score.getKey()), score.getValue()));
+        }
+        Collections.sort(matches, BEST_FIRST);
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private SortedMap<String, Map<String, Integer>> prefixPostings(String prefix) {
+        return postings.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private void addScores(Map<String, Double> scores, Map<String, Integer> posting) {
+        double idf = Math.log(1 + (double) issues.size() / posting.size());
+        for (Map.Entry<String, Integer> entry : posting.entrySet()) {
+            Double score = scores.get(entry.getKey());
+            scores.put(entry.getKey(), (score == null ? 0 : score) + entry.getValue() * idf);
+        }
+    }
+
+    private void addPostings(IssueDigest issue) {
+        for (Map.Entry<String, Integer> word : getWordWeights(issue).entrySet()) {
+            Map<String, Integer> posting = postings.get(word.getKey());
+            if (posting == null) {
+                posting = new HashMap<>(4);
+                postings.put(word.getKey(), posting);
+            }
+            posting.put(issue.getKey(), word.getValue());
+        }
+    }
+
+    private void removePostings(IssueDigest issue) {
+        for (String word : getWordWeights(issue).keySet()) {
+            Map<String, Integer> posting = postings.get(word);
+            if (posting != null) {
+                posting.remove(issue.getKey());
+                if (posting.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+    }
+
+    //each word of an issue is weighted by the most important field it appears in
+    private static Map<String, Integer> getWordWeights(IssueDigest issue) {
+        Map<String, Integer> weights = new HashMap<>();
+        addWords(weights, issue.getDescription(), TEXT_WEIGHT);
+        addWords(weights, issue.getStatus(), TEXT_WEIGHT);
+        for (String label : issue.getLabels()) {
+            addWords(weights, label, LABEL_WEIGHT);
+        }
+        addWords(weights, issue.getKey(), SUMMARY_WEIGHT);
+        addWords(weights, issue.getSummary(), SUMMARY_WEIGHT);
+        return weights;
+    }
+
+    private static void addWords(Map<String, Integer> weights, String text, int weight) {
+        for (String word : new HashSet<>(tokenize(text))) {
+            Integer current = weights.get(word);
+            if (current == null || current < weight) {
+                weights.put(word, weight);
+            }
+        }
+    }
+
+    private static List<String> tokenize(String text) {
+        if (text == null) {
+            return Collections.emptyList();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
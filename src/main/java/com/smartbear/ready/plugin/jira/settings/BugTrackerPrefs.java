@@ -18,5 +18,11 @@ public interface BugTrackerPrefs {
 
     @Setting(name = JiraPrefsFactory.SKIP_RELEASED_VERSIONS, description = JiraPrefsFactory.SKIP_RELEASED_VERSIONS_DESCRIPTION)
     public final static String SKIP_VERSIONS = BugTrackerPrefs.class.getSimpleName() + "@" + "jira-skip-released-versions";
+
+    @Setting(name = JiraPrefsFactory.SERVER_PROFILES, description = JiraPrefsFactory.SERVER_PROFILES_DESCRIPTION)
+    public final static String SERVER_PROFILES = BugTrackerPrefs.class.getSimpleName() + "@" + "jira-server-profiles";
+
+    //not shown in the preferences dialog
+    public final static String RECENT_ISSUE_TYPES = BugTrackerPrefs.class.getSimpleName() + "@" + "jira-recent-issue-types";
 }
 
@@ -2,6 +2,8 @@ package com.smartbear.ready.plugin.jira.settings;
 
 import com.sun.istack.internal.NotNull;
 
+import java.util.Objects;
+
 /**
  * Created by avdeev on 19.03.2015.
  */
@@ -31,4 +33,20 @@ public class BugTrackerSettings {
     }
 
     public boolean getSkipReleasedVersions () { return skipReleasedVersions; }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof BugTrackerSettings)) {
+            return false;
+        }
+        BugTrackerSettings otherSettings = (BugTrackerSettings) other;
+        return Objects.equals(url, otherSettings.url) && Objects.equals(login, otherSettings.login) &&
+                Objects.equals(password, otherSettings.password) &&
+                skipReleasedVersions == otherSettings.skipReleasedVersions;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(url, login, password);
+    }
 }
@@ -0,0 +1,131 @@
+package com.smartbear.ready.plugin.jira.settings;
+
+import com.eviware.soapui.SoapUI;
+import com.eviware.soapui.model.ModelItem;
+import com.eviware.soapui.model.project.Project;
+import com.eviware.soapui.model.support.ModelSupport;
+import com.eviware.soapui.support.StringUtils;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named JIRA servers in addition to the one of the JIRA preferences, which is the {@value #DEFAULT_PROFILE}
+ * profile. They are kept in the ReadyAPI settings, one per line:
+ * <pre>
+ * Infrastructure | https://jira.mycompany.com | jsmith | secret
+ * </pre>
+ * Each ReadyAPI project uses the profile selected for it, the name is saved with the project.
+ */
+public class ServerProfiles {
+    public static final String DEFAULT_PROFILE = "Default";
+    public static final String PROJECT_SETTINGS_KEY = "JIRA.serverProfile";
+    //shown instead of the stored passwords in the preferences, an unchanged placeholder keeps the password
+    public static final String PASSWORD_PLACEHOLDER = "********";
+    private static final String FIELD_SEPARATOR = "|";
+    private static final String LINE_SEPARATOR = "\n";
+
+    private ServerProfiles() {
+    }
+
+    /**
+     * Returns the profiles by their names in the order they are listed, the {@value #DEFAULT_PROFILE} one excluded.
+     * Lines without a name or a URL are skipped.
+     */
+    public static Map<String, BugTrackerSettings> parse(String value) {
+        Map<String, BugTrackerSettings> profiles = new LinkedHashMap<>();
+        if (StringUtils.isNullOrEmpty(value)) {
+            return profiles;
+        }
+        boolean skipReleasedVersions = SoapUI.getSettings().getBoolean(BugTrackerPrefs.SKIP_VERSIONS, false);
+        for (String line : value.split("\r?\n")) {
+            //the password is the last field, so it may contain the separator
+            String[] fields = line.split("\\" + FIELD_SEPARATOR, 4);
+            String name = fields[0].trim();
+            if (name.isEmpty() || name.equals(DEFAULT_PROFILE) || fields.length < 2 || fields[1].trim().isEmpty()) {
+                continue;
+            }
+            profiles.put(name, new BugTrackerSettings(fields[1].trim(), fields.length > 2 ? fields[2].trim() : "",
+                    fields.length > 3 ? fields[3].trim() : "", skipReleasedVersions));
+        }
+        return profiles;
+    }
+
+    public static String format(Map<String, BugTrackerSettings> profiles, boolean maskPasswords) {
+        StringBuilder value = new StringBuilder();
+        for (Map.Entry<String, BugTrackerSettings> profile : profiles.entrySet()) {
+            BugTrackerSettings settings = profile.getValue();
+            if (value.length() > 0) {
+                value.append(LINE_SEPARATOR);
+            }
+            value.append(profile.getKey()).append(" ").append(FIELD_SEPARATOR).append(" ")
+                    .append(settings.getUrl()).append(" ").append(FIELD_SEPARATOR).append(" ")
+                    .append(settings.getLogin()).append(" ").append(FIELD_SEPARATOR).append(" ")
+                    .append(maskPasswords && !settings.getPassword().isEmpty() ? PASSWORD_PLACEHOLDER : settings.getPassword());
+        }
+        return value.toString();
+    }
+
+    /**
+     * Replaces the {@link #PASSWORD_PLACEHOLDER} of the edited profiles with the stored passwords of the profiles
+     * of the same name.
+     */
+    public static Map<String, BugTrackerSettings> restorePasswords(Map<String, BugTrackerSettings> edited,
+                                                                   Map<String, BugTrackerSettings> stored) {
+        Map<String, BugTrackerSettings> profiles = new LinkedHashMap<>();
+        for (Map.Entry<String, BugTrackerSettings> profile : edited.entrySet()) {
+            BugTrackerSettings settings = profile.getValue();
+            BugTrackerSettings previous = stored.get(profile.getKey());
+            if (settings.getPassword().equals(PASSWORD_PLACEHOLDER) && previous != null) {
+                settings = new BugTrackerSettings(settings.getUrl(), settings.getLogin(), previous.getPassword(),
+                        settings.getSkipReleasedVersions());
+            }
+            profiles.put(profile.getKey(), settings);
+        }
+        return profiles;
+    }
+
+    public static Map<String, BugTrackerSettings> readProfiles() {
+        return parse(SoapUI.getSettings().getString(BugTrackerPrefs.SERVER_PROFILES, ""));
+    }
+
+    /**
+     * Returns the names of all profiles, {@value #DEFAULT_PROFILE} first.
+     */
+    public static List<String> getProfileNames() {
+        List<String> names = new ArrayList<>();
+        names.add(DEFAULT_PROFILE);
+        names.addAll(readProfiles().keySet());
+        return names;
+    }
+
+    /**
+     * Returns the settings of the profile, null if there is no such profile.
+     */
+    public static BugTrackerSettings getSettings(String profileName) {
+        if (DEFAULT_PROFILE.equals(profileName)) {
+            return JiraProvider.readBugTrackerSettings();
+        }
+        return readProfiles().get(profileName);
+    }
+
+    /**
+     * Returns the profile selected for the ReadyAPI project of the item, {@value #DEFAULT_PROFILE} if none is
+     * selected or the selected one has been removed.
+     */
+    public static String getProfileName(ModelItem modelItem) {
+        Project project = modelItem == null ? null : ModelSupport.getModelItemProject(modelItem);
+        if (project == null) {
+            return DEFAULT_PROFILE;
+        }
+        String profileName = project.getSettings().getString(PROJECT_SETTINGS_KEY, DEFAULT_PROFILE);
+        return readProfiles().containsKey(profileName) ? profileName : DEFAULT_PROFILE;
+    }
+
+    public static void setProfileName(Project project, String profileName) {
+        project.getSettings().setString(PROJECT_SETTINGS_KEY, profileName);
+    }
+}
@@ -0,0 +1,62 @@
+package com.smartbear.ready.plugin.jira.sync;
+
+import com.smartbear.ready.plugin.jira.clients.IssueDigest;
+
+public class IssueStatus {
+    private final String issueKey;
+    private final String status;
+    private final String resolution;
+    private final String assignee;
+    private final long updated;
+
+    public IssueStatus(String issueKey, String status, String resolution, String assignee, long updated) {
+        this.issueKey = issueKey;
+        this.status = status;
+        this.resolution = resolution;
+        this.assignee = assignee;
+        this.updated = updated;
+    }
+
+    public static IssueStatus of(IssueDigest issue) {
+        return new IssueStatus(issue.getKey(), issue.getStatus(), issue.getResolution(), issue.getAssignee(),
+                issue.getUpdated());
+    }
+
+    public String getIssueKey() {
+        return issueKey;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Null if the item is unresolved.
+     */
+    public String getResolution() {
+        return resolution;
+    }
+
+    /**
+     * Null if the item is unassigned.
+     */
+    public String getAssignee() {
+        return assignee;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder(issueKey).append(": ").append(status);
+        if (resolution != null) {
+            result.append(" (").append(resolution).append(')');
+        }
+        if (assignee != null) {
+            result.append(", ").append(assignee);
+        }
+        return result.toString();
+    }
+}
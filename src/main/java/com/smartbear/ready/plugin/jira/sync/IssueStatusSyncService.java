@@ -0,0 +1,244 @@
+package com.smartbear.ready.plugin.jira.sync;
+
+import com.smartbear.ready.plugin.jira.cache.MetadataPrefetcher;
+import com.smartbear.ready.plugin.jira.clients.AsynchronousIssueSearchRestClient;
+import com.smartbear.ready.plugin.jira.clients.IssueDigest;
+import com.smartbear.ready.plugin.jira.impl.JiraApiCallResult;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the status of the JIRA items linked to test cases and test steps. Every
+ * {@value #POLL_INTERVAL_SECONDS} seconds the registered keys are split into chunks of
+ * {@link AsynchronousIssueSearchRestClient#DEFAULT_PAGE_SIZE} and each chunk is read with one
+ * {@code key in (...)} search returning only the status fields of the items updated since the previous poll, so
+ * hundreds of linked items cost a few small requests. A key is polled without the time restriction once, right
+ * after it has been registered.
+ * <p>
+ * When a {@link WebhookReceiver} pushes the changes, the periodic search is skipped for as long as events keep
+ * arriving, polling is the fallback for the periods without any.
+ * <p>
+ * Each key is read from the server profile of the ReadyAPI project it is linked in. The statuses are kept per
+ * profile and key, the same key may exist on two servers.
+ */
+public class IssueStatusSyncService {
+    private static final Logger logger = LoggerFactory.getLogger(IssueStatusSyncService.class);
+    public static final long POLL_INTERVAL_SECONDS = 5 * 60;
+
+    private static final IssueStatusSyncService instance = new IssueStatusSyncService();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "JIRA status sync");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+    private final ConcurrentHashMap<ProfileKey, IssueStatus> statuses = new ConcurrentHashMap<>();
+    //keys whose status has never been read
+    private final Set<ProfileKey> newKeys = Collections.newSetFromMap(new ConcurrentHashMap<ProfileKey, Boolean>());
+    private ScheduledFuture<?> pollTask;
+    private volatile long lastPushedEvent = 0;
+    //used by the executor thread only
+    private long lastPoll = 0;
+
+    //an item key on the server of a profile
+    private static final class ProfileKey {
+        private final String profileName;
+        private final String issueKey;
+
+        private ProfileKey(String profileName, String issueKey) {
+            this.profileName = profileName;
+            this.issueKey = issueKey;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ProfileKey)) {
+                return false;
+            }
+            ProfileKey otherKey = (ProfileKey) other;
+            return profileName.equals(otherKey.profileName) && issueKey.equals(otherKey.issueKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * profileName.hashCode() + issueKey.hashCode();
+        }
+    }
+
+    public static IssueStatusSyncService getInstance() {
+        return instance;
+    }
+
+    private IssueStatusSyncService() {
+    }
+
+    public synchronized void start() {
+        if (pollTask != null) {
+            return;
+        }
+        pollTask = executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    poll();
+                } catch (Exception e) {
+                    logger.warn("Unable to read the status of the linked JIRA items: " + e.getMessage());
+                }
+            }
+        }, 0, POLL_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (pollTask != null) {
+            pollTask.cancel(false);
+            pollTask = null;
+        }
+    }
+
+    /**
+     * Adds the keys to the ones polled from the server profile, the status of a new key is read in the background
+     * right away.
+     */
+    public void register(String profileName, Collection<String> issueKeys) {
+        boolean added = false;
+        for (String issueKey : issueKeys) {
+            ProfileKey key = new ProfileKey(profileName, issueKey);
+            if (!statuses.containsKey(key) && newKeys.add(key)) {
+                added = true;
+            }
+        }
+        if (added) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    pollNewKeys();
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the last known status of the item on the server of the profile, null if it has not been read yet.
+     * No request is sent.
+     */
+    public IssueStatus getStatus(String profileName, String issueKey) {
+        return statuses.get(new ProfileKey(profileName, issueKey));
+    }
+
+    /**
+     * Stores a status received by other means than polling, for instance a pushed event.
+     */
+    public void update(String profileName, IssueStatus status) {
+        ProfileKey key = new ProfileKey(profileName, status.getIssueKey());
+        newKeys.remove(key);
+        statuses.put(key, status);
+    }
+
+    /**
+     * Stores a status pushed by the server of the profile; the events of the items which are not linked to any
+     * test are ignored.
+     */
+    public void pushed(String profileName, IssueStatus status) {
+        lastPushedEvent = System.currentTimeMillis();
+        ProfileKey key = new ProfileKey(profileName, status.getIssueKey());
+        if (statuses.containsKey(key) || newKeys.contains(key)) {
+            update(profileName, status);
+        }
+    }
+
+    /**
+     * Forgets the item of the server of the profile, for instance when it has been deleted.
+     */
+    public void remove(String profileName, String issueKey) {
+        ProfileKey key = new ProfileKey(profileName, issueKey);
+        newKeys.remove(key);
+        statuses.remove(key);
+    }
+
+    void poll() {
+        long pollStart = System.currentTimeMillis();
+        pollNewKeys();
+        if (pollStart - lastPushedEvent < TimeUnit.SECONDS.toMillis(POLL_INTERVAL_SECONDS)) {
+            //the changes are being pushed
+            lastPoll = pollStart;
+            return;
+        }
+        if (lastPoll > 0 && !statuses.isEmpty()) {
+            if (!readStatuses(new ArrayList<>(statuses.keySet()), pollStart - lastPoll)) {
+                return;
+            }
+        }
+        lastPoll = pollStart;
+    }
+
+    private void pollNewKeys() {
+        if (newKeys.isEmpty()) {
+            return;
+        }
+        List<ProfileKey> keys = new ArrayList<>(newKeys);
+        if (readStatuses(keys, 0)) {
+            //the ones which have not been found do not exist or are not visible to the user
+            newKeys.removeAll(keys);
+        }
+    }
+
+    /**
+     * Reads the keys from their server profiles, the profiles which are not configured are skipped. Returns false
+     * if one of the searches failed.
+     */
+    private boolean readStatuses(List<ProfileKey> keys, long updatedWithinMs) {
+        Map<String, List<String>> keysByProfile = new HashMap<>();
+        for (ProfileKey key : keys) {
+            List<String> profileKeys = keysByProfile.get(key.profileName);
+            if (profileKeys == null) {
+                profileKeys = new ArrayList<>();
+                keysByProfile.put(key.profileName, profileKeys);
+            }
+            profileKeys.add(key.issueKey);
+        }
+        boolean success = true;
+        for (Map.Entry<String, List<String>> profileKeys : keysByProfile.entrySet()) {
+            if (!MetadataPrefetcher.isConfigured(profileKeys.getKey())) {
+                success = false;
+                continue;
+            }
+            success &= readStatuses(JiraProvider.getProvider(profileKeys.getKey()), profileKeys.getValue(),
+                    updatedWithinMs);
+        }
+        return success;
+    }
+
+    private boolean readStatuses(JiraProvider provider, List<String> keys, long updatedWithinMs) {
+        int chunkSize = AsynchronousIssueSearchRestClient.DEFAULT_PAGE_SIZE;
+        for (int start = 0; start < keys.size(); start += chunkSize) {
+            JiraApiCallResult<List<IssueDigest>> result =
+                    provider.getIssueStatuses(keys.subList(start, Math.min(keys.size(), start + chunkSize)), updatedWithinMs);
+            if (!result.isSuccess()) {
+                return false;
+            }
+            for (IssueDigest issue : result.getResult()) {
+                update(provider.getProfileName(), IssueStatus.of(issue));
+            }
+        }
+        return true;
+    }
+}
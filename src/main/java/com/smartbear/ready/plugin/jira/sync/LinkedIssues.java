@@ -0,0 +1,86 @@
+package com.smartbear.ready.plugin.jira.sync;
+
+import com.eviware.soapui.model.ModelItem;
+import com.eviware.soapui.model.project.Project;
+import com.eviware.soapui.model.testsuite.TestCase;
+import com.eviware.soapui.model.testsuite.TestStep;
+import com.eviware.soapui.model.testsuite.TestSuite;
+import com.eviware.soapui.support.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keys of the JIRA items filed for a test case or test step. They are kept in the settings of the item, so they
+ * are saved with the ReadyAPI project.
+ */
+public class LinkedIssues {
+    public static final String SETTINGS_KEY = "JIRA.linkedIssues";
+    private static final String SEPARATOR = ",";
+
+    private LinkedIssues() {
+    }
+
+    public static boolean canBeLinked(ModelItem modelItem) {
+        return modelItem instanceof TestCase || modelItem instanceof TestStep;
+    }
+
+    public static List<String> getIssueKeys(ModelItem modelItem) {
+        String value = modelItem.getSettings().getString(SETTINGS_KEY, "");
+        if (StringUtils.isNullOrEmpty(value)) {
+            return Collections.emptyList();
+        }
+        List<String> keys = new ArrayList<>();
+        for (String key : value.split(SEPARATOR)) {
+            if (!key.trim().isEmpty()) {
+                keys.add(key.trim());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Links the item to the test case or test step and returns true, or returns false if it cannot be linked.
+     */
+    public static boolean addIssueKey(ModelItem modelItem, String issueKey) {
+        if (!canBeLinked(modelItem)) {
+            return false;
+        }
+        Set<String> keys = new LinkedHashSet<>(getIssueKeys(modelItem));
+        if (keys.add(issueKey)) {
+            modelItem.getSettings().setString(SETTINGS_KEY, join(keys));
+        }
+        return true;
+    }
+
+    /**
+     * Returns the keys linked to the test cases and test steps of the project.
+     */
+    public static Set<String> collectIssueKeys(Project project) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (TestSuite testSuite : project.getTestSuiteList()) {
+            for (TestCase testCase : testSuite.getTestCaseList()) {
+                keys.addAll(getIssueKeys(testCase));
+                for (TestStep testStep : testCase.getTestStepList()) {
+                    keys.addAll(getIssueKeys(testStep));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static String join(Collection<String> keys) {
+        StringBuilder value = new StringBuilder();
+        for (String key : keys) {
+            if (value.length() > 0) {
+                value.append(SEPARATOR);
+            }
+            value.append(key);
+        }
+        return value.toString();
+    }
+}
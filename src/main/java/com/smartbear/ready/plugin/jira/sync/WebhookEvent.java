@@ -0,0 +1,30 @@
+package com.smartbear.ready.plugin.jira.sync;
+
+public class WebhookEvent {
+    public static final String ISSUE_CREATED = "jira:issue_created";
+    public static final String ISSUE_UPDATED = "jira:issue_updated";
+    public static final String ISSUE_DELETED = "jira:issue_deleted";
+
+    private final String type;
+    private final IssueStatus issue;
+
+    public WebhookEvent(String type, IssueStatus issue) {
+        this.type = type;
+        this.issue = issue;
+    }
+
+    /**
+     * The {@code webhookEvent} value, for instance {@value #ISSUE_UPDATED}.
+     */
+    public String getType() {
+        return type;
+    }
+
+    public IssueStatus getIssue() {
+        return issue;
+    }
+
+    public boolean isIssueDeleted() {
+        return ISSUE_DELETED.equals(type);
+    }
+}
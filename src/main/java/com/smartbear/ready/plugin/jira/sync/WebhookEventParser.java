@@ -0,0 +1,100 @@
+package com.smartbear.ready.plugin.jira.sync;
+
+import com.atlassian.jira.rest.client.internal.json.JsonParseUtil;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParseException;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Reads the issue key and status fields of a JIRA webhook payload with a streaming parser. The payloads contain
+ * the whole issue, the user and the changelog, everything but the few needed fields is skipped without building
+ * a tree of it.
+ */
+public class WebhookEventParser {
+    private final JsonFactory factory = new JsonFactory();
+
+    /**
+     * Returns null if the payload is not about an issue.
+     *
+     * @throws JsonParseException if the payload is not a JSON object
+     */
+    public WebhookEvent parse(byte[] data, int offset, int length) throws IOException {
+        JsonParser parser = factory.createJsonParser(data, offset, length);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException("A JSON object is expected", parser.getCurrentLocation());
+            }
+            String type = null;
+            IssueStatus issue = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if ("webhookEvent".equals(name) && value == JsonToken.VALUE_STRING) {
+                    type = parser.getText();
+                } else if ("issue".equals(name) && value == JsonToken.START_OBJECT) {
+                    issue = parseIssue(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return type == null || issue == null ? null : new WebhookEvent(type, issue);
+        } finally {
+            parser.close();
+        }
+    }
+
+    private IssueStatus parseIssue(JsonParser parser) throws IOException {
+        String key = null;
+        String status = null;
+        String resolution = null;
+        String assignee = null;
+        long updated = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if ("key".equals(name) && value == JsonToken.VALUE_STRING) {
+                key = parser.getText();
+            } else if ("fields".equals(name) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    JsonToken fieldValue = parser.nextToken();
+                    if ("status".equals(field)) {
+                        status = readNestedString(parser, fieldValue, "name");
+                    } else if ("resolution".equals(field)) {
+                        resolution = readNestedString(parser, fieldValue, "name");
+                    } else if ("assignee".equals(field)) {
+                        assignee = readNestedString(parser, fieldValue, "displayName");
+                    } else if ("updated".equals(field) && fieldValue == JsonToken.VALUE_STRING) {
+                        updated = JsonParseUtil.parseDateTime(parser.getText()).getMillis();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return key == null ? null : new IssueStatus(key, status, resolution, assignee, updated);
+    }
+
+    //returns the string attribute of an object value, null for a null value
+    private static String readNestedString(JsonParser parser, JsonToken value, String attribute) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return null;
+        }
+        String result = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.VALUE_STRING && attribute.equals(name)) {
+                result = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+}
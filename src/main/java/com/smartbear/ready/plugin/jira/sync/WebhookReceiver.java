@@ -0,0 +1,363 @@
+package com.smartbear.ready.plugin.jira.sync;
+
+import com.eviware.soapui.support.StringUtils;
+import com.smartbear.ready.plugin.jira.settings.ServerProfiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Minimal HTTP endpoint for JIRA webhooks ("issue updated" and "issue deleted" events), so the status of the
+ * linked items is pushed instead of polled. A single thread serves all the connections with a selector; a request
+ * is read until its Content-Length is reached, its payload is handed to the {@link WebhookEventParser} and the
+ * connection is closed after a short response. Connections idle for {@value #IDLE_TIMEOUT_MS} ms are closed.
+ * <p>
+ * It is off unless the {@value #PORT_PROPERTY} and {@value #SECRET_PROPERTY} system properties are set, and listens
+ * on the loopback interface unless another one is given in {@value #HOST_PROPERTY}. JIRA has to be able to reach
+ * the address, for instance through a tunnel. Only the requests to {@value #PATH} with the shared secret in the
+ * {@value #SECRET_PARAMETER} query parameter are accepted; JIRA webhooks cannot send custom headers, so the secret
+ * is part of the URL registered in JIRA. The events do not tell which server has sent them, the URL registered in
+ * each JIRA server names its server profile in the {@value #PROFILE_PARAMETER} parameter, the default profile if
+ * it is missing:
+ * <pre>
+ * https://host:port/jira/webhook?secret=...&amp;profile=...
+ * </pre>
+ */
+public class WebhookReceiver {
+    private static final Logger logger = LoggerFactory.getLogger(WebhookReceiver.class);
+    public static final String PORT_PROPERTY = "jira.webhook.port";
+    public static final String HOST_PROPERTY = "jira.webhook.host";
+    public static final String SECRET_PROPERTY = "jira.webhook.secret";
+    public static final String DEFAULT_HOST = "127.0.0.1";
+    public static final String PATH = "/jira/webhook";
+    public static final String SECRET_PARAMETER = "secret";
+    public static final String PROFILE_PARAMETER = "profile";
+    public static final long IDLE_TIMEOUT_MS = 10000;
+    private static final int MAX_REQUEST_SIZE = 1024 * 1024;
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final byte[] HEADERS_END = {'\r', '\n', '\r', '\n'};
+
+    private static WebhookReceiver instance;
+
+    private final IssueStatusSyncService syncService;
+    private final byte[] secret;
+    private final WebhookEventParser parser = new WebhookEventParser();
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private volatile boolean running = true;
+
+    //the request being read from a connection
+    private static class Request {
+        byte[] data = new byte[READ_BUFFER_SIZE];
+        int length = 0;
+        int bodyStart = -1;
+        int contentLength = -1;
+        //where to resume the search of the end of the headers, a match may span two reads
+        int headersScanStart = 0;
+        long lastActivity = System.currentTimeMillis();
+        String profileName;
+        ByteBuffer response;
+
+        void append(ByteBuffer buffer) {
+            if (length + buffer.remaining() > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + buffer.remaining()));
+            }
+            int count = buffer.remaining();
+            buffer.get(data, length, count);
+            length += count;
+        }
+    }
+
+    public WebhookReceiver(InetSocketAddress address, String secret, IssueStatusSyncService syncService) throws IOException {
+        if (StringUtils.isNullOrEmpty(secret)) {
+            throw new IllegalArgumentException("The webhook secret must not be empty");
+        }
+        this.syncService = syncService;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.configureBlocking(false);
+        serverChannel.socket().bind(address);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Starts the receiver configured by the system properties once; does nothing if it is not configured.
+     */
+    public static synchronized void startIfConfigured(IssueStatusSyncService syncService) {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (instance != null || StringUtils.isNullOrEmpty(port)) {
+            return;
+        }
+        String secret = System.getProperty(SECRET_PROPERTY);
+        if (StringUtils.isNullOrEmpty(secret)) {
+            logger.error("The JIRA webhook receiver is not started, " + SECRET_PROPERTY + " is not set");
+            return;
+        }
+        try {
+            InetSocketAddress address = new InetSocketAddress(System.getProperty(HOST_PROPERTY, DEFAULT_HOST),
+                    Integer.parseInt(port.trim()));
+            instance = new WebhookReceiver(address, secret, syncService);
+            instance.start();
+            logger.info("Receiving JIRA webhook events on " + address);
+        } catch (IOException | NumberFormatException e) {
+            logger.error("Unable to start the JIRA webhook receiver: " + e.getMessage());
+        }
+    }
+
+    public void start() {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                serve();
+            }
+        }, "JIRA webhook receiver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void serve() {
+        try {
+            while (running) {
+                selector.select(IDLE_TIMEOUT_MS);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            read(key);
+                        } else if (key.isWritable()) {
+                            write(key);
+                        }
+                    } catch (IOException e) {
+                        logger.debug("JIRA webhook connection failed: " + e.getMessage());
+                        close(key);
+                    } catch (RuntimeException e) {
+                        //a bad request or a cancelled key must not stop the receiver
+                        logger.warn("Unable to handle a JIRA webhook request: " + e);
+                        reject(key);
+                    }
+                }
+                closeIdleConnections();
+            }
+        } catch (IOException e) {
+            logger.error("The JIRA webhook receiver has stopped: " + e.getMessage());
+        } finally {
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ, new Request());
+    }
+
+    private void closeIdleConnections() {
+        long idleSince = System.currentTimeMillis() - IDLE_TIMEOUT_MS;
+        for (SelectionKey key : selector.keys()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof Request && ((Request) attachment).lastActivity < idleSince) {
+                close(key);
+            }
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Request request = (Request) key.attachment();
+        request.lastActivity = System.currentTimeMillis();
+        readBuffer.clear();
+        int count = channel.read(readBuffer);
+        if (count < 0) {
+            close(key);
+            return;
+        }
+        readBuffer.flip();
+        request.append(readBuffer);
+        if (request.length > MAX_REQUEST_SIZE) {
+            respond(key, request, 413, "Payload Too Large");
+            return;
+        }
+        if (request.bodyStart < 0 && !readHeaders(key, request)) {
+            return;
+        }
+        if (request.response == null && request.length - request.bodyStart >= request.contentLength) {
+            handle(key, request);
+        }
+    }
+
+    //returns false if the headers are incomplete or the request has been rejected
+    private boolean readHeaders(SelectionKey key, Request request) throws IOException {
+        int headersEnd = indexOf(request.data, request.headersScanStart, request.length, HEADERS_END);
+        if (headersEnd < 0) {
+            request.headersScanStart = Math.max(0, request.length - HEADERS_END.length + 1);
+            return false;
+        }
+        String[] lines = new String(request.data, 0, headersEnd, StandardCharsets.ISO_8859_1).split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length < 2 || !isWebhookPath(requestLine[1])) {
+            respond(key, request, 404, "Not Found");
+            return false;
+        }
+        String secretValue = getQueryParameter(requestLine[1], SECRET_PARAMETER);
+        //compared in constant time, the time taken must not tell how much of the secret is right
+        if (secretValue == null || !MessageDigest.isEqual(secretValue.getBytes(StandardCharsets.UTF_8), secret)) {
+            respond(key, request, 403, "Forbidden");
+            return false;
+        }
+        String profileName = getQueryParameter(requestLine[1], PROFILE_PARAMETER);
+        request.profileName = StringUtils.isNullOrEmpty(profileName) ? ServerProfiles.DEFAULT_PROFILE : profileName;
+        if (!requestLine[0].equals("POST")) {
+            respond(key, request, 405, "Method Not Allowed");
+            return false;
+        }
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0 && lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT).equals("content-length")) {
+                try {
+                    request.contentLength = Integer.parseInt(lines[i].substring(colon + 1).trim());
+                } catch (NumberFormatException e) {
+                    request.contentLength = -1;
+                }
+            }
+        }
+        if (request.contentLength < 0) {
+            respond(key, request, 411, "Length Required");
+            return false;
+        }
+        if (request.contentLength > MAX_REQUEST_SIZE) {
+            respond(key, request, 413, "Payload Too Large");
+            return false;
+        }
+        request.bodyStart = headersEnd + HEADERS_END.length;
+        return true;
+    }
+
+    private static boolean isWebhookPath(String target) {
+        int query = target.indexOf('?');
+        return (query < 0 ? target : target.substring(0, query)).equals(PATH);
+    }
+
+    //returns null if the parameter is missing
+    private static String getQueryParameter(String target, String name) throws UnsupportedEncodingException {
+        int query = target.indexOf('?');
+        if (query < 0) {
+            return null;
+        }
+        for (String parameter : target.substring(query + 1).split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && parameter.substring(0, equals).equals(name)) {
+                return URLDecoder.decode(parameter.substring(equals + 1), "UTF-8");
+            }
+        }
+        return null;
+    }
+
+    private void handle(SelectionKey key, Request request) throws IOException {
+        WebhookEvent event;
+        try {
+            event = parser.parse(request.data, request.bodyStart, request.contentLength);
+        } catch (IOException | IllegalArgumentException e) {
+            //malformed JSON or a malformed value, such as a date
+            respond(key, request, 400, "Bad Request");
+            return;
+        }
+        if (event != null) {
+            if (event.isIssueDeleted()) {
+                syncService.remove(request.profileName, event.getIssue().getIssueKey());
+            } else {
+                syncService.pushed(request.profileName, event.getIssue());
+            }
+        }
+        respond(key, request, 204, "No Content");
+    }
+
+    private void respond(SelectionKey key, Request request, int status, String reason) throws IOException {
+        request.response = ByteBuffer.wrap(("HTTP/1.1 " + status + " " + reason +
+                "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        key.interestOps(SelectionKey.OP_WRITE);
+        write(key);
+    }
+
+    private void write(SelectionKey key) throws IOException {
+        Request request = (Request) key.attachment();
+        request.lastActivity = System.currentTimeMillis();
+        ((SocketChannel) key.channel()).write(request.response);
+        if (!request.response.hasRemaining()) {
+            close(key);
+        }
+    }
+
+    //answers 400 if no response has been started yet, the channel is closed in any case
+    private void reject(SelectionKey key) {
+        Object attachment = key.attachment();
+        if (key.isValid() && attachment instanceof Request && ((Request) attachment).response == null) {
+            try {
+                respond(key, (Request) attachment, 400, "Bad Request");
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Unable to reject a JIRA webhook request: " + e.getMessage());
+            }
+        }
+        close(key);
+    }
+
+    private static void close(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException e) {
+        }
+    }
+
+    private static int indexOf(byte[] data, int start, int length, byte[] pattern) {
+        for (int i = start; i + pattern.length <= length; i++) {
+            int j = 0;
+            while (j < pattern.length && data[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
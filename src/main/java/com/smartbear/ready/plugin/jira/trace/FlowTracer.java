@@ -0,0 +1,324 @@
+package com.smartbear.ready.plugin.jira.trace;
+
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the JIRA requests and metadata cache lookups made during a flow (opening the dialog, creating an item,
+ * filing a batch of failures, ...) as spans in a fixed-size ring buffer, and appends the spans of every flow which
+ * took longer than the threshold to a JSON-lines file, one object per line, which can be sent to the JIRA admins.
+ * <p>
+ * The buffer is preallocated, one column per span attribute, so recording a span does not allocate. Only the
+ * requests and lookups made while a flow is in progress are recorded; asynchronous requests belong to the flow of
+ * the thread which sent them. A flow is judged once it has ended and all of its requests have completed, since a
+ * request completes for the caller before its span is recorded.
+ * <p>
+ * Configured with the system properties {@value #CAPACITY_PROPERTY} (default {@value #DEFAULT_CAPACITY} spans,
+ * rounded up to a power of two), {@value #SLOW_FLOW_PROPERTY} (default {@value #DEFAULT_SLOW_FLOW_MS} ms, 0 dumps
+ * every flow) and {@value #FILE_PROPERTY} (default {@code ~/}{@value #DEFAULT_FILE_NAME}).
+ */
+public class FlowTracer {
+    private static final Logger logger = LoggerFactory.getLogger(FlowTracer.class);
+
+    public static final String CAPACITY_PROPERTY = "jira.trace.capacity";
+    public static final String SLOW_FLOW_PROPERTY = "jira.trace.slowFlowMs";
+    public static final String FILE_PROPERTY = "jira.trace.file";
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final long DEFAULT_SLOW_FLOW_MS = 5000;
+    public static final String DEFAULT_FILE_NAME = ".ready-jira-slow-flows.jsonl";
+
+    public static final long NO_FLOW = 0;
+    public static final int NO_BYTES = -1;
+
+    private static final byte KIND_FLOW = 0;
+    private static final byte KIND_REQUEST = 1;
+    private static final byte KIND_CACHE = 2;
+    private static final String[] KIND_NAMES = {"flow", "request", "cache"};
+    private static final byte OUTCOME_SUCCESS = 0;
+    private static final byte OUTCOME_FAILURE = 1;
+    private static final byte OUTCOME_HIT = 2;
+    private static final byte OUTCOME_MISS = 3;
+    private static final String[] OUTCOME_NAMES = {"success", "failure", "hit", "miss"};
+
+    private static FlowTracer instance;
+
+    private final int mask;
+    private final long slowFlowNanos;
+    private final File file;
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final AtomicLong lastFlowId = new AtomicLong();
+    private final ThreadLocal<Flow> currentFlow = new ThreadLocal<>();
+    private final ExecutorService writer;
+
+    //the columns of the ring buffer, guarded by this
+    private final long[] flowIds;
+    private final byte[] kinds;
+    private final String[] operations;
+    private final String[] uriTemplates;
+    private final long[] startMillis;
+    private final long[] durationNanos;
+    private final long[] bytesOut;
+    private final int[] statuses;
+    private final byte[] outcomes;
+    private long nextSequence;
+
+    /**
+     * A copy of a span of a slow flow, taken while the buffer is locked.
+     */
+    private class Span {
+        private final long flowId;
+        private final byte kind;
+        private final String operation;
+        private final String uriTemplate;
+        private final long startMillis;
+        private final long durationNanos;
+        private final long bytesOut;
+        private final int status;
+        private final byte outcome;
+
+        private Span(int slot) {
+            flowId = flowIds[slot];
+            kind = kinds[slot];
+            operation = operations[slot];
+            uriTemplate = uriTemplates[slot];
+            startMillis = FlowTracer.this.startMillis[slot];
+            durationNanos = FlowTracer.this.durationNanos[slot];
+            bytesOut = FlowTracer.this.bytesOut[slot];
+            status = statuses[slot];
+            outcome = outcomes[slot];
+        }
+    }
+
+    /**
+     * A flow in progress, passed to the threads completing its requests.
+     */
+    public static class Flow {
+        private final long id;
+        private final String name;
+        private final long startMillis = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+        //the flow itself and its requests in progress
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private volatile long durationNanos;
+
+        private Flow(long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    public FlowTracer(int capacity, long slowFlowMs, File file) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        mask = size - 1;
+        slowFlowNanos = TimeUnit.MILLISECONDS.toNanos(slowFlowMs);
+        this.file = file;
+        jsonFactory.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        flowIds = new long[size];
+        kinds = new byte[size];
+        operations = new String[size];
+        uriTemplates = new String[size];
+        startMillis = new long[size];
+        durationNanos = new long[size];
+        bytesOut = new long[size];
+        statuses = new int[size];
+        outcomes = new byte[size];
+        //not a daemon, a slow flow at the end of a command-line run is still written, the thread stops when idle
+        ThreadPoolExecutor writer = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "JIRA slow flow writer");
+            }
+        });
+        writer.allowCoreThreadTimeOut(true);
+        this.writer = writer;
+    }
+
+    public static synchronized FlowTracer getInstance() {
+        if (instance == null) {
+            instance = new FlowTracer(Integer.getInteger(CAPACITY_PROPERTY, DEFAULT_CAPACITY),
+                    Long.getLong(SLOW_FLOW_PROPERTY, DEFAULT_SLOW_FLOW_MS),
+                    new File(System.getProperty(FILE_PROPERTY,
+                            new File(System.getProperty("user.home"), DEFAULT_FILE_NAME).getPath())));
+        }
+        return instance;
+    }
+
+    /**
+     * Starts a flow on the current thread. Returns {@link #NO_FLOW} if a flow is already in progress on it, the
+     * spans then belong to the outer flow.
+     * <pre>
+     * long flowId = tracer.beginFlow("createItem");
+     * try {
+     *     ...
+     * } finally {
+     *     tracer.endFlow(flowId);
+     * }
+     * </pre>
+     */
+    public long beginFlow(String name) {
+        if (currentFlow.get() != null) {
+            return NO_FLOW;
+        }
+        Flow flow = new Flow(lastFlowId.incrementAndGet(), name);
+        currentFlow.set(flow);
+        return flow.id;
+    }
+
+    /**
+     * Ends the flow started by {@link #beginFlow}, its spans are written to the file if it has been slow, as soon as
+     * the requests it has sent have completed.
+     */
+    public void endFlow(long flowId) {
+        Flow flow = currentFlow.get();
+        if (flowId == NO_FLOW || flow == null || flow.id != flowId) {
+            return;
+        }
+        currentFlow.remove();
+        flow.durationNanos = System.nanoTime() - flow.startNanos;
+        record(flowId, KIND_FLOW, flow.name, null, flow.startMillis, flow.durationNanos, NO_BYTES, 0, OUTCOME_SUCCESS);
+        release(flow);
+    }
+
+    /**
+     * Returns the flow in progress on the current thread and registers a request of it, which must be completed with
+     * {@link #recordRequest}. Returns null if there is no flow in progress.
+     */
+    public Flow beginRequest() {
+        Flow flow = currentFlow.get();
+        if (flow != null) {
+            flow.pending.incrementAndGet();
+        }
+        return flow;
+    }
+
+    /**
+     * @param flow     the flow returned by {@link #beginRequest()}, nothing is recorded if it is null
+     * @param bytesOut the size of the request body, {@link #NO_BYTES} if it is not known
+     * @param status   the HTTP status of a failed request, 0 if it has none
+     */
+    public void recordRequest(Flow flow, String operation, String uriTemplate, long startMillis, long durationNanos,
+                              long bytesOut, boolean success, int status) {
+        if (flow != null) {
+            record(flow.id, KIND_REQUEST, operation, uriTemplate, startMillis, durationNanos, bytesOut, status,
+                    success ? OUTCOME_SUCCESS : OUTCOME_FAILURE);
+            release(flow);
+        }
+    }
+
+    //the last one of the flow and its requests to complete judges the flow
+    private void release(Flow flow) {
+        if (flow.pending.decrementAndGet() == 0 && flow.durationNanos >= slowFlowNanos) {
+            dump(flow.id);
+        }
+    }
+
+    public void recordCacheLookup(String cache, boolean hit) {
+        Flow flow = currentFlow.get();
+        if (flow != null) {
+            record(flow.id, KIND_CACHE, cache, null, System.currentTimeMillis(), 0, NO_BYTES, 0,
+                    hit ? OUTCOME_HIT : OUTCOME_MISS);
+        }
+    }
+
+    private synchronized void record(long flowId, byte kind, String operation, String uriTemplate, long start,
+                                     long duration, long bytes, int status, byte outcome) {
+        int slot = (int) (nextSequence++ & mask);
+        flowIds[slot] = flowId;
+        kinds[slot] = kind;
+        operations[slot] = operation;
+        uriTemplates[slot] = uriTemplate;
+        startMillis[slot] = start;
+        durationNanos[slot] = duration;
+        bytesOut[slot] = bytes;
+        statuses[slot] = status;
+        outcomes[slot] = outcome;
+    }
+
+    /**
+     * Copies the spans of the flow still in the buffer and appends them to the file in the background, the flow
+     * itself first. The caller may be an HTTP client thread, and the buffer stays available for recording meanwhile.
+     */
+    private void dump(long flowId) {
+        final List<Span> spans = new ArrayList<>();
+        synchronized (this) {
+            long first = Math.max(0, nextSequence - mask - 1);
+            //the flow span is the last one recorded for it
+            for (long sequence = nextSequence - 1; sequence >= first; sequence--) {
+                int slot = (int) (sequence & mask);
+                if (flowIds[slot] == flowId && kinds[slot] == KIND_FLOW) {
+                    spans.add(new Span(slot));
+                    break;
+                }
+            }
+            for (long sequence = first; sequence < nextSequence; sequence++) {
+                int slot = (int) (sequence & mask);
+                if (flowIds[slot] == flowId && kinds[slot] != KIND_FLOW) {
+                    spans.add(new Span(slot));
+                }
+            }
+        }
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                write(spans);
+            }
+        });
+    }
+
+    private void write(List<Span> spans) {
+        try (OutputStream output = new FileOutputStream(file, true)) {
+            for (Span span : spans) {
+                writeSpan(output, span);
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to write the trace of a slow JIRA flow to " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void writeSpan(OutputStream output, Span span) throws IOException {
+        //one generator per line, a single one would separate the root level objects with spaces
+        JsonGenerator generator = jsonFactory.createJsonGenerator(output, JsonEncoding.UTF8);
+        generator.writeStartObject();
+        generator.writeNumberField("flowId", span.flowId);
+        generator.writeStringField("type", KIND_NAMES[span.kind]);
+        generator.writeStringField("operation", span.operation);
+        if (span.uriTemplate != null) {
+            generator.writeStringField("uri", span.uriTemplate);
+        }
+        generator.writeNumberField("start", span.startMillis);
+        generator.writeNumberField("end", span.startMillis + TimeUnit.NANOSECONDS.toMillis(span.durationNanos));
+        generator.writeNumberField("durationMs", span.durationNanos / 1e6);
+        if (span.bytesOut != NO_BYTES) {
+            generator.writeNumberField("bytesOut", span.bytesOut);
+        }
+        if (span.status != 0) {
+            generator.writeNumberField("status", span.status);
+        }
+        if (span.kind == KIND_CACHE) {
+            generator.writeBooleanField("cacheHit", span.outcome == OUTCOME_HIT);
+        } else {
+            generator.writeStringField("outcome", OUTCOME_NAMES[span.outcome]);
+        }
+        generator.writeEndObject();
+        generator.close();
+        output.write('\n');
+    }
+}
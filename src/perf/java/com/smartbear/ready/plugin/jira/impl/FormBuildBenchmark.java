@@ -0,0 +1,260 @@
+package com.smartbear.ready.plugin.jira.impl;
+
+import com.atlassian.jira.rest.client.api.domain.CimFieldInfo;
+import com.atlassian.jira.rest.client.api.domain.CimProject;
+import com.atlassian.jira.rest.client.api.domain.CustomFieldOption;
+import com.atlassian.jira.rest.client.api.domain.FieldSchema;
+import com.atlassian.jira.rest.client.api.domain.StandardOperation;
+import com.atlassian.jira.rest.client.api.domain.Version;
+import com.eviware.x.form.XFormDialog;
+import com.smartbear.ready.plugin.jira.dialog.IssueDetailsFormBuilder;
+import com.smartbear.ready.plugin.jira.dialog.IssueFormTemplate;
+import com.smartbear.ready.plugin.jira.settings.BugTrackerSettings;
+
+import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.GraphicsEnvironment;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the issue details form takes to build and lay out for item types of 10 to 500 fields with 10
+ * to 10,000 allowed values, and how much heap a built form retains. Each case reports the median and the 90th
+ * percentile of:
+ * <ul>
+ * <li>template: computing the {@link IssueFormTemplate} from the createmeta fields, off the event dispatch thread</li>
+ * <li>build: creating the Swing components of the form on the event dispatch thread</li>
+ * <li>layout: laying the form out at its preferred size, or packing the whole dialog when a display is available</li>
+ * </ul>
+ * The optional fields past {@link IssueDetailsFormBuilder#OPTIONAL_FIELDS_SECTION_THRESHOLD} stay collapsed, as
+ * when the dialog opens. Runs with {@code -Djava.awt.headless=true} as well; the dialog itself is then not
+ * created. Arguments: {@code [iterations] [csv file]}, the CSV lines can be appended release after release.
+ */
+public class FormBuildBenchmark {
+    private static final int[] FIELD_COUNTS = {10, 50, 100, 500};
+    private static final int[] ALLOWED_VALUE_COUNTS = {10, 1000, 10000};
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int RETAINED_FORMS = 5;
+    private static final String SELECT_SCHEMA = "com.atlassian.jira.plugin.system.customfieldtypes:select";
+    private static final String TEXTAREA_SCHEMA = "com.atlassian.jira.plugin.system.customfieldtypes:textarea";
+    private static final String TEXT_SCHEMA = "com.atlassian.jira.plugin.system.customfieldtypes:textfield";
+
+    private final JiraProvider provider;
+    private final boolean headless = GraphicsEnvironment.isHeadless();
+    //keeps the forms measured by measureRetainedHeap reachable, they are only built on the event dispatch thread
+    private final List<Object> retainedForms = Collections.synchronizedList(new ArrayList<Object>());
+
+    public FormBuildBenchmark() throws Exception {
+        provider = new JiraProvider(new BugTrackerSettings(SyntheticMetadata.BASE_URL, "benchmark", "benchmark", false),
+                new StubJiraRestClient(Collections.<CimProject>emptyList(),
+                        SyntheticMetadata.priorities()).create());
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        PrintWriter csv = args.length > 1 ? new PrintWriter(new FileWriter(args[1], true)) : null;
+        try {
+            new FormBuildBenchmark().run(iterations, csv);
+        } finally {
+            if (csv != null) {
+                csv.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    public void run(int iterations, PrintWriter csv) throws Exception {
+        System.out.printf("%s mode, %d iterations%n", headless ? "Headless" : "Dialog", iterations);
+        System.out.printf("%6s %8s | %16s | %16s | %16s | %12s%n", "fields", "values", "template p50/p90",
+                "build p50/p90", "layout p50/p90", "retained KB");
+        for (int fieldCount : FIELD_COUNTS) {
+            for (int allowedValueCount : ALLOWED_VALUE_COUNTS) {
+                Map<String, CimFieldInfo> fields = createFields(fieldCount, allowedValueCount);
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    measure(fields, null, false);
+                }
+                long[][] samples = new long[3][iterations];
+                for (int i = 0; i < iterations; i++) {
+                    long[] sample = new long[3];
+                    measure(fields, sample, false);
+                    for (int phase = 0; phase < 3; phase++) {
+                        samples[phase][i] = sample[phase];
+                    }
+                }
+                long retainedBytes = measureRetainedHeap(fields);
+                System.out.printf("%6d %8d | %7.2f %8.2f | %7.2f %8.2f | %7.2f %8.2f | %12d%n", fieldCount,
+                        allowedValueCount, percentile(samples[0], 50), percentile(samples[0], 90),
+                        percentile(samples[1], 50), percentile(samples[1], 90), percentile(samples[2], 50),
+                        percentile(samples[2], 90), retainedBytes / 1024);
+                if (csv != null) {
+                    csv.printf("%d,%s,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%d%n", System.currentTimeMillis(),
+                            headless ? "headless" : "dialog", fieldCount, allowedValueCount,
+                            percentile(samples[0], 50), percentile(samples[0], 90), percentile(samples[1], 50),
+                            percentile(samples[1], 90), percentile(samples[2], 50), percentile(samples[2], 90),
+                            retainedBytes);
+                    csv.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds and lays out one form; the durations in nanoseconds of the three phases go to the sample if any.
+     * Returns the dialog if it is kept, otherwise it is released right away.
+     */
+    private XFormDialog measure(Map<String, CimFieldInfo> fields, final long[] sample, final boolean keep) throws Exception {
+        long start = System.nanoTime();
+        final IssueFormTemplate template = new IssueFormTemplate(provider, fields, 1, false);
+        long templateTime = System.nanoTime() - start;
+        final XFormDialog[] kept = new XFormDialog[1];
+        final long[] uiTimes = new long[2];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                long buildStart = System.nanoTime();
+                SwingXScrollableFormDialogBuilder builder = new SwingXScrollableFormDialogBuilder("Benchmark");
+                SwingXScrollableFormImpl form = (SwingXScrollableFormImpl) builder.createForm("Basic");
+                SwingXScrollableFormImpl metadataForm = form.addNestedForm("Metadata");
+                new IssueDetailsFormBuilder(provider, false).addMetadataFields(metadataForm, template);
+                XFormDialog dialog = headless ? null : builder.buildDialog(builder.buildOkCancelActions(), null, null);
+                long layoutStart = System.nanoTime();
+                if (dialog != null) {
+                    ((JScrollableFormDialog) dialog).getDialog().pack();
+                } else {
+                    JComponent content = form.getScrollPane();
+                    Dimension size = content.getPreferredSize();
+                    content.setSize(size);
+                    layout(content);
+                }
+                long layoutEnd = System.nanoTime();
+                uiTimes[0] = layoutStart - buildStart;
+                uiTimes[1] = layoutEnd - layoutStart;
+                if (dialog != null && !keep) {
+                    dialog.release();
+                }
+                kept[0] = dialog;
+                if (keep) {
+                    retainedForms.add(Arrays.asList(template, form));
+                }
+            }
+        });
+        if (sample != null) {
+            sample[0] = templateTime;
+            sample[1] = uiTimes[0];
+            sample[2] = uiTimes[1];
+        }
+        return kept[0];
+    }
+
+    private static void layout(Component component) {
+        if (component instanceof Container) {
+            Container container = (Container) component;
+            container.doLayout();
+            for (Component child : container.getComponents()) {
+                layout(child);
+            }
+        }
+    }
+
+    private long measureRetainedHeap(Map<String, CimFieldInfo> fields) throws Exception {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long before = usedHeapAfterGc(memory);
+        final List<XFormDialog> dialogs = new ArrayList<>();
+        for (int i = 0; i < RETAINED_FORMS; i++) {
+            dialogs.add(measure(fields, null, true));
+        }
+        long after = usedHeapAfterGc(memory);
+        retainedForms.clear();
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                for (XFormDialog dialog : dialogs) {
+                    if (dialog != null) {
+                        dialog.release();
+                    }
+                }
+            }
+        });
+        return Math.max((after - before) / RETAINED_FORMS, 0);
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static double percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    /**
+     * A third of the fields are selects with the allowed values, a third single-line and a third multi-line text
+     * fields; one field in ten is required. Priority and both version fields come on top of them.
+     */
+    static Map<String, CimFieldInfo> createFields(int fieldCount, int allowedValueCount) {
+        Set<StandardOperation> operations = EnumSet.of(StandardOperation.SET);
+        Map<String, CimFieldInfo> fields = new LinkedHashMap<>();
+        fields.put("summary", new CimFieldInfo("summary", true, "Summary",
+                new FieldSchema("string", null, "summary", null, null), operations, null, null));
+        fields.put(IssueDetailsFormBuilder.DESCRIPTION_FIELD_NAME, new CimFieldInfo(IssueDetailsFormBuilder.DESCRIPTION_FIELD_NAME,
+                false, "Description", new FieldSchema("string", null, "description", null, null), operations, null, null));
+        List<Object> priorities = new ArrayList<Object>(SyntheticMetadata.priorities());
+        fields.put(JiraProvider.PRIORITY_FIELD_NAME, new CimFieldInfo(JiraProvider.PRIORITY_FIELD_NAME, false, "Priority",
+                new FieldSchema("priority", null, "priority", null, null), operations, priorities, null));
+        List<Object> versions = new ArrayList<>();
+        for (int i = 0; i < allowedValueCount; i++) {
+            versions.add(new Version(URI.create(SyntheticMetadata.BASE_URL + "/rest/api/2/version/" + i), (long) i,
+                    i / 10 + "." + i % 10, null, false, i % 3 != 0, null));
+        }
+        for (String versionField : new String[]{JiraProvider.VERSIONS_FIELD_NAME, JiraProvider.FIX_VERSIONS_FIELD_NAME}) {
+            fields.put(versionField, new CimFieldInfo(versionField, false, versionField,
+                    new FieldSchema("array", "version", versionField, null, null), operations, versions, null));
+        }
+        for (int field = 0; field < fieldCount; field++) {
+            String id = "customfield_" + (10000 + field);
+            boolean required = field % 10 == 0;
+            switch (field % 3) {
+                case 0:
+                    List<Object> options = new ArrayList<>();
+                    for (int i = 0; i < allowedValueCount; i++) {
+                        options.add(new CustomFieldOption((long) (field * allowedValueCount + i),
+                                URI.create(SyntheticMetadata.BASE_URL + "/rest/api/2/customFieldOption/" + i),
+                                "Option " + i + " of field " + field, null, null));
+                    }
+                    fields.put(id, new CimFieldInfo(id, required, "Select " + field,
+                            new FieldSchema("option", null, null, SELECT_SCHEMA, (long) (10000 + field)), operations, options, null));
+                    break;
+                case 1:
+                    fields.put(id, new CimFieldInfo(id, required, "Text " + field,
+                            new FieldSchema("string", null, null, TEXT_SCHEMA, (long) (10000 + field)), operations, null, null));
+                    break;
+                default:
+                    fields.put(id, new CimFieldInfo(id, required, "Notes " + field,
+                            new FieldSchema("string", null, null, TEXTAREA_SCHEMA, (long) (10000 + field)), operations, null, null));
+            }
+        }
+        return fields;
+    }
+}
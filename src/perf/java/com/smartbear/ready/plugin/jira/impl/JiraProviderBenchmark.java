@@ -0,0 +1,104 @@
+package com.smartbear.ready.plugin.jira.impl;
+
+import com.atlassian.jira.rest.client.api.domain.BasicComponent;
+import com.atlassian.jira.rest.client.api.domain.CustomFieldOption;
+import com.atlassian.jira.rest.client.api.domain.Version;
+import com.smartbear.ready.plugin.jira.actions.CreateNewBugAction;
+import com.smartbear.ready.plugin.jira.settings.BugTrackerSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU and allocation hot paths of the provider when an item is created: mapping the form values to the
+ * create request and turning the allowed values of the fields into combo box options. Run with {@code -prof gc}
+ * for the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class JiraProviderBenchmark {
+    private static final String PROJECT_KEY = SyntheticMetadata.getProjectKey(0);
+    private static final String ISSUE_TYPE = SyntheticMetadata.ISSUE_TYPES[0];
+
+    @Param({"100", "10000"})
+    public int allowedValues;
+
+    private JiraProvider provider;
+    private Map<String, String> extraValues;
+    private Iterable<Object> customFieldOptions;
+    private Iterable<Object> components;
+    private Iterable<Object> versions;
+
+    @Setup
+    public void setUp() throws Exception {
+        //the createmeta of the stub keeps the field mapping realistic, the allowed values are built separately
+        String createmeta = SyntheticMetadata.createmetaJson(2, 20, 10);
+        StubJiraRestClient client = new StubJiraRestClient(SyntheticMetadata.parse(createmeta), SyntheticMetadata.priorities());
+        provider = new JiraProvider(new BugTrackerSettings(SyntheticMetadata.BASE_URL, "benchmark", "benchmark", false),
+                client.create());
+
+        extraValues = new HashMap<>();
+        extraValues.put(JiraProvider.PRIORITY_FIELD_NAME, SyntheticMetadata.PRIORITIES[2]);
+        extraValues.put(JiraProvider.COMPONENTS_FIELD_NAME, "Component 3");
+        extraValues.put(JiraProvider.VERSIONS_FIELD_NAME, "0.4");
+        extraValues.put(JiraProvider.FIX_VERSIONS_FIELD_NAME, "0.5");
+        extraValues.put("labels", "regression, api, nightly");
+        for (int field = 0; field < 20; field++) {
+            extraValues.put(SyntheticMetadata.SELECT_FIELD_PREFIX + field, "Option " + field % 10);
+            extraValues.put(SyntheticMetadata.TEXT_FIELD_PREFIX + field, "Value of the text field " + field);
+        }
+
+        List<Object> options = new ArrayList<>();
+        List<Object> componentList = new ArrayList<>();
+        List<Object> versionList = new ArrayList<>();
+        for (int i = 0; i < allowedValues; i++) {
+            URI self = URI.create(SyntheticMetadata.BASE_URL + "/rest/api/2/value/" + i);
+            options.add(new CustomFieldOption((long) i, self, "Option " + i, null, null));
+            componentList.add(new BasicComponent(self, (long) i, "Component " + i, null));
+            versionList.add(new Version(self, (long) i, i / 10 + "." + i % 10, null, false, i % 3 != 0, null));
+        }
+        customFieldOptions = options;
+        components = componentList;
+        versions = versionList;
+    }
+
+    @Benchmark
+    public IssueCreationResult createIssue() {
+        return provider.createIssue(PROJECT_KEY, ISSUE_TYPE, "Login fails with a valid token",
+                "The test case Login of the suite Authentication fails.", extraValues);
+    }
+
+    @Benchmark
+    public Object[] customFieldOptionNames() {
+        return CreateNewBugAction.IterableObjectsToNameArray(provider, customFieldOptions, true);
+    }
+
+    @Benchmark
+    public Object[] componentNames() {
+        return CreateNewBugAction.IterableObjectsToNameArray(provider, components, true);
+    }
+
+    @Benchmark
+    public Object[] fixVersionNames() {
+        return CreateNewBugAction.FixVersionsToNameArray(provider, versions, true, true);
+    }
+}
@@ -0,0 +1,72 @@
+package com.smartbear.ready.plugin.jira.impl;
+
+import com.eviware.soapui.impl.wsdl.WsdlProject;
+import com.eviware.soapui.impl.wsdl.WsdlTestSuite;
+import com.eviware.soapui.impl.wsdl.testcase.WsdlTestCase;
+import com.smartbear.ready.plugin.jira.settings.BugTrackerSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the project attached to a new item, for projects of a few hundred to a few thousand test
+ * cases.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class RootProjectBenchmark {
+    private static final int TEST_CASES_PER_SUITE = 50;
+    private static final int PROPERTIES_PER_TEST_CASE = 20;
+
+    @Param({"10", "100"})
+    public int testSuites;
+
+    private JiraProvider provider;
+
+    @Setup
+    public void setUp() throws Exception {
+        WsdlProject project = new WsdlProject();
+        project.setName("Benchmark");
+        for (int suite = 0; suite < testSuites; suite++) {
+            WsdlTestSuite testSuite = project.addNewTestSuite("Suite " + suite);
+            for (int testCase = 0; testCase < TEST_CASES_PER_SUITE; testCase++) {
+                WsdlTestCase wsdlTestCase = testSuite.addNewTestCase("Test case " + testCase);
+                for (int property = 0; property < PROPERTIES_PER_TEST_CASE; property++) {
+                    wsdlTestCase.addProperty("property" + property).setValue("value of the property " + property);
+                }
+            }
+        }
+        provider = new JiraProvider(new BugTrackerSettings(SyntheticMetadata.BASE_URL, "benchmark", "benchmark", false),
+                new StubJiraRestClient(SyntheticMetadata.parse("{\"projects\":[]}"), SyntheticMetadata.priorities()).create());
+        provider.setActiveItem(project);
+    }
+
+    @Benchmark
+    public long getRootProject() throws IOException {
+        //the stream is read the way the attachment upload reads it
+        long size = 0;
+        byte[] buffer = new byte[8192];
+        try (InputStream stream = provider.getRootProject()) {
+            for (int read = stream.read(buffer); read != -1; read = stream.read(buffer)) {
+                size += read;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,76 @@
+package com.smartbear.ready.plugin.jira.impl;
+
+import com.atlassian.jira.rest.client.api.IssueRestClient;
+import com.atlassian.jira.rest.client.api.JiraRestClient;
+import com.atlassian.jira.rest.client.api.MetadataRestClient;
+import com.atlassian.jira.rest.client.api.domain.BasicIssue;
+import com.atlassian.jira.rest.client.api.domain.CimProject;
+import com.atlassian.jira.rest.client.api.domain.Priority;
+import com.atlassian.util.concurrent.Promises;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A JIRA client which answers the calls of the item creation from memory, so the benchmarks measure the
+ * provider and not the network. Any other call fails.
+ */
+public class StubJiraRestClient {
+    private final Iterable<CimProject> createmeta;
+    private final Iterable<Priority> priorities;
+    private final AtomicLong lastIssueId = new AtomicLong(10000);
+
+    public StubJiraRestClient(Iterable<CimProject> createmeta, Iterable<Priority> priorities) {
+        this.createmeta = createmeta;
+        this.priorities = priorities;
+    }
+
+    public JiraRestClient create() {
+        final IssueRestClient issueClient = proxy(IssueRestClient.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getCreateIssueMetadata":
+                        return Promises.promise(createmeta);
+                    case "createIssue":
+                        long id = lastIssueId.incrementAndGet();
+                        return Promises.promise(new BasicIssue(URI.create(SyntheticMetadata.BASE_URL + "/rest/api/2/issue/" + id),
+                                "PRJ0-" + id, id));
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        });
+        final MetadataRestClient metadataClient = proxy(MetadataRestClient.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getPriorities")) {
+                    return Promises.promise(priorities);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        return proxy(JiraRestClient.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getIssueClient":
+                        return issueClient;
+                    case "getMetadataClient":
+                        return metadataClient;
+                    case "close":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+}
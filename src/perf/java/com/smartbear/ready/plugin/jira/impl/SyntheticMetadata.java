@@ -0,0 +1,160 @@
+package com.smartbear.ready.plugin.jira.impl;
+
+import com.atlassian.jira.rest.client.api.domain.CimProject;
+import com.atlassian.jira.rest.client.api.domain.Priority;
+import com.atlassian.jira.rest.client.internal.json.CreateIssueMetadataJsonParser;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds createmeta responses of a given size, shaped like the ones of a JIRA instance with many custom fields.
+ */
+public class SyntheticMetadata {
+    public static final String BASE_URL = "http://jira.example.com";
+    public static final String[] ISSUE_TYPES = {"Bug", "Task", "Story", "Improvement", "Sub-task"};
+    public static final String[] PRIORITIES = {"Blocker", "Critical", "Major", "Minor", "Trivial"};
+    public static final String SELECT_FIELD_PREFIX = "customfield_100";
+    public static final String TEXT_FIELD_PREFIX = "customfield_200";
+
+    private SyntheticMetadata() {
+    }
+
+    public static String getProjectKey(int project) {
+        return "PRJ" + project;
+    }
+
+    public static String createmetaJson(int projects, int customFields, int allowedValues) {
+        StringBuilder json = new StringBuilder("{\"expand\":\"projects\",\"projects\":[");
+        for (int project = 0; project < projects; project++) {
+            if (project > 0) {
+                json.append(',');
+            }
+            appendProject(json, project, customFields, allowedValues);
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Returns the entry of a single project of a synthetic createmeta response, for the servers which filter the
+     * response by project.
+     */
+    public static String projectCreatemetaJson(int project, int customFields, int allowedValues) {
+        StringBuilder json = new StringBuilder();
+        appendProject(json, project, customFields, allowedValues);
+        return json.toString();
+    }
+
+    public static Iterable<CimProject> parse(String createmetaJson) throws JSONException {
+        return new CreateIssueMetadataJsonParser().parse(new JSONObject(createmetaJson));
+    }
+
+    public static List<Priority> priorities() {
+        List<Priority> priorities = new ArrayList<>();
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            priorities.add(new Priority(URI.create(BASE_URL + "/rest/api/2/priority/" + (i + 1)), (long) (i + 1),
+                    PRIORITIES[i], "#cc0000", PRIORITIES[i], URI.create(BASE_URL + "/images/icons/priority.png")));
+        }
+        return priorities;
+    }
+
+    private static void appendProject(StringBuilder json, int project, int customFields, int allowedValues) {
+        String key = getProjectKey(project);
+        json.append("{\"self\":\"").append(BASE_URL).append("/rest/api/2/project/").append(10000 + project)
+                .append("\",\"id\":\"").append(10000 + project).append("\",\"key\":\"").append(key)
+                .append("\",\"name\":\"Project ").append(project)
+                .append("\",\"avatarUrls\":{\"48x48\":\"").append(BASE_URL).append("/secure/projectavatar?pid=")
+                .append(10000 + project).append("\"},\"issuetypes\":[");
+        for (int issueType = 0; issueType < ISSUE_TYPES.length; issueType++) {
+            if (issueType > 0) {
+                json.append(',');
+            }
+            appendIssueType(json, issueType, customFields, allowedValues);
+        }
+        json.append("]}");
+    }
+
+    private static void appendIssueType(StringBuilder json, int issueType, int customFields, int allowedValues) {
+        json.append("{\"self\":\"").append(BASE_URL).append("/rest/api/2/issuetype/").append(issueType + 1)
+                .append("\",\"id\":\"").append(issueType + 1).append("\",\"description\":\"\",\"iconUrl\":\"")
+                .append(BASE_URL).append("/images/icons/issuetypes/").append(issueType + 1)
+                .append(".png\",\"name\":\"").append(ISSUE_TYPES[issueType]).append("\",\"subtask\":")
+                .append(issueType == ISSUE_TYPES.length - 1).append(",\"expand\":\"fields\",\"fields\":{");
+        appendField(json, "summary", "Summary", true, "\"type\":\"string\",\"system\":\"summary\"");
+        json.append("},");
+        appendField(json, "description", "Description", false, "\"type\":\"string\",\"system\":\"description\"");
+        json.append("},");
+        appendField(json, "priority", "Priority", false, "\"type\":\"priority\",\"system\":\"priority\"");
+        json.append(",\"allowedValues\":[");
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"self\":\"").append(BASE_URL).append("/rest/api/2/priority/").append(i + 1)
+                    .append("\",\"iconUrl\":\"").append(BASE_URL).append("/images/icons/priority.png\",\"name\":\"")
+                    .append(PRIORITIES[i]).append("\",\"id\":\"").append(i + 1).append("\"}");
+        }
+        json.append("]},");
+        appendField(json, "components", "Component/s", false, "\"type\":\"array\",\"items\":\"component\",\"system\":\"components\"");
+        json.append(",\"allowedValues\":[");
+        for (int i = 0; i < allowedValues; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"self\":\"").append(BASE_URL).append("/rest/api/2/component/").append(i)
+                    .append("\",\"id\":\"").append(i).append("\",\"name\":\"Component ").append(i).append("\"}");
+        }
+        json.append("]},");
+        for (String versionField : new String[]{"versions", "fixVersions"}) {
+            appendField(json, versionField, versionField, false,
+                    "\"type\":\"array\",\"items\":\"version\",\"system\":\"" + versionField + "\"");
+            json.append(",\"allowedValues\":[");
+            appendVersions(json, allowedValues);
+            json.append("]},");
+        }
+        appendField(json, "labels", "Labels", false, "\"type\":\"array\",\"items\":\"string\",\"system\":\"labels\"");
+        json.append('}');
+        for (int field = 0; field < customFields; field++) {
+            json.append(',');
+            appendField(json, SELECT_FIELD_PREFIX + field, "Select " + field, field == 0,
+                    "\"type\":\"option\",\"custom\":\"com.atlassian.jira.plugin.system.customfieldtypes:select\",\"customId\":"
+                            + (10000 + field));
+            json.append(",\"allowedValues\":[");
+            for (int i = 0; i < allowedValues; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"self\":\"").append(BASE_URL).append("/rest/api/2/customFieldOption/")
+                        .append(field * allowedValues + i).append("\",\"value\":\"Option ").append(i)
+                        .append("\",\"id\":\"").append(field * allowedValues + i).append("\"}");
+            }
+            json.append("]},");
+            appendField(json, TEXT_FIELD_PREFIX + field, "Text " + field, false,
+                    "\"type\":\"string\",\"custom\":\"com.atlassian.jira.plugin.system.customfieldtypes:textfield\",\"customId\":"
+                            + (20000 + field));
+            json.append('}');
+        }
+        json.append("}}");
+    }
+
+    //leaves the field object open, for its allowed values
+    private static void appendField(StringBuilder json, String id, String name, boolean required, String schema) {
+        json.append('"').append(id).append("\":{\"required\":").append(required).append(",\"schema\":{")
+                .append(schema).append("},\"name\":\"").append(name)
+                .append("\",\"hasDefaultValue\":false,\"operations\":[\"set\"]");
+    }
+
+    private static void appendVersions(StringBuilder json, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"self\":\"").append(BASE_URL).append("/rest/api/2/version/").append(i)
+                    .append("\",\"id\":\"").append(i).append("\",\"name\":\"").append(i / 10).append('.').append(i % 10)
+                    .append("\",\"archived\":false,\"released\":").append(i % 3 != 0).append('}');
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.smartbear.ready.plugin.jira.load;
+
+import com.smartbear.ready.plugin.jira.impl.SyntheticMetadata;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.codehaus.jettison.json.JSONException;
+import org.codehaus.jettison.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory stand-in for the JIRA REST endpoints used by the plugin: projects, priorities, createmeta, item
+ * creation (single and bulk), attachments, comments, user and item search. It injects latency and "429 Too Many
+ * Requests" answers, so the provider can be load-tested without a real server.
+ * <p>
+ * The metadata is synthetic unless a directory of recorded responses is given: {@code createmeta.json},
+ * {@code project.json} and {@code priority.json} found there are served as they are.
+ */
+public class JiraStubServer {
+    public static final String REST_PREFIX = "/rest/api/2/";
+    private static final String JSON = "application/json;charset=UTF-8";
+
+    private final Options options;
+    private final Map<String, String> createmetaByProject = new LinkedHashMap<>();
+    private final String projectsJson;
+    private final String prioritiesJson;
+    private final String recordedCreatemeta;
+    private final AtomicLong lastIssueId = new AtomicLong(10000);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final Random throttleRandom = new Random(20150318L);
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public static class Options {
+        public int port = 0;
+        public int threads = 16;
+        public int projects = 10;
+        public int customFields = 20;
+        public int allowedValues = 50;
+        //added to every answer, plus a random part up to latencyJitterMs
+        public long latencyMs = 0;
+        public long latencyJitterMs = 0;
+        //share of the requests answered with 429
+        public double throttleRate = 0;
+        public File recordingsDir;
+    }
+
+    public JiraStubServer(Options options) throws IOException {
+        this.options = options;
+        String recordedProjects = readRecording("project.json");
+        String recordedPriorities = readRecording("priority.json");
+        recordedCreatemeta = readRecording("createmeta.json");
+        StringBuilder projects = new StringBuilder("[");
+        for (int project = 0; project < options.projects; project++) {
+            if (project > 0) {
+                projects.append(',');
+            }
+            String key = SyntheticMetadata.getProjectKey(project);
+            projects.append("{\"self\":\"").append(SyntheticMetadata.BASE_URL).append("/rest/api/2/project/")
+                    .append(key).append("\",\"id\":\"").append(10000 + project).append("\",\"key\":\"").append(key)
+                    .append("\",\"name\":\"Project ").append(project).append("\"}");
+            if (recordedCreatemeta == null) {
+                createmetaByProject.put(key, SyntheticMetadata.projectCreatemetaJson(project, options.customFields,
+                        options.allowedValues));
+            }
+        }
+        projectsJson = recordedProjects != null ? recordedProjects : projects.append(']').toString();
+        StringBuilder priorities = new StringBuilder("[");
+        for (int i = 0; i < SyntheticMetadata.PRIORITIES.length; i++) {
+            if (i > 0) {
+                priorities.append(',');
+            }
+            priorities.append("{\"self\":\"").append(SyntheticMetadata.BASE_URL).append("/rest/api/2/priority/").append(i + 1)
+                    .append("\",\"statusColor\":\"#cc0000\",\"description\":\"").append(SyntheticMetadata.PRIORITIES[i])
+                    .append("\",\"iconUrl\":\"").append(SyntheticMetadata.BASE_URL).append("/images/icons/priority.png\",\"name\":\"")
+                    .append(SyntheticMetadata.PRIORITIES[i]).append("\",\"id\":\"").append(i + 1).append("\"}");
+        }
+        prioritiesJson = recordedPriorities != null ? recordedPriorities : priorities.append(']').toString();
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", options.port), 0);
+        executor = Executors.newFixedThreadPool(options.threads);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    dispatch(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public URI getUri() {
+        return URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getThrottledCount() {
+        return throttled.get();
+    }
+
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        byte[] body = readBody(exchange.getRequestBody());
+        receivedBytes.addAndGet(body.length);
+        delay();
+        if (isThrottled()) {
+            throttled.incrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            send(exchange, 429, "{\"errorMessages\":[\"Rate limit exceeded.\"],\"errors\":{}}");
+            return;
+        }
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (!path.startsWith(REST_PREFIX)) {
+            sendNotFound(exchange, path);
+            return;
+        }
+        String[] segments = path.substring(REST_PREFIX.length()).split("/");
+        String resource = segments[0];
+        if (method.equals("GET") && resource.equals("project") && segments.length == 1) {
+            send(exchange, 200, projectsJson);
+        } else if (method.equals("GET") && resource.equals("project") && segments.length == 2) {
+            sendProject(exchange, segments[1]);
+        } else if (method.equals("GET") && resource.equals("priority")) {
+            send(exchange, 200, prioritiesJson);
+        } else if (method.equals("GET") && resource.equals("issue") && segments.length == 2 && segments[1].equals("createmeta")) {
+            sendCreatemeta(exchange, query.get("projectKeys"));
+        } else if (method.equals("POST") && resource.equals("issue") && segments.length == 1) {
+            send(exchange, 201, createdIssueJson(getProjectKey(body)));
+        } else if (method.equals("POST") && resource.equals("issue") && segments.length == 2 && segments[1].equals("bulk")) {
+            sendBulkCreated(exchange, body);
+        } else if (method.equals("POST") && resource.equals("issue") && segments.length == 3 && segments[2].equals("attachments")) {
+            send(exchange, 200, "[]");
+        } else if (method.equals("POST") && resource.equals("issue") && segments.length == 3 && segments[2].equals("comment")) {
+            send(exchange, 201, "{\"id\":\"" + lastIssueId.incrementAndGet() + "\",\"body\":\"\"}");
+        } else if (method.equals("GET") && resource.equals("user") && segments.length == 2 && segments[1].equals("search")) {
+            sendUsers(exchange, query.get("username"));
+        } else if (method.equals("GET") && resource.equals("search")) {
+            send(exchange, 200, "{\"startAt\":0,\"maxResults\":100,\"total\":0,\"issues\":[]}");
+        } else {
+            sendNotFound(exchange, path);
+        }
+    }
+
+    private void sendProject(HttpExchange exchange, String key) throws IOException {
+        String self = SyntheticMetadata.BASE_URL + "/rest/api/2/project/" + key;
+        StringBuilder issueTypes = new StringBuilder("[");
+        for (int i = 0; i < SyntheticMetadata.ISSUE_TYPES.length; i++) {
+            if (i > 0) {
+                issueTypes.append(',');
+            }
+            issueTypes.append("{\"self\":\"").append(SyntheticMetadata.BASE_URL).append("/rest/api/2/issuetype/").append(i + 1)
+                    .append("\",\"id\":\"").append(i + 1).append("\",\"description\":\"\",\"iconUrl\":\"")
+                    .append(SyntheticMetadata.BASE_URL).append("/images/icons/issuetypes/").append(i + 1)
+                    .append(".png\",\"name\":\"").append(SyntheticMetadata.ISSUE_TYPES[i]).append("\",\"subtask\":")
+                    .append(i == SyntheticMetadata.ISSUE_TYPES.length - 1).append('}');
+        }
+        issueTypes.append(']');
+        send(exchange, 200, "{\"self\":\"" + self + "\",\"id\":\"10000\",\"key\":\"" + key + "\",\"name\":\"" + key
+                + "\",\"description\":\"\",\"lead\":" + userJson("admin") + ",\"components\":[],\"issueTypes\":"
+                + issueTypes + ",\"versions\":[],\"roles\":{}}");
+    }
+
+    private void sendCreatemeta(HttpExchange exchange, String projectKeys) throws IOException {
+        if (recordedCreatemeta != null) {
+            send(exchange, 200, recordedCreatemeta);
+            return;
+        }
+        StringBuilder json = new StringBuilder("{\"expand\":\"projects\",\"projects\":[");
+        boolean first = true;
+        for (Map.Entry<String, String> project : createmetaByProject.entrySet()) {
+            if (projectKeys != null && !("," + projectKeys + ",").contains("," + project.getKey() + ",")) {
+                continue;
+            }
+            if (!first) {
+                json.append(',');
+            }
+            json.append(project.getValue());
+            first = false;
+        }
+        send(exchange, 200, json.append("]}").toString());
+    }
+
+    private void sendBulkCreated(HttpExchange exchange, byte[] body) throws IOException {
+        int count;
+        try {
+            count = new JSONObject(new String(body, StandardCharsets.UTF_8)).getJSONArray("issueUpdates").length();
+        } catch (JSONException e) {
+            send(exchange, 400, "{\"errorMessages\":[\"" + e.getMessage().replace("\"", "'") + "\"],\"errors\":{}}");
+            return;
+        }
+        StringBuilder json = new StringBuilder("{\"issues\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(createdIssueJson(SyntheticMetadata.getProjectKey(0)));
+        }
+        send(exchange, 201, json.append("],\"errors\":[]}").toString());
+    }
+
+    private void sendUsers(HttpExchange exchange, String username) throws IOException {
+        send(exchange, 200, username == null || username.isEmpty() ? "[]" : "[" + userJson(username) + "]");
+    }
+
+    private void sendNotFound(HttpExchange exchange, String path) throws IOException {
+        send(exchange, 404, "{\"errorMessages\":[\"No stub for " + path + "\"],\"errors\":{}}");
+    }
+
+    private static String getProjectKey(byte[] body) {
+        try {
+            return new JSONObject(new String(body, StandardCharsets.UTF_8)).getJSONObject("fields")
+                    .getJSONObject("project").getString("key");
+        } catch (JSONException e) {
+            return SyntheticMetadata.getProjectKey(0);
+        }
+    }
+
+    private String createdIssueJson(String projectKey) {
+        long id = lastIssueId.incrementAndGet();
+        return "{\"id\":\"" + id + "\",\"key\":\"" + projectKey + "-" + id + "\",\"self\":\"" + SyntheticMetadata.BASE_URL
+                + "/rest/api/2/issue/" + id + "\"}";
+    }
+
+    private static String userJson(String name) {
+        String self = SyntheticMetadata.BASE_URL + "/rest/api/2/user?username=" + name;
+        return "{\"self\":\"" + self + "\",\"key\":\"" + name + "\",\"name\":\"" + name + "\",\"emailAddress\":\"" + name
+                + "@example.com\",\"avatarUrls\":{\"48x48\":\"" + SyntheticMetadata.BASE_URL + "/secure/useravatar\"},"
+                + "\"displayName\":\"" + name + "\",\"active\":true,\"timeZone\":\"UTC\"}";
+    }
+
+    private void delay() {
+        long delay = options.latencyMs;
+        if (options.latencyJitterMs > 0) {
+            delay += ThreadLocalRandom.current().nextLong(options.latencyJitterMs + 1);
+        }
+        if (delay > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean isThrottled() {
+        if (options.throttleRate <= 0) {
+            return false;
+        }
+        synchronized (throttleRandom) {
+            return throttleRandom.nextDouble() < options.throttleRate;
+        }
+    }
+
+    private String readRecording(String name) throws IOException {
+        if (options.recordingsDir == null) {
+            return null;
+        }
+        File file = new File(options.recordingsDir, name);
+        return file.isFile() ? new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8) : null;
+    }
+
+    private static byte[] readBody(InputStream input) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                query.put(URLDecoder.decode(parameter.substring(0, separator), "UTF-8"),
+                        URLDecoder.decode(parameter.substring(separator + 1), "UTF-8"));
+            }
+        }
+        return query;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+}
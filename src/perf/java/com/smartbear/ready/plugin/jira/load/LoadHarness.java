@@ -0,0 +1,244 @@
+package com.smartbear.ready.plugin.jira.load;
+
+import com.smartbear.ready.plugin.jira.impl.AttachmentAddingResult;
+import com.smartbear.ready.plugin.jira.impl.IssueCreationResult;
+import com.smartbear.ready.plugin.jira.impl.JiraProvider;
+import com.smartbear.ready.plugin.jira.impl.SyntheticMetadata;
+import com.smartbear.ready.plugin.jira.metrics.EndpointMetrics;
+import com.smartbear.ready.plugin.jira.metrics.JiraMetrics;
+import com.smartbear.ready.plugin.jira.settings.BugTrackerSettings;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the item creation flows of {@link JiraProvider} at a given concurrency, against the embedded
+ * {@link JiraStubServer} or any server given by {@code url=}, and reports the flow latencies, the items created
+ * per second and the latencies of each REST endpoint.
+ * <p>
+ * Arguments are {@code name=value} pairs, for instance
+ * {@code flow=attach threads=16 flows=2000 latencyMs=40 latencyJitterMs=60 throttleRate=0.01}:
+ * <ul>
+ * <li>{@code flow}: {@code create}, {@code attach} (create, then upload an attachment) or {@code reporter}
+ * (create with a reporter, which costs a user search)</li>
+ * <li>{@code threads}, {@code flows}, {@code warmupFlows}: concurrency and number of measured and warm-up flows</li>
+ * <li>{@code attachmentKb}: size of the uploaded attachment</li>
+ * <li>{@code coldMetadata=true}: drop the createmeta of the project before each flow, so every flow reads it</li>
+ * <li>{@code url}, {@code login}, {@code password}: server to use instead of the embedded stub</li>
+ * <li>stub settings: {@code projects}, {@code customFields}, {@code allowedValues}, {@code latencyMs},
+ * {@code latencyJitterMs}, {@code throttleRate}, {@code recordings} (directory of recorded responses),
+ * {@code serverThreads}</li>
+ * </ul>
+ */
+public class LoadHarness {
+    private static final String FLOW_CREATE = "create";
+    private static final String FLOW_ATTACH = "attach";
+    private static final String FLOW_REPORTER = "reporter";
+    private static final int MAX_ERROR_MESSAGE_LENGTH = 100;
+
+    private final Map<String, String> arguments;
+    private final String flow;
+    private final int projects;
+    private final int customFields;
+    private final boolean coldMetadata;
+    private final byte[] attachment;
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(10), 3);
+    private final AtomicLong createdIssues = new AtomicLong();
+    private final ConcurrentHashMap<String, AtomicInteger> errors = new ConcurrentHashMap<>();
+    private JiraProvider provider;
+    private URI serverUri;
+
+    public LoadHarness(Map<String, String> arguments) {
+        this.arguments = arguments;
+        flow = getString(FLOW_CREATE, "flow");
+        projects = getInt(10, "projects");
+        customFields = getInt(20, "customFields");
+        coldMetadata = Boolean.parseBoolean(getString("false", "coldMetadata"));
+        attachment = new byte[getInt(64, "attachmentKb") * 1024];
+        new Random(20150318L).nextBytes(attachment);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> arguments = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                System.err.println("Arguments are name=value pairs, see the documentation of " + LoadHarness.class.getName());
+                System.exit(1);
+            }
+            arguments.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        new LoadHarness(arguments).run();
+        System.exit(0);
+    }
+
+    public void run() throws Exception {
+        JiraStubServer stub = null;
+        String url = arguments.get("url");
+        if (url == null) {
+            JiraStubServer.Options options = new JiraStubServer.Options();
+            options.threads = getInt(options.threads, "serverThreads");
+            options.projects = projects;
+            options.customFields = customFields;
+            options.allowedValues = getInt(options.allowedValues, "allowedValues");
+            options.latencyMs = getInt(0, "latencyMs");
+            options.latencyJitterMs = getInt(0, "latencyJitterMs");
+            options.throttleRate = Double.parseDouble(getString("0", "throttleRate"));
+            options.recordingsDir = arguments.containsKey("recordings") ? new File(arguments.get("recordings")) : null;
+            stub = new JiraStubServer(options);
+            stub.start();
+            url = stub.getUri().toString();
+        }
+        serverUri = URI.create(url);
+        provider = JiraProvider.createHeadlessProvider(new BugTrackerSettings(url, getString("load", "login"),
+                getString("load", "password"), false));
+        if (provider == null) {
+            throw new IllegalArgumentException("Invalid server URL: " + url);
+        }
+        try {
+            int threads = getInt(8, "threads");
+            runFlows(threads, getInt(50, "warmupFlows"));
+            latencies.reset();
+            createdIssues.set(0);
+            errors.clear();
+            for (JiraMetrics.Endpoint endpoint : JiraMetrics.Endpoint.values()) {
+                JiraMetrics.getEndpointMetrics(endpoint).reset();
+            }
+            long requestsBefore = stub == null ? 0 : stub.getRequestCount();
+            long throttledBefore = stub == null ? 0 : stub.getThrottledCount();
+            long start = System.nanoTime();
+            runFlows(threads, getInt(500, "flows"));
+            long elapsedNanos = System.nanoTime() - start;
+            report(threads, elapsedNanos);
+            if (stub != null) {
+                System.out.printf("Stub: %d requests, %d answered with 429%n", stub.getRequestCount() - requestsBefore,
+                        stub.getThrottledCount() - throttledBefore);
+            }
+        } finally {
+            if (stub != null) {
+                stub.stop();
+            }
+        }
+    }
+
+    private void runFlows(int threads, final int flows) throws InterruptedException {
+        if (flows <= 0) {
+            return;
+        }
+        final AtomicInteger nextFlow = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = nextFlow.getAndIncrement(); i < flows; i = nextFlow.getAndIncrement()) {
+                            runFlow(i);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            });
+        }
+        done.await();
+        executor.shutdown();
+    }
+
+    private void runFlow(int index) {
+        String projectKey = SyntheticMetadata.getProjectKey(index % projects);
+        if (coldMetadata) {
+            provider.invalidateProjectFields(projectKey);
+        }
+        Map<String, String> extraValues = new HashMap<>();
+        extraValues.put(JiraProvider.PRIORITY_FIELD_NAME, SyntheticMetadata.PRIORITIES[index % SyntheticMetadata.PRIORITIES.length]);
+        for (int field = 0; field < Math.min(customFields, 5); field++) {
+            extraValues.put(SyntheticMetadata.SELECT_FIELD_PREFIX + field, "Option " + index % 10);
+            extraValues.put(SyntheticMetadata.TEXT_FIELD_PREFIX + field, "Flow " + index);
+        }
+        if (flow.equals(FLOW_REPORTER)) {
+            extraValues.put("reporter", "user" + index % 100);
+        }
+
+        long start = System.nanoTime();
+        IssueCreationResult result = provider.createIssue(projectKey, SyntheticMetadata.ISSUE_TYPES[0],
+                "Load test item " + index, "Created by the load harness, flow " + index, extraValues);
+        boolean success = result.getSuccess();
+        if (success) {
+            createdIssues.incrementAndGet();
+            if (flow.equals(FLOW_ATTACH)) {
+                URI attachmentsUri = serverUri.resolve("/rest/api/2/issue/" + result.getIssue().getKey() + "/attachments");
+                AttachmentAddingResult attachResult = provider.attachFile(attachmentsUri, "payload.bin",
+                        new ByteArrayInputStream(attachment));
+                success = attachResult.getSuccess();
+                if (!success) {
+                    recordError(attachResult.getError());
+                }
+            }
+        } else {
+            recordError(result.getError());
+        }
+        latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+    }
+
+    private void recordError(String message) {
+        String key = message == null ? "unknown" : message.length() > MAX_ERROR_MESSAGE_LENGTH ?
+                message.substring(0, MAX_ERROR_MESSAGE_LENGTH) : message;
+        AtomicInteger counter = errors.get(key);
+        if (counter == null) {
+            AtomicInteger created = new AtomicInteger();
+            counter = errors.putIfAbsent(key, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    private void report(int threads, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("Flow '%s', %d threads: %d flows in %.2f s, %d items created, %.1f items/s%n", flow, threads,
+                latencies.getTotalCount(), seconds, createdIssues.get(), createdIssues.get() / seconds);
+        System.out.printf("Flow latency (ms): p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+                latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(90) / 1000.0,
+                latencies.getValueAtPercentile(99) / 1000.0, latencies.getMaxValue() / 1000.0);
+        for (Map.Entry<String, AtomicInteger> error : new TreeMap<>(errors).entrySet()) {
+            System.out.printf("Error x%d: %s%n", error.getValue().get(), error.getKey());
+        }
+        System.out.println("Endpoint latency (ms):");
+        for (JiraMetrics.Endpoint endpoint : JiraMetrics.Endpoint.values()) {
+            EndpointMetrics metrics = JiraMetrics.getEndpointMetrics(endpoint);
+            if (metrics.getRequestCount() == 0) {
+                continue;
+            }
+            System.out.printf("  %-14s %7d calls, p50 %8.1f, p99 %8.1f, max %8.1f, errors %d %s%n",
+                    endpoint.getMetricName(), metrics.getRequestCount(), metrics.getP50Millis(), metrics.getP99Millis(),
+                    metrics.getMaxMillis(), metrics.getErrorCount(), metrics.getErrorCountsByStatus());
+        }
+    }
+
+    private String getString(String defaultValue, String name) {
+        String value = arguments.get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    private int getInt(int defaultValue, String name) {
+        String value = arguments.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
@@ -0,0 +1,60 @@
+package com.smartbear.ready.plugin.jira.load;
+
+import com.smartbear.ready.plugin.jira.sync.WebhookReceiver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Posts sample JIRA webhook events to a running {@link WebhookReceiver}, to check the receiver without a JIRA
+ * server:
+ * <pre>
+ * java -cp ... com.smartbear.ready.plugin.jira.load.WebhookSampleSender "http://127.0.0.1:8095/jira/webhook?secret=..." QA-1 Reopened [count]
+ * </pre>
+ * The events have the structure of the real ones, including the parts the receiver skips.
+ */
+public class WebhookSampleSender {
+    private static final String UPDATED_EVENT = "{\"timestamp\":%d,\"webhookEvent\":\"jira:issue_updated\"," +
+            "\"user\":{\"name\":\"admin\",\"displayName\":\"Administrator\"}," +
+            "\"issue\":{\"id\":\"10001\",\"key\":\"%s\",\"fields\":{\"summary\":\"Sample item\"," +
+            "\"status\":{\"name\":\"%s\",\"id\":\"4\"},\"resolution\":null," +
+            "\"assignee\":{\"name\":\"tester\",\"displayName\":\"Tester\"}," +
+            "\"labels\":[\"nightly\"],\"updated\":\"2015-03-18T12:00:00.000+0000\"}}," +
+            "\"changelog\":{\"items\":[{\"field\":\"status\",\"fromString\":\"Resolved\",\"toString\":\"%s\"}]}}";
+
+    private WebhookSampleSender() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: WebhookSampleSender <receiver URL> <issue key> <status> [count]");
+            System.exit(1);
+        }
+        int count = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        for (int i = 0; i < count; i++) {
+            int status = send(new URL(args[0]), String.format(UPDATED_EVENT, System.currentTimeMillis(), args[1],
+                    args[2], args[2]));
+            System.out.println("HTTP " + status);
+        }
+    }
+
+    public static int send(URL receiver, String payload) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) receiver.openConnection();
+        try {
+            byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(body.length);
+            connection.setDoOutput(true);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body);
+            }
+            return connection.getResponseCode();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
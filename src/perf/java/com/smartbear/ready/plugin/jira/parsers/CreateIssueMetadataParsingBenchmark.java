@@ -0,0 +1,64 @@
+package com.smartbear.ready.plugin.jira.parsers;
+
+import com.atlassian.jira.rest.client.api.domain.CimProject;
+import com.smartbear.ready.plugin.jira.cache.ProjectIssueTypeCatalog;
+import com.smartbear.ready.plugin.jira.impl.SyntheticMetadata;
+import org.codehaus.jettison.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of createmeta responses from about 1.5 MB (20 allowed values per field) to 13 MB (200), or of the
+ * recorded response set with {@code -Djira.benchmark.createmeta=<file>}; the {@code allowedValues} parameter has
+ * no effect then.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class CreateIssueMetadataParsingBenchmark {
+    public static final String RECORDED_CREATEMETA_PROPERTY = "jira.benchmark.createmeta";
+    private static final int PROJECTS = 10;
+    private static final int CUSTOM_FIELDS = 10;
+
+    @Param({"20", "200"})
+    public int allowedValues;
+
+    private String createmeta;
+
+    @Setup
+    public void setUp() throws Exception {
+        String recordedFile = System.getProperty(RECORDED_CREATEMETA_PROPERTY);
+        if (recordedFile != null) {
+            createmeta = new String(Files.readAllBytes(new File(recordedFile).toPath()), StandardCharsets.UTF_8);
+        } else {
+            createmeta = SyntheticMetadata.createmetaJson(PROJECTS, CUSTOM_FIELDS, allowedValues);
+        }
+    }
+
+    @Benchmark
+    public Iterable<CimProject> parse() throws JSONException {
+        return SyntheticMetadata.parse(createmeta);
+    }
+
+    @Benchmark
+    public ProjectIssueTypeCatalog parseCatalog() throws JSONException {
+        return new ProjectIssueTypeCatalog(SyntheticMetadata.parse(createmeta));
+    }
+}